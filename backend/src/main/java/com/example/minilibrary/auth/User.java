@@ -8,6 +8,7 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheEvictionListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -35,4 +36,17 @@ public class User {
         this.role = role;
         this.enabled = true;
     }
+
+    /**
+     * Builds an id-only principal from trusted token claims. The instance is never
+     * loaded from the database and must only be used as a query parameter or as the
+     * owning side of an association, never persisted or merged itself.
+     */
+    public static User reference(Long id, String email, Role role) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setRole(role);
+        return user;
+    }
 }
@@ -0,0 +1,37 @@
+package com.example.minilibrary.auth;
+
+import com.example.minilibrary.shared.security.PrincipalCache;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts a changed or deleted user's cached principal. It goes by id, because after an email
+ * change the entry still sits under the previous email. Entity callbacks run before the commit,
+ * so the entry is evicted again once the transaction completes: a request in between may have
+ * loaded the old role or email back into the cache.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheEvictionListener {
+
+    private final PrincipalCache principalCache;
+
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        Long userId = user.getId();
+        principalCache.evictUser(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    principalCache.evictUser(userId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Number of books a user owns per author, maintained alongside book writes so top-author
+ * lookups read a few index entries instead of grouping the whole library.
+ */
+@Entity
+@Table(name = "author_stat", indexes = {
+        @Index(name = "idx_author_stat_user_count", columnList = "user_id, book_count DESC")
+}, uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "user_id", "author" })
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class AuthorStat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false, length = 255)
+    private String author;
+
+    @Column(name = "book_count", nullable = false)
+    private long bookCount;
+}
@@ -0,0 +1,47 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Builds author counters once for libraries created before the counters existed, as recorded by
+ * {@link PendingAuthorStatBackfill} markers. Each user gets a transaction of their own that
+ * rebuilds their counters from their books (including books written since the counters shipped)
+ * and drops the marker.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuthorStatBackfill {
+
+    private final AuthorStatRepository authorStatRepository;
+    private final PendingAuthorStatBackfillRepository pendingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<Long> userIds = pendingRepository.findAllUserIds();
+        int created = 0;
+        for (Long userId : userIds) {
+            created += transactionTemplate.execute(status -> backfillUser(userId));
+        }
+        if (created > 0) {
+            log.info("Created {} author counters for {} users", created, userIds.size());
+        }
+    }
+
+    private int backfillUser(Long userId) {
+        User user = User.reference(userId, null, null);
+        authorStatRepository.bulkDeleteByUser(user);
+        int created = authorStatRepository.initializeForUser(user);
+        pendingRepository.deleteById(userId);
+        return created;
+    }
+}
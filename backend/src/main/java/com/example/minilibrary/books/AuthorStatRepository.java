@@ -0,0 +1,55 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AuthorStatRepository extends JpaRepository<AuthorStat, Long> {
+
+        @Query("SELECT a.author FROM AuthorStat a WHERE a.user = :user AND a.bookCount > 0 "
+                        + "ORDER BY a.bookCount DESC, a.author ASC")
+        List<String> findTopAuthorsByUser(@Param("user") User user, Limit limit);
+
+        @Modifying(flushAutomatically = true)
+        @Query("UPDATE AuthorStat a SET a.bookCount = a.bookCount + :delta "
+                        + "WHERE a.user = :user AND a.author = :author")
+        int adjust(@Param("user") User user, @Param("author") String author, @Param("delta") long delta);
+
+        /**
+         * Creates the counter unless it exists. A concurrent insert of the same counter is waited
+         * out and skipped instead of failing, which would abort the caller's transaction.
+         */
+        @Modifying(flushAutomatically = true)
+        @Query(value = "INSERT INTO author_stat (user_id, author, book_count) VALUES (:userId, :author, :count) "
+                        + "ON CONFLICT DO NOTHING", nativeQuery = true)
+        int insertIfAbsent(@Param("userId") Long userId, @Param("author") String author, @Param("count") long count);
+
+        /** Decrements the author of a book that is about to be deleted, without loading it. */
+        @Modifying(flushAutomatically = true)
+        @Query("UPDATE AuthorStat a SET a.bookCount = a.bookCount - 1 WHERE a.user = :user AND a.author = "
+                        + "(SELECT b.author FROM Book b WHERE b.id = :bookId AND b.user = :user)")
+        int decrementForBook(@Param("user") User user, @Param("bookId") Long bookId);
+
+        @Modifying
+        @Query("DELETE FROM AuthorStat a WHERE a.user = :user AND a.bookCount <= 0")
+        int deleteEmptyByUser(@Param("user") User user);
+
+        @Modifying(flushAutomatically = true, clearAutomatically = true)
+        @Query("DELETE FROM AuthorStat a WHERE a.user = :user")
+        int bulkDeleteByUser(@Param("user") User user);
+
+        /** Builds the user's counters from their books; the user must have none yet. */
+        @Modifying
+        @Query("INSERT INTO AuthorStat (user, author, bookCount) "
+                        + "SELECT b.user, b.author, COUNT(b) FROM Book b "
+                        + "WHERE b.user = :user AND b.author IS NOT NULL AND TRIM(b.author) <> '' "
+                        + "GROUP BY b.user, b.author")
+        int initializeForUser(@Param("user") User user);
+}
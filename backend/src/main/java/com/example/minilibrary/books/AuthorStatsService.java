@@ -0,0 +1,66 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@link AuthorStat} counters in step with book writes. Every method joins the
+ * caller's transaction, so a counter changes exactly when the book row does.
+ */
+@Service
+@RequiredArgsConstructor
+public class AuthorStatsService {
+
+    private final AuthorStatRepository authorStatRepository;
+
+    public List<String> getTopAuthors(User user, int limit) {
+        return authorStatRepository.findTopAuthorsByUser(user, Limit.of(limit));
+    }
+
+    @Transactional
+    public void bookAdded(User user, String author) {
+        if (author != null && !author.isBlank()) {
+            increment(user, author, 1);
+        }
+    }
+
+    @Transactional
+    public void booksAdded(User user, Collection<Book> books) {
+        Map<String, Long> counts = books.stream()
+                .map(Book::getAuthor)
+                .filter(Objects::nonNull)
+                .filter(author -> !author.isBlank())
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        counts.forEach((author, count) -> increment(user, author, count));
+    }
+
+    @Transactional
+    public void bookRemoved(User user, Long bookId) {
+        if (authorStatRepository.decrementForBook(user, bookId) > 0) {
+            authorStatRepository.deleteEmptyByUser(user);
+        }
+    }
+
+    @Transactional
+    public void libraryRemoved(User user) {
+        authorStatRepository.bulkDeleteByUser(user);
+    }
+
+    /** A first book by an author creates its counter, unless a concurrent write just did. */
+    private void increment(User user, String author, long count) {
+        if (authorStatRepository.adjust(user, author, count) == 0
+                && authorStatRepository.insertIfAbsent(user.getId(), author, count) == 0) {
+            authorStatRepository.adjust(user, author, count);
+        }
+    }
+}
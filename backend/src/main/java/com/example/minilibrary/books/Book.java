@@ -14,6 +14,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(LibraryChangeListener.class)
 @Table(name = "books", indexes = {
         @Index(name = "idx_book_user", columnList = "user_id"),
         @Index(name = "idx_book_isbn", columnList = "isbn")
@@ -28,7 +29,8 @@ import java.util.List;
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
@@ -56,9 +58,22 @@ public class Book {
     @Column(length = 500)
     private String categories;
 
+    @Embedded
+    @AttributeOverride(name = "periodStart", column = @Column(name = "weekly_period_start"))
+    @AttributeOverride(name = "pagesRead", column = @Column(name = "weekly_pages_read"))
+    private GoalPeriodProgress weeklyProgress;
+
+    @Embedded
+    @AttributeOverride(name = "periodStart", column = @Column(name = "monthly_period_start"))
+    @AttributeOverride(name = "pagesRead", column = @Column(name = "monthly_pages_read"))
+    private GoalPeriodProgress monthlyProgress;
+
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ReadingSession> readingSessions = new ArrayList<>();
 
+    @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<BookCategory> categoryEntries = new ArrayList<>();
+
     public void addReadingSession(ReadingSession session) {
         readingSessions.add(session);
         session.setBook(this);
@@ -80,5 +95,12 @@ public class Book {
         if (completed == null) {
             completed = false;
         }
+        syncCategoryEntries();
+    }
+
+    /** Rebuilds the normalized {@link BookCategory} rows from the {@code categories} string. */
+    public void syncCategoryEntries() {
+        categoryEntries.clear();
+        BookCategory.parse(categories).forEach(name -> categoryEntries.add(new BookCategory(this, name)));
     }
 }
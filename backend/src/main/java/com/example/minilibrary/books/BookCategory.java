@@ -0,0 +1,59 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One category of a book, normalized out of {@link Book#getCategories()} so category
+ * statistics can be aggregated in SQL. The owner is denormalized to group without a join.
+ */
+@Entity
+@Table(name = "book_category", indexes = {
+        @Index(name = "idx_book_category_user_name", columnList = "user_id, name"),
+        @Index(name = "idx_book_category_book", columnList = "book_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class BookCategory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_category_seq")
+    @SequenceGenerator(name = "book_category_seq", sequenceName = "book_category_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false, length = 500)
+    private String name;
+
+    BookCategory(Book book, String name) {
+        this.book = book;
+        this.user = book.getUser();
+        this.name = name;
+    }
+
+    /** Splits the comma-joined categories string into distinct, trimmed names. */
+    static List<String> parse(String categories) {
+        if (categories == null) {
+            return List.of();
+        }
+        return Arrays.stream(categories.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .toList();
+    }
+}
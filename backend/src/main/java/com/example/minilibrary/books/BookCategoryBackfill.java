@@ -0,0 +1,53 @@
+package com.example.minilibrary.books;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Creates {@link BookCategory} rows for books stored before categories were normalized.
+ * Walks the affected books by id in chunks, one transaction per chunk.
+ */
+@Component
+@Slf4j
+public class BookCategoryBackfill {
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public BookCategoryBackfill(BookRepository bookRepository, TransactionTemplate transactionTemplate,
+            @Value("${app.books.backfill.chunk-size:500}") int chunkSize) {
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long lastId = 0;
+        int total = 0;
+        while (true) {
+            long afterId = lastId;
+            List<Book> chunk = transactionTemplate.execute(status -> {
+                List<Book> books = bookRepository.findWithoutCategoryEntries(afterId, Limit.of(chunkSize));
+                books.forEach(Book::syncCategoryEntries);
+                return books;
+            });
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            total += chunk.size();
+            lastId = chunk.get(chunk.size() - 1).getId();
+        }
+        if (total > 0) {
+            log.info("Created category entries for {} books", total);
+        }
+    }
+}
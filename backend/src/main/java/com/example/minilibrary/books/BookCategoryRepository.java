@@ -0,0 +1,27 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BookCategoryRepository extends JpaRepository<BookCategory, Long> {
+
+        @Query("SELECT c.name FROM BookCategory c WHERE c.user = :user GROUP BY c.name "
+                        + "ORDER BY COUNT(c) DESC, c.name ASC")
+        List<String> findTopNamesByUser(@Param("user") User user, Limit limit);
+
+        @Modifying(flushAutomatically = true, clearAutomatically = true)
+        @Query("DELETE FROM BookCategory c WHERE c.user = :user AND c.book.id = :bookId")
+        int bulkDeleteByUserAndBookId(@Param("user") User user, @Param("bookId") Long bookId);
+
+        @Modifying(flushAutomatically = true, clearAutomatically = true)
+        @Query("DELETE FROM BookCategory c WHERE c.user = :user")
+        int bulkDeleteByUser(@Param("user") User user);
+}
@@ -2,6 +2,8 @@ package com.example.minilibrary.books;
 
 import com.example.minilibrary.auth.User;
 import com.example.minilibrary.books.dto.BookDto;
+import com.example.minilibrary.books.dto.BookImportResult;
+import com.example.minilibrary.books.dto.BookSliceDto;
 import com.example.minilibrary.books.dto.CreateBookRequest;
 import com.example.minilibrary.books.dto.SetGoalRequest;
 import com.example.minilibrary.books.dto.UpdateProgressRequest;
@@ -13,10 +15,17 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -25,7 +34,10 @@ import java.util.List;
 public class BookController {
 
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final BookExportService bookExportService;
     private final BookMapper bookMapper;
+    private final LibraryVersionTracker libraryVersionTracker;
 
     @GetMapping
     public Page<BookDto> getAllBooks(
@@ -37,16 +49,43 @@ public class BookController {
                 .map(bookMapper::toDto);
     }
 
+    @GetMapping("/scroll")
+    public BookSliceDto scrollBooks(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @CurrentUser User user) {
+        Window<Book> window = bookService.scrollAllByUser(user, BookCursor.toPosition(cursor), size);
+        String nextCursor = window.hasNext() ? BookCursor.of(window.getContent().get(window.size() - 1)).encode() : null;
+        Long total = withTotal ? bookService.countByUser(user) : null;
+        return new BookSliceDto(window.map(bookMapper::toDto).getContent(), nextCursor, window.hasNext(), total);
+    }
+
     @GetMapping("/owned")
-    public List<String> getAllOwnedIsbns(@CurrentUser User user) {
-        return bookService.getAllOwnedIsbns(user);
+    public ResponseEntity<List<String>> getAllOwnedIsbns(@CurrentUser User user, WebRequest webRequest) {
+        String etag = libraryVersionTracker.etag(user.getId());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(bookService.getAllOwnedIsbns(user));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<BookDto> getBookById(@PathVariable Long id, @CurrentUser User user) {
+    public ResponseEntity<BookDto> getBookById(@PathVariable Long id, @CurrentUser User user,
+            WebRequest webRequest) {
+        String etag = libraryVersionTracker.bookEtag(user.getId(), id);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         Book book = bookService.findByIdAndUser(id, user)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
-        return ResponseEntity.ok(bookMapper.toDto(book));
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(bookMapper.toDto(book));
     }
 
     @PostMapping
@@ -57,6 +96,27 @@ public class BookController {
         return ResponseEntity.status(HttpStatus.CREATED).body(bookMapper.toDto(savedBook));
     }
 
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public BookImportResult importCsv(InputStream body, @CurrentUser User user) {
+        return bookImportService.importBooks(body, BookImportFormat.CSV, user);
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public BookImportResult importNdjson(InputStream body, @CurrentUser User user) {
+        return bookImportService.importBooks(body, BookImportFormat.NDJSON, user);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(defaultValue = "NDJSON") BookExportFormat format,
+            @CurrentUser User user) {
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(format.fileName()).build().toString())
+                .body(out -> bookExportService.export(user, format, out));
+    }
+
     @PatchMapping("/{id}/progress")
     public ResponseEntity<BookDto> updateBookProgress(
             @PathVariable Long id,
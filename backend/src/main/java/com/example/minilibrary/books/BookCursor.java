@@ -0,0 +1,47 @@
+package com.example.minilibrary.books;
+
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Opaque continuation token for the book list, keyed on the list's sort order
+ * {@code (completed, id)}. Clients only ever pass back what they were given.
+ */
+record BookCursor(boolean completed, long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    static BookCursor of(Book book) {
+        return new BookCursor(Boolean.TRUE.equals(book.getCompleted()), book.getId());
+    }
+
+    static ScrollPosition toPosition(String token) {
+        if (token == null || token.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        BookCursor cursor = decode(token);
+        return ScrollPosition.forward(Map.of("completed", cursor.completed(), "id", cursor.id()));
+    }
+
+    static BookCursor decode(String token) {
+        try {
+            String[] parts = new String(DECODER.decode(token), StandardCharsets.UTF_8).split(":", 2);
+            if (parts.length != 2 || !(parts[0].equals("0") || parts[0].equals("1"))) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new BookCursor(parts[0].equals("1"), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and Base64 errors are both IllegalArgumentExceptions
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    String encode() {
+        String raw = (completed ? "1:" : "0:") + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
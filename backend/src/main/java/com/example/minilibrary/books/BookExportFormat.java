@@ -0,0 +1,24 @@
+package com.example.minilibrary.books;
+
+import org.springframework.http.MediaType;
+
+public enum BookExportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CSV(new MediaType("text", "csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    BookExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String fileName() {
+        return "library." + extension;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.books.dto.BookExportDto;
+import com.example.minilibrary.sessions.ReadingSession;
+import com.example.minilibrary.sessions.ReadingSessionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Streams a user's library from a database cursor straight to the response. Books are
+ * written in chunks: sessions are fetched per chunk, the chunk is flushed to the client and
+ * the persistence context cleared, so memory stays flat regardless of library size. The cursor
+ * fetches one chunk per round trip.
+ */
+@Service
+public class BookExportService {
+
+    private static final List<String> CSV_HEADER = List.of("isbn", "title", "authorName", "publishDate",
+            "coverUrl", "pageCount", "categories", "currentPage", "startDate", "completed", "readingGoalType",
+            "readingGoalPages", "sessionCount", "pagesRead");
+
+    private final BookRepository bookRepository;
+    private final ReadingSessionRepository sessionRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter jsonWriter;
+    private final int chunkSize;
+
+    public BookExportService(BookRepository bookRepository, ReadingSessionRepository sessionRepository,
+            EntityManager entityManager, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+            @Value("${app.books.export.chunk-size:500}") int chunkSize) {
+        this.bookRepository = bookRepository;
+        this.sessionRepository = sessionRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonWriter = objectMapper.writerFor(BookExportDto.class);
+        this.chunkSize = chunkSize;
+    }
+
+    public void export(User user, BookExportFormat format, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Book> books = bookRepository.streamByUserOrderByIdAsc(user, chunkSize)) {
+                if (format == BookExportFormat.CSV) {
+                    writeCsvRow(writer, CSV_HEADER);
+                }
+                List<Book> chunk = new ArrayList<>(chunkSize);
+                Iterator<Book> iterator = books.iterator();
+                while (iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                    if (chunk.size() >= chunkSize || !iterator.hasNext()) {
+                        writeChunk(chunk, format, writer);
+                        chunk.clear();
+                    }
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write export", e);
+            }
+        });
+    }
+
+    private void writeChunk(List<Book> chunk, BookExportFormat format, Writer writer) throws IOException {
+        Map<Long, List<BookExportDto.Session>> sessionsByBook = new HashMap<>();
+        for (ReadingSession session : sessionRepository
+                .findByBookIdInOrderByStartTimeAsc(chunk.stream().map(Book::getId).toList())) {
+            sessionsByBook.computeIfAbsent(session.getBook().getId(), id -> new ArrayList<>())
+                    .add(new BookExportDto.Session(session.getStartTime(), session.getEndTime(),
+                            session.getStatus(), session.getEndPage(), session.getPagesRead(),
+                            session.getPausedMillis()));
+        }
+        for (Book book : chunk) {
+            BookExportDto dto = toDto(book, sessionsByBook.getOrDefault(book.getId(), List.of()));
+            if (format == BookExportFormat.CSV) {
+                writeCsvRow(writer, csvValues(dto));
+            } else {
+                writer.write(jsonWriter.writeValueAsString(dto));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+        entityManager.clear();
+    }
+
+    private static BookExportDto toDto(Book book, List<BookExportDto.Session> sessions) {
+        return new BookExportDto(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublishDate(),
+                book.getCoverUrl(), book.getPageCount(), book.getCategories(), book.getCurrentPage(),
+                book.getStartDate(), book.getCompleted(),
+                book.getReadingGoalType() != null ? book.getReadingGoalType().name() : null,
+                book.getReadingGoalPages(), sessions);
+    }
+
+    private static List<String> csvValues(BookExportDto dto) {
+        int pagesRead = dto.sessions().stream()
+                .mapToInt(session -> session.pagesRead() != null ? session.pagesRead() : 0)
+                .sum();
+        List<Object> values = new ArrayList<>();
+        values.add(dto.isbn());
+        values.add(dto.title());
+        values.add(dto.authorName());
+        values.add(dto.publishDate());
+        values.add(dto.coverUrl());
+        values.add(dto.pageCount());
+        values.add(dto.categories());
+        values.add(dto.currentPage());
+        values.add(dto.startDate());
+        values.add(dto.completed());
+        values.add(dto.readingGoalType());
+        values.add(dto.readingGoalPages());
+        values.add(dto.sessions().size());
+        values.add(pagesRead);
+        return values.stream().map(value -> value != null ? value.toString() : "").toList();
+    }
+
+    private static void writeCsvRow(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values.get(i)));
+        }
+        writer.write('\n');
+    }
+
+    static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
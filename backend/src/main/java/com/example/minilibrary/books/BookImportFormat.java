@@ -0,0 +1,6 @@
+package com.example.minilibrary.books;
+
+public enum BookImportFormat {
+    CSV,
+    NDJSON
+}
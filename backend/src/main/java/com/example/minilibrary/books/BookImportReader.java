@@ -0,0 +1,244 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.books.dto.CreateBookRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads an import body row by row, so a file is never held in memory as a whole.
+ * <p>
+ * CSV files need a header row. Both the {@link CreateBookRequest} field names and the
+ * Goodreads export columns are understood. NDJSON carries one {@link CreateBookRequest}
+ * object per line. A CSV record or field longer than the caps below is skipped without being
+ * buffered and reported as an invalid row.
+ */
+class BookImportReader {
+
+    record Row(int line, CreateBookRequest request, String error) {
+    }
+
+    /** Generous enough for Goodreads review columns, which are read but not imported. */
+    static final int MAX_CSV_FIELD_LENGTH = 64 * 1024;
+    static final int MAX_CSV_RECORD_LENGTH = 256 * 1024;
+
+    private static final Map<String, String> CSV_COLUMNS = Map.ofEntries(
+            Map.entry("isbn13", "isbn13"),
+            Map.entry("isbn", "isbn"),
+            Map.entry("title", "title"),
+            Map.entry("authorname", "author"),
+            Map.entry("author", "author"),
+            Map.entry("publishdate", "publishDate"),
+            Map.entry("year published", "publishDate"),
+            Map.entry("coverurl", "coverUrl"),
+            Map.entry("pagecount", "pageCount"),
+            Map.entry("number of pages", "pageCount"),
+            Map.entry("categories", "categories"));
+
+    private final ObjectReader jsonReader;
+
+    BookImportReader(ObjectMapper objectMapper) {
+        // exports from other tools carry extra fields
+        this.jsonReader = objectMapper.readerFor(CreateBookRequest.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    void read(InputStream body, BookImportFormat format, Consumer<Row> consumer) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try {
+            switch (format) {
+                case CSV -> readCsv(reader, consumer);
+                case NDJSON -> readNdjson(reader, consumer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import", e);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, Consumer<Row> consumer) throws IOException {
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                consumer.accept(new Row(lineNumber, jsonReader.readValue(line), null));
+            } catch (JsonProcessingException e) {
+                consumer.accept(new Row(lineNumber, null, "Malformed JSON"));
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Consumer<Row> consumer) throws IOException {
+        CsvRecordReader records = new CsvRecordReader(reader);
+        List<String> header = records.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            String field = CSV_COLUMNS.get(name);
+            if (field != null) {
+                columns.putIfAbsent(field, i);
+            }
+        }
+
+        List<String> record;
+        while ((record = records.next()) != null) {
+            int line = records.recordLine();
+            if (records.oversized()) {
+                consumer.accept(new Row(line, null, "Record too long"));
+                continue;
+            }
+            if (record.stream().allMatch(String::isBlank)) {
+                continue;
+            }
+            consumer.accept(toRow(line, record, columns));
+        }
+    }
+
+    private Row toRow(int line, List<String> record, Map<String, Integer> columns) {
+        String isbn = cleanIsbn(cell(record, columns, "isbn13"));
+        if (isbn == null) {
+            isbn = cleanIsbn(cell(record, columns, "isbn"));
+        }
+        Integer pageCount;
+        try {
+            String pages = cell(record, columns, "pageCount");
+            pageCount = pages != null ? Integer.valueOf(pages) : null;
+        } catch (NumberFormatException e) {
+            return new Row(line, null, "Invalid page count");
+        }
+        return new Row(line, new CreateBookRequest(
+                isbn,
+                cell(record, columns, "title"),
+                cell(record, columns, "author"),
+                cell(record, columns, "publishDate"),
+                cell(record, columns, "coverUrl"),
+                pageCount,
+                cell(record, columns, "categories")), null);
+    }
+
+    private static String cell(List<String> record, Map<String, Integer> columns, String field) {
+        Integer index = columns.get(field);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /** Goodreads wraps ISBNs as {@code ="9780140449136"} to stop spreadsheets mangling them. */
+    private static String cleanIsbn(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String isbn = raw.replace("=", "").replace("\"", "").trim();
+        return isbn.isEmpty() ? null : isbn;
+    }
+
+    /**
+     * Minimal RFC 4180 reader: quoted fields may contain commas, doubled quotes and newlines.
+     * Once a record outgrows the caps, the rest of it is read through without being kept.
+     */
+    static final class CsvRecordReader {
+
+        private final BufferedReader reader;
+        private int line = 1;
+        private int recordLine;
+        private boolean oversized;
+
+        CsvRecordReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        int recordLine() {
+            return recordLine;
+        }
+
+        /** Whether the record last returned exceeded the caps; its fields are then incomplete. */
+        boolean oversized() {
+            return oversized;
+        }
+
+        List<String> next() throws IOException {
+            recordLine = line;
+            oversized = false;
+            List<String> fields = new ArrayList<>();
+            StringBuilder cell = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+            int length = 0;
+            int c;
+            while ((c = reader.read()) != -1) {
+                any = true;
+                if (++length > MAX_CSV_RECORD_LENGTH) {
+                    oversized = true;
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            append(cell, '"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        append(cell, c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    endField(fields, cell);
+                } else if (c == '\n') {
+                    line++;
+                    endField(fields, cell);
+                    return fields;
+                } else if (c != '\r') {
+                    append(cell, c);
+                }
+            }
+            if (!any) {
+                return null;
+            }
+            endField(fields, cell);
+            return fields;
+        }
+
+        private void append(StringBuilder cell, int c) {
+            if (cell.length() >= MAX_CSV_FIELD_LENGTH) {
+                oversized = true;
+            } else if (!oversized) {
+                cell.append((char) c);
+            }
+        }
+
+        private void endField(List<String> fields, StringBuilder cell) {
+            if (!oversized) {
+                fields.add(cell.toString());
+            }
+            cell.setLength(0);
+        }
+    }
+}
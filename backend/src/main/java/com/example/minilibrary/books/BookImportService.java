@@ -0,0 +1,145 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.books.dto.BookImportResult;
+import com.example.minilibrary.books.dto.BookImportRowResult;
+import com.example.minilibrary.books.dto.BookImportRowResult.Status;
+import com.example.minilibrary.books.dto.CreateBookRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of books. Rows are streamed from the request body, deduplicated in memory
+ * against the user's owned ISBNs and inserted in chunks, each in its own transaction, so
+ * one bad chunk does not discard what was already imported. A chunk that fails is retried
+ * row by row, so only the rows that cannot be saved are reported as failed.
+ */
+@Service
+@Slf4j
+public class BookImportService {
+
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+    private final AuthorStatsService authorStatsService;
+    private final OwnedIsbnIndex ownedIsbnIndex;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final BookImportReader reader;
+    private final int chunkSize;
+
+    public BookImportService(BookRepository bookRepository, BookMapper bookMapper,
+            AuthorStatsService authorStatsService, OwnedIsbnIndex ownedIsbnIndex, Validator validator,
+            TransactionTemplate transactionTemplate, EntityManager entityManager, ObjectMapper objectMapper,
+            @Value("${app.books.import.chunk-size:500}") int chunkSize) {
+        this.bookRepository = bookRepository;
+        this.bookMapper = bookMapper;
+        this.authorStatsService = authorStatsService;
+        this.ownedIsbnIndex = ownedIsbnIndex;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.reader = new BookImportReader(objectMapper);
+        this.chunkSize = chunkSize;
+    }
+
+    public BookImportResult importBooks(InputStream body, BookImportFormat format, User user) {
+        Set<String> ownedIsbns = new HashSet<>(bookRepository.findAllIsbnsByUser(user));
+        List<BookImportRowResult> results = new ArrayList<>();
+        List<PendingBook> chunk = new ArrayList<>(chunkSize);
+
+        reader.read(body, format, row -> {
+            if (row.error() != null) {
+                results.add(new BookImportRowResult(row.line(), null, Status.INVALID, null, row.error()));
+                return;
+            }
+            CreateBookRequest request = row.request();
+            String violations = validate(request);
+            if (violations != null) {
+                results.add(new BookImportRowResult(row.line(), request.isbn(), Status.INVALID, null, violations));
+                return;
+            }
+            if (!ownedIsbns.add(request.isbn())) {
+                results.add(new BookImportRowResult(row.line(), request.isbn(), Status.DUPLICATE, null,
+                        "Already in your collection"));
+                return;
+            }
+            chunk.add(new PendingBook(row.line(), request));
+            if (chunk.size() >= chunkSize) {
+                insertChunk(chunk, user, results);
+                chunk.clear();
+            }
+        });
+        insertChunk(chunk, user, results);
+
+        results.sort(Comparator.comparingInt(BookImportRowResult::line));
+        return BookImportResult.of(results);
+    }
+
+    private String validate(CreateBookRequest request) {
+        Set<ConstraintViolation<CreateBookRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private void insertChunk(List<PendingBook> chunk, User user, List<BookImportRowResult> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            // fresh entities on every attempt: a rolled-back insert leaves its ids behind
+            List<Book> books = chunk.stream().map(pending -> toEntity(pending, user)).toList();
+            transactionTemplate.executeWithoutResult(status -> {
+                bookRepository.saveAll(books);
+                authorStatsService.booksAdded(user, books);
+                ownedIsbnIndex.booksAdded(user.getId(), books.stream().map(Book::getIsbn).toList());
+                bookRepository.flush();
+                // keep the persistence context from growing across chunks
+                entityManager.clear();
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(new BookImportRowResult(chunk.get(i).line(), books.get(i).getIsbn(), Status.IMPORTED,
+                        books.get(i).getId(), null));
+            }
+        } catch (DataAccessException e) {
+            if (chunk.size() > 1) {
+                log.warn("Import chunk of {} books failed, retrying row by row: {}", chunk.size(), e.getMessage());
+                chunk.forEach(pending -> insertChunk(List.of(pending), user, results));
+                return;
+            }
+            PendingBook pending = chunk.get(0);
+            log.warn("Import of line {} failed: {}", pending.line(), e.getMessage());
+            results.add(new BookImportRowResult(pending.line(), pending.request().isbn(), Status.FAILED, null,
+                    "Could not be saved"));
+        }
+    }
+
+    private Book toEntity(PendingBook pending, User user) {
+        Book book = bookMapper.toEntity(pending.request());
+        book.setUser(user);
+        return book;
+    }
+
+    private record PendingBook(int line, CreateBookRequest request) {
+    }
+}
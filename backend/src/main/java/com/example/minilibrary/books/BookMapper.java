@@ -26,6 +26,9 @@ public abstract class BookMapper {
     @Mapping(target = "readingGoalType", ignore = true)
     @Mapping(target = "readingGoalPages", ignore = true)
     @Mapping(target = "readingSessions", ignore = true)
+    @Mapping(target = "categoryEntries", ignore = true)
+    @Mapping(target = "weeklyProgress", ignore = true)
+    @Mapping(target = "monthlyProgress", ignore = true)
     public abstract Book toEntity(CreateBookRequest request);
 
 }
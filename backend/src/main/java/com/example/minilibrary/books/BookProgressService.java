@@ -4,11 +4,16 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
 @Service
 @RequiredArgsConstructor
 public class BookProgressService {
 
     private final BookRepository bookRepository;
+    private final ReadingGoalProgressCalculator goalProgressCalculator;
 
     @Transactional
     public Book updateProgress(Book book, Integer currentPage) {
@@ -27,4 +32,20 @@ public class BookProgressService {
 
         return bookRepository.save(book);
     }
+
+    /**
+     * Adds pages read in a finished session to the book's weekly and monthly goal
+     * counters, rolling them over when the session ended in a newer period.
+     */
+    public void recordPagesRead(Book book, int pagesRead, Instant readAt) {
+        if (pagesRead <= 0) {
+            return;
+        }
+        LocalDate day = LocalDate.ofInstant(readAt, ZoneId.systemDefault());
+
+        book.setWeeklyProgress(GoalPeriodProgress.accumulate(book.getWeeklyProgress(),
+                goalProgressCalculator.periodStart(ReadingGoalType.WEEKLY, day), pagesRead));
+        book.setMonthlyProgress(GoalPeriodProgress.accumulate(book.getMonthlyProgress(),
+                goalProgressCalculator.periodStart(ReadingGoalType.MONTHLY, day), pagesRead));
+    }
 }
@@ -1,41 +1,71 @@
 package com.example.minilibrary.books;
 
 import com.example.minilibrary.auth.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookStreamRepository {
 
         boolean existsByIsbnAndUser(String isbn, User user);
 
-        List<Book> findByUser(User user);
+        Page<Book> findByUserOrderByCompletedAscIdAsc(User user, Pageable pageable);
 
-        @EntityGraph(attributePaths = "readingSessions")
-        Page<Book> findByUserOrderByCompletedAsc(User user, Pageable pageable);
+        Window<Book> findByUserOrderByCompletedAscIdAsc(User user, ScrollPosition position, Limit limit);
 
-        void deleteByIdAndUser(Long id, User user);
+        long countByUser(User user);
 
-        void deleteByUser(User user);
+        /** Set-based delete; sessions of the book must be removed first. */
+        @Modifying(flushAutomatically = true, clearAutomatically = true)
+        @Query("DELETE FROM Book b WHERE b.id = :id AND b.user = :user")
+        int bulkDeleteByIdAndUser(@Param("id") Long id, @Param("user") User user);
+
+        /** Set-based delete; sessions of the user must be removed first. */
+        @Modifying(flushAutomatically = true, clearAutomatically = true)
+        @Query("DELETE FROM Book b WHERE b.user = :user")
+        int bulkDeleteByUser(@Param("user") User user);
 
         Optional<Book> findByIdAndUser(Long id, User user);
 
         Optional<Book> findByIdAndUserId(Long id, Long userId);
 
-        @Query("SELECT b.author FROM Book b WHERE b.user = :user AND b.author IS NOT NULL GROUP BY b.author ORDER BY COUNT(b) DESC")
-        List<String> findTopAuthorsByUser(@Param("user") User user);
-
-        @Query("SELECT b.categories FROM Book b WHERE b.user = :user AND b.categories IS NOT NULL")
-        List<String> findAllCategoriesByUser(@Param("user") User user);
+        @Query("SELECT b FROM Book b WHERE b.id > :afterId AND b.categories IS NOT NULL "
+                        + "AND NOT EXISTS (SELECT 1 FROM BookCategory c WHERE c.book = b) ORDER BY b.id")
+        List<Book> findWithoutCategoryEntries(@Param("afterId") Long afterId, Limit limit);
 
         @Query("SELECT b.isbn FROM Book b WHERE b.user = :user")
         List<String> findAllIsbnsByUser(@Param("user") User user);
+
+        /**
+         * Rebuilds the weekly/monthly goal counters of the user's books that have finished
+         * sessions from those sessions, for rows created before the counters existed.
+         */
+        @Modifying(flushAutomatically = true, clearAutomatically = true)
+        @Query("UPDATE Book b SET "
+                        + "b.weeklyProgress.periodStart = :weekStart, "
+                        + "b.weeklyProgress.pagesRead = (SELECT COALESCE(SUM(s.pagesRead), 0) FROM ReadingSession s "
+                        + "WHERE s.book = b AND s.endTime >= :weekStartTime), "
+                        + "b.monthlyProgress.periodStart = :monthStart, "
+                        + "b.monthlyProgress.pagesRead = (SELECT COALESCE(SUM(s.pagesRead), 0) FROM ReadingSession s "
+                        + "WHERE s.book = b AND s.endTime >= :monthStartTime) "
+                        + "WHERE b.user = :user "
+                        + "AND EXISTS (SELECT 1 FROM ReadingSession s WHERE s.book = b AND s.pagesRead IS NOT NULL)")
+        int rebuildGoalProgress(@Param("user") User user,
+                        @Param("weekStart") LocalDate weekStart,
+                        @Param("weekStartTime") Instant weekStartTime,
+                        @Param("monthStart") LocalDate monthStart,
+                        @Param("monthStartTime") Instant monthStartTime);
 }
@@ -7,12 +7,16 @@ import com.example.minilibrary.shared.exception.DuplicateResourceException;
 import com.example.minilibrary.shared.exception.ResourceNotFoundException;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,13 +25,37 @@ import java.util.Optional;
 @Validated
 public class BookService {
 
+    /** Largest page {@link #scrollAllByUser} returns; bigger requests get this many. */
+    static final int MAX_SCROLL_SIZE = 100;
+
     private final BookRepository bookRepository;
+    private final BookCategoryRepository bookCategoryRepository;
     private final BookMapper bookMapper;
     private final ReadingSessionService readingSessionService;
     private final BookProgressService bookProgressService;
+    private final LibraryVersionTracker libraryVersionTracker;
+    private final AuthorStatsService authorStatsService;
+    private final OwnedIsbnIndex ownedIsbnIndex;
 
     public Page<Book> findAllByUser(User user, Pageable pageable) {
-        return bookRepository.findByUserOrderByCompletedAsc(user, pageable);
+        return bookRepository.findByUserOrderByCompletedAscIdAsc(user, pageable);
+    }
+
+    /**
+     * Keyset variant of {@link #findAllByUser}: seeks past the given position instead of
+     * skipping rows, so the cost of a page does not grow with its depth. The size is capped at
+     * {@link #MAX_SCROLL_SIZE}.
+     */
+    public Window<Book> scrollAllByUser(User user, ScrollPosition position, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return bookRepository.findByUserOrderByCompletedAscIdAsc(user, position,
+                Limit.of(Math.min(size, MAX_SCROLL_SIZE)));
+    }
+
+    public long countByUser(User user) {
+        return bookRepository.countByUser(user);
     }
 
     public Optional<Book> findByIdAndUser(@NotNull Long id, User user) {
@@ -52,7 +80,10 @@ public class BookService {
         Book book = bookMapper.toEntity(request);
         book.setUser(user);
 
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        authorStatsService.bookAdded(user, saved.getAuthor());
+        ownedIsbnIndex.booksAdded(user.getId(), Collections.singletonList(saved.getIsbn()));
+        return saved;
     }
 
     @Transactional
@@ -60,20 +91,30 @@ public class BookService {
         return bookRepository.save(book);
     }
 
+    /**
+     * Deletes with set-based statements (dependent rows first, then the book) without loading
+     * entities. Bulk statements bypass entity listeners, so the library version is bumped here.
+     */
     @Transactional
     public void deleteByIdAndUser(@NotNull Long id, User user) {
-        Book book = bookRepository.findByIdAndUser(id, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
-
-        readingSessionService.deleteSessionsByBook(user, book);
-
-        bookRepository.delete(book);
+        readingSessionService.deleteSessionsByBook(user, id);
+        bookCategoryRepository.bulkDeleteByUserAndBookId(user, id);
+        authorStatsService.bookRemoved(user, id);
+        if (bookRepository.bulkDeleteByIdAndUser(id, user) == 0) {
+            throw new ResourceNotFoundException("Book not found");
+        }
+        ownedIsbnIndex.booksRemoved(user.getId());
+        libraryVersionTracker.markChanged(user.getId());
     }
 
     @Transactional
     public void deleteAllByUser(User user) {
-        List<Book> books = bookRepository.findByUser(user);
-        bookRepository.deleteAll(books);
+        readingSessionService.deleteAllSessions(user);
+        bookCategoryRepository.bulkDeleteByUser(user);
+        authorStatsService.libraryRemoved(user);
+        bookRepository.bulkDeleteByUser(user);
+        ownedIsbnIndex.booksRemoved(user.getId());
+        libraryVersionTracker.markChanged(user.getId());
     }
 
     @Transactional
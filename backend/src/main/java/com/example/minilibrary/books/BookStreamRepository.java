@@ -0,0 +1,15 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+
+import java.util.stream.Stream;
+
+/** Cursor queries whose JDBC fetch size is chosen by the caller, which annotations cannot express. */
+public interface BookStreamRepository {
+
+    /**
+     * Cursor over the whole library, reading {@code fetchSize} rows per round trip; must be
+     * consumed inside a transaction and closed.
+     */
+    Stream<Book> streamByUserOrderByIdAsc(User user, int fetchSize);
+}
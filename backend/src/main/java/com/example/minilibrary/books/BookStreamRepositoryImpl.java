@@ -0,0 +1,22 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+class BookStreamRepositoryImpl implements BookStreamRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Stream<Book> streamByUserOrderByIdAsc(User user, int fetchSize) {
+        return entityManager.createQuery("SELECT b FROM Book b WHERE b.user = :user ORDER BY b.id", Book.class)
+                .setParameter("user", user)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+}
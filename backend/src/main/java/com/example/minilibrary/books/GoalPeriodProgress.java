@@ -0,0 +1,35 @@
+package com.example.minilibrary.books;
+
+import jakarta.persistence.Embeddable;
+
+import java.time.LocalDate;
+
+/**
+ * Pages read within one reading-goal period (a week or a month), identified by the
+ * first day of that period.
+ */
+@Embeddable
+public record GoalPeriodProgress(LocalDate periodStart, Integer pagesRead) {
+
+    /**
+     * Adds pages read in the period starting at {@code periodStart}. A newer period
+     * replaces the stored one; pages for an older period no longer count and are ignored.
+     */
+    public static GoalPeriodProgress accumulate(GoalPeriodProgress current, LocalDate periodStart, int pages) {
+        if (current == null || current.periodStart() == null || periodStart.isAfter(current.periodStart())) {
+            return new GoalPeriodProgress(periodStart, pages);
+        }
+        if (periodStart.equals(current.periodStart())) {
+            return new GoalPeriodProgress(periodStart, current.pagesReadOrZero() + pages);
+        }
+        return current;
+    }
+
+    public int pagesIn(LocalDate period) {
+        return period.equals(periodStart) ? pagesReadOrZero() : 0;
+    }
+
+    private int pagesReadOrZero() {
+        return pagesRead != null ? pagesRead : 0;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.minilibrary.books;
+
+/**
+ * Normalizes an ISBN to a 64-bit key: its ISBN-13 as a number. ISBN-10s are converted to their
+ * 978-prefixed ISBN-13; hyphens and spaces are ignored. Parsing does not allocate.
+ */
+public final class IsbnKey {
+
+    /** Key of anything that is not an ISBN; never a valid key. */
+    public static final long NONE = 0L;
+
+    private static final long ISBN13_PREFIX = 978_000_000_000L;
+
+    private IsbnKey() {
+    }
+
+    public static long of(String isbn) {
+        if (isbn == null) {
+            return NONE;
+        }
+        long value = 0;
+        int digits = 0;
+        boolean checkX = false;
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (checkX || ++digits > 13) {
+                    return NONE;
+                }
+                value = value * 10 + (c - '0');
+            } else if ((c == 'X' || c == 'x') && digits == 9) {
+                // ISBN-10 check digit 10
+                checkX = true;
+                digits++;
+            } else if (c != '-' && c != ' ') {
+                return NONE;
+            }
+        }
+        if (digits == 13) {
+            return value;
+        }
+        if (digits == 10) {
+            long withoutCheck = ISBN13_PREFIX + (checkX ? value : value / 10);
+            return withoutCheck * 10 + isbn13CheckDigit(withoutCheck);
+        }
+        return NONE;
+    }
+
+    /** Check digit for the first 12 digits of an ISBN-13; weights alternate 1, 3 from the left. */
+    private static long isbn13CheckDigit(long twelveDigits) {
+        long sum = 0;
+        long rest = twelveDigits;
+        for (int position = 12; position > 0; position--) {
+            long digit = rest % 10;
+            sum += position % 2 == 0 ? digit * 3 : digit;
+            rest /= 10;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.sessions.ReadingSession;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class LibraryChangeListener {
+
+    private final LibraryVersionTracker libraryVersionTracker;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void markChanged(Object entity) {
+        User owner = switch (entity) {
+            case Book book -> book.getUser();
+            case ReadingSession session -> session.getUser();
+            default -> null;
+        };
+        if (owner != null) {
+            libraryVersionTracker.markChanged(owner.getId());
+        }
+    }
+}
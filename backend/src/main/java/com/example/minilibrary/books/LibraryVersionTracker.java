@@ -0,0 +1,75 @@
+package com.example.minilibrary.books;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user version stamp of a library (its books and reading sessions), used to answer
+ * conditional GETs without reading the books table.
+ * <p>
+ * Versions come from one counter seeded with the boot time, so stamps handed out before a
+ * restart never match again. The stamps live in memory and assume a single instance.
+ */
+@Component
+public class LibraryVersionTracker {
+
+    private final ReadingGoalProgressCalculator goalProgressCalculator;
+    private final AtomicLong counter = new AtomicLong(System.currentTimeMillis());
+    private final long bootVersion = counter.get();
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    public LibraryVersionTracker(ReadingGoalProgressCalculator goalProgressCalculator) {
+        this.goalProgressCalculator = goalProgressCalculator;
+    }
+
+    public long currentVersion(Long userId) {
+        return versions.getOrDefault(userId, bootVersion);
+    }
+
+    public String etag(Long userId) {
+        return "\"lib-" + currentVersion(userId) + "\"";
+    }
+
+    /**
+     * Stamp of one book of the library. It names the book, so that a stamp of one book never
+     * answers for another id, which may be missing or someone else's. It also names the current
+     * goal periods: the book's goal progress counts only the current week or month, so it changes
+     * when a period rolls over even though the library did not.
+     */
+    public String bookEtag(Long userId, Long bookId) {
+        LocalDate today = goalProgressCalculator.today();
+        return "\"lib-" + currentVersion(userId) + "-book-" + bookId
+                + "-week-" + goalProgressCalculator.periodStart(ReadingGoalType.WEEKLY, today)
+                + "-month-" + goalProgressCalculator.periodStart(ReadingGoalType.MONTHLY, today) + "\"";
+    }
+
+    /**
+     * Bumps the user's version now and, inside a transaction, once more after it completes.
+     * The second bump covers readers that picked up the new stamp while the transaction was
+     * still uncommitted and therefore cached the old data under it.
+     */
+    public void markChanged(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        bump(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bump(userId);
+                }
+            });
+        }
+    }
+
+    private void bump(Long userId) {
+        versions.put(userId, counter.incrementAndGet());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.minilibrary.books;
+
+/**
+ * Open-addressing set of non-zero {@code long}s with linear probing, about 8-16 bytes per element
+ * instead of a boxed entry per element. {@code 0} marks a free slot and cannot be stored. Not
+ * thread-safe; {@link OwnedIsbns} only shares instances that are no longer modified.
+ */
+final class LongHashSet {
+
+    private static final long FREE = 0L;
+
+    private long[] slots;
+    private int size;
+
+    LongHashSet(int expectedSize) {
+        slots = new long[capacityFor(expectedSize)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean add(long value) {
+        if (value == FREE) {
+            throw new IllegalArgumentException("0 cannot be stored");
+        }
+        if ((size + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        int mask = slots.length - 1;
+        for (int i = index(value, mask); ; i = (i + 1) & mask) {
+            if (slots[i] == value) {
+                return false;
+            }
+            if (slots[i] == FREE) {
+                slots[i] = value;
+                size++;
+                return true;
+            }
+        }
+    }
+
+    boolean contains(long value) {
+        if (value == FREE) {
+            return false;
+        }
+        int mask = slots.length - 1;
+        for (int i = index(value, mask); ; i = (i + 1) & mask) {
+            if (slots[i] == value) {
+                return true;
+            }
+            if (slots[i] == FREE) {
+                return false;
+            }
+        }
+    }
+
+    LongHashSet copy(int extra) {
+        LongHashSet copy = new LongHashSet(size + extra);
+        for (long value : slots) {
+            if (value != FREE) {
+                copy.add(value);
+            }
+        }
+        return copy;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        size = 0;
+        for (long value : old) {
+            if (value != FREE) {
+                add(value);
+            }
+        }
+    }
+
+    /** Power of two keeping the load factor at or below one half. */
+    private static int capacityFor(int expectedSize) {
+        return Math.max(4, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1);
+    }
+
+    private static int index(long value, int mask) {
+        // Fibonacci hashing spreads the sequential-looking ISBN keys over the table
+        return (int) ((value * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
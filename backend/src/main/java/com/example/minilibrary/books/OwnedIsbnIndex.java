@@ -0,0 +1,76 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Per-user {@link OwnedIsbns}, loaded once and then kept up to date by the book write paths:
+ * added ISBNs are merged in after commit, deletions drop the user's set so that it is reloaded.
+ * Hit/miss statistics are published under the cache name {@code ownedIsbns}.
+ */
+@Component
+public class OwnedIsbnIndex {
+
+    static final String CACHE_NAME = "ownedIsbns";
+
+    private final BookRepository bookRepository;
+    private final Cache<Long, OwnedIsbns> cache;
+
+    public OwnedIsbnIndex(BookRepository bookRepository,
+            @Value("${app.books.owned-isbn-cache.max-size:10000}") long maxSize,
+            @Value("${app.books.owned-isbn-cache.idle-minutes:60}") long idleMinutes,
+            MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public OwnedIsbns forUser(User user) {
+        return cache.get(user.getId(), id -> OwnedIsbns.of(bookRepository.findAllIsbnsByUser(user)));
+    }
+
+    /** Merges the ISBNs into a cached set once the surrounding transaction (if any) commits. */
+    void booksAdded(Long userId, Collection<String> isbns) {
+        Runnable merge = () -> cache.asMap().computeIfPresent(userId, (id, owned) -> owned.with(isbns));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    merge.run();
+                }
+            });
+        } else {
+            merge.run();
+        }
+    }
+
+    /**
+     * Drops the user's set now and again after the transaction completes, for the same reason
+     * {@link LibraryVersionTracker#markChanged} bumps twice.
+     */
+    void booksRemoved(Long userId) {
+        cache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+    }
+}
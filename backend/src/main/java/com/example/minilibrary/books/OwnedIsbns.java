@@ -0,0 +1,43 @@
+package com.example.minilibrary.books;
+
+import java.util.Collection;
+
+/**
+ * Immutable set of the ISBNs a user owns, compared by {@link IsbnKey}, so that ISBN-10 and
+ * ISBN-13 spellings of a book match. Lookups do not allocate.
+ */
+public final class OwnedIsbns {
+
+    private final LongHashSet keys;
+
+    private OwnedIsbns(LongHashSet keys) {
+        this.keys = keys;
+    }
+
+    public static OwnedIsbns of(Collection<String> isbns) {
+        return new OwnedIsbns(addAll(new LongHashSet(isbns.size()), isbns));
+    }
+
+    public boolean contains(String isbn) {
+        return keys.contains(IsbnKey.of(isbn));
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /** A copy with the given ISBNs added. */
+    OwnedIsbns with(Collection<String> isbns) {
+        return new OwnedIsbns(addAll(keys.copy(isbns.size()), isbns));
+    }
+
+    private static LongHashSet addAll(LongHashSet keys, Collection<String> isbns) {
+        for (String isbn : isbns) {
+            long key = IsbnKey.of(isbn);
+            if (key != IsbnKey.NONE) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.minilibrary.books;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * A user whose books predate the author counters and are not counted yet. The migration that
+ * created the counters records these users; {@link AuthorStatBackfill} removes each marker in the
+ * transaction that rebuilds the user's counters.
+ */
+@Entity
+@Table(name = "author_stat_pending")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingAuthorStatBackfill {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+}
@@ -0,0 +1,26 @@
+package com.example.minilibrary.books;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * A user whose finished sessions predate the goal counters and are not counted yet. The
+ * migration that created the counters records these users; {@link ReadingGoalProgressBackfill}
+ * removes each marker in the transaction that seeds the counters of the user's books.
+ */
+@Entity
+@Table(name = "reading_goal_progress_pending")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingGoalProgressBackfill {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+}
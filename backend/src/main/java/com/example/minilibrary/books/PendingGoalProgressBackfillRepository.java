@@ -0,0 +1,12 @@
+package com.example.minilibrary.books;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface PendingGoalProgressBackfillRepository extends JpaRepository<PendingGoalProgressBackfill, Long> {
+
+    @Query("SELECT p.userId FROM PendingGoalProgressBackfill p")
+    List<Long> findAllUserIds();
+}
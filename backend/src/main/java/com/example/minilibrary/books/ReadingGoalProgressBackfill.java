@@ -0,0 +1,60 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.sessions.SessionLocks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Seeds the incremental goal counters once for books whose sessions predate them, so
+ * current-period progress survives the switch away from recomputing over all sessions.
+ * Users are taken from {@link PendingGoalProgressBackfill} markers rather than from counters
+ * still being empty, since a stop before this runs already fills them. Each user gets a
+ * transaction of their own, taken under their session lock, that recounts their books from
+ * all their sessions (including stops since the counters shipped) and drops the marker.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReadingGoalProgressBackfill {
+
+    private final BookRepository bookRepository;
+    private final PendingGoalProgressBackfillRepository pendingRepository;
+    private final ReadingGoalProgressCalculator goalProgressCalculator;
+    private final SessionLocks sessionLocks;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        LocalDate today = goalProgressCalculator.today();
+        LocalDate weekStart = goalProgressCalculator.periodStart(ReadingGoalType.WEEKLY, today);
+        LocalDate monthStart = goalProgressCalculator.periodStart(ReadingGoalType.MONTHLY, today);
+
+        List<Long> userIds = pendingRepository.findAllUserIds();
+        int updated = 0;
+        for (Long userId : userIds) {
+            updated += sessionLocks.withUserLock(userId,
+                    () -> transactionTemplate.execute(status -> backfillUser(userId, weekStart, monthStart)));
+        }
+        if (updated > 0) {
+            log.info("Initialized reading goal progress for {} books", updated);
+        }
+    }
+
+    private int backfillUser(Long userId, LocalDate weekStart, LocalDate monthStart) {
+        ZoneId zone = ZoneId.systemDefault();
+        int updated = bookRepository.rebuildGoalProgress(User.reference(userId, null, null),
+                weekStart, weekStart.atStartOfDay(zone).toInstant(),
+                monthStart, monthStart.atStartOfDay(zone).toInstant());
+        pendingRepository.deleteById(userId);
+        return updated;
+    }
+}
@@ -2,49 +2,46 @@ package com.example.minilibrary.books;
 
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.time.Clock;
 import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.temporal.TemporalAdjusters;
 
 @Service
 public class ReadingGoalProgressCalculator {
 
+    private final Clock clock;
+
+    public ReadingGoalProgressCalculator() {
+        this(Clock.systemDefaultZone());
+    }
+
+    ReadingGoalProgressCalculator(Clock clock) {
+        this.clock = clock;
+    }
+
     public Integer calculateProgress(Book book) {
         if (book.getReadingGoalType() == null || book.getReadingGoalPages() == null) {
             return null;
         }
 
-        LocalDate now = LocalDate.now();
-        LocalDateTime startOfPeriod;
+        LocalDate currentPeriod = periodStart(book.getReadingGoalType(), today());
+        GoalPeriodProgress progress = ReadingGoalType.WEEKLY == book.getReadingGoalType()
+                ? book.getWeeklyProgress()
+                : book.getMonthlyProgress();
 
-        if (ReadingGoalType.WEEKLY == book.getReadingGoalType()) {
-            LocalDate monday = now.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
-            startOfPeriod = monday.atStartOfDay();
-        } else {
-            startOfPeriod = now.withDayOfMonth(1).atStartOfDay();
-        }
+        return progress != null ? progress.pagesIn(currentPeriod) : 0;
+    }
 
-        ZoneId zone = ZoneId.systemDefault();
-        Instant startInstant = startOfPeriod.atZone(zone).toInstant();
+    /** The day whose week and month count as the current goal periods. */
+    public LocalDate today() {
+        return LocalDate.now(clock);
+    }
 
-        if (book.getReadingSessions() == null) {
-            return 0;
+    public LocalDate periodStart(ReadingGoalType type, LocalDate day) {
+        if (ReadingGoalType.WEEKLY == type) {
+            return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
         }
-
-        return book.getReadingSessions().stream()
-                .filter(s -> s.getEndTime() != null && s.getEndTime().isAfter(startInstant))
-                .mapToInt(s -> {
-                    if (s.getPagesRead() != null) {
-                        return s.getPagesRead();
-                    }
-                    if (s.getEndPage() != null && s.getEndPage() > 0) {
-                        return 0;
-                    }
-                    return 0;
-                })
-                .sum();
+        return day.withDayOfMonth(1);
     }
 }
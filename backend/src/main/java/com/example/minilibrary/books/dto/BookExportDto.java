@@ -0,0 +1,37 @@
+package com.example.minilibrary.books.dto;
+
+import com.example.minilibrary.sessions.SessionStatus;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One exported book per NDJSON line. The book fields use the {@link CreateBookRequest} names,
+ * so an export can be fed straight back into the import.
+ */
+public record BookExportDto(
+                String isbn,
+                String title,
+                String authorName,
+                String publishDate,
+                String coverUrl,
+                Integer pageCount,
+                String categories,
+                Integer currentPage,
+                LocalDate startDate,
+                Boolean completed,
+                String readingGoalType,
+                Integer readingGoalPages,
+                List<Session> sessions) {
+
+        public record Session(
+                        @JsonFormat(shape = JsonFormat.Shape.STRING) Instant startTime,
+                        @JsonFormat(shape = JsonFormat.Shape.STRING) Instant endTime,
+                        SessionStatus status,
+                        Integer endPage,
+                        Integer pagesRead,
+                        Long pausedMillis) {
+        }
+}
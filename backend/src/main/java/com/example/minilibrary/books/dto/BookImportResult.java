@@ -0,0 +1,24 @@
+package com.example.minilibrary.books.dto;
+
+import java.util.List;
+
+public record BookImportResult(
+                long imported,
+                long duplicates,
+                long invalid,
+                long failed,
+                List<BookImportRowResult> rows) {
+
+        public static BookImportResult of(List<BookImportRowResult> rows) {
+                return new BookImportResult(
+                                count(rows, BookImportRowResult.Status.IMPORTED),
+                                count(rows, BookImportRowResult.Status.DUPLICATE),
+                                count(rows, BookImportRowResult.Status.INVALID),
+                                count(rows, BookImportRowResult.Status.FAILED),
+                                rows);
+        }
+
+        private static long count(List<BookImportRowResult> rows, BookImportRowResult.Status status) {
+                return rows.stream().filter(row -> row.status() == status).count();
+        }
+}
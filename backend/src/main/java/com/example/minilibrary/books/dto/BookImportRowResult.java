@@ -0,0 +1,16 @@
+package com.example.minilibrary.books.dto;
+
+public record BookImportRowResult(
+                int line,
+                String isbn,
+                Status status,
+                Long bookId,
+                String message) {
+
+        public enum Status {
+                IMPORTED,
+                DUPLICATE,
+                INVALID,
+                FAILED
+        }
+}
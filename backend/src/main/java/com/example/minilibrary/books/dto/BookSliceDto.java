@@ -0,0 +1,10 @@
+package com.example.minilibrary.books.dto;
+
+import java.util.List;
+
+public record BookSliceDto(
+                List<BookDto> content,
+                String nextCursor,
+                boolean hasNext,
+                Long totalElements) {
+}
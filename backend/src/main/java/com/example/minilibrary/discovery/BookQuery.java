@@ -0,0 +1,31 @@
+package com.example.minilibrary.discovery;
+
+import java.util.Locale;
+
+/**
+ * Normalized Google Books lookup, used as the cache key: terms differing only in case or
+ * whitespace hit the same entry.
+ */
+record BookQuery(Type type, String term, int maxResults) {
+
+    enum Type {
+        AUTHOR("inauthor:"),
+        CATEGORY("subject:"),
+        QUERY("");
+
+        private final String prefix;
+
+        Type(String prefix) {
+            this.prefix = prefix;
+        }
+
+        String prefix() {
+            return prefix;
+        }
+    }
+
+    static BookQuery of(Type type, String term, int maxResults) {
+        String normalized = term == null ? "" : term.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return new BookQuery(type, normalized, maxResults);
+    }
+}
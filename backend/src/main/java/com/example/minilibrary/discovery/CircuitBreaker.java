@@ -0,0 +1,128 @@
+package com.example.minilibrary.discovery;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker. Opens when, over the last {@code windowSize} calls (and at least
+ * {@code minimumCalls}), the share of failed or of slow calls reaches its threshold. While open
+ * every call is rejected; after {@code openDuration} a single probe is let through, whose outcome
+ * closes or re-opens the circuit. A permit names the state it was granted in, so that a call that
+ * outlives that state (one started before the circuit opened, say) cannot count as the probe.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    static final long REJECTED = -1;
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final int slowCallRatePercent;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    /** Bumped on every state change; permits carry the value they were granted under. */
+    private long generation;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    CircuitBreaker(int windowSize, int minimumCalls, int failureRatePercent, int slowCallRatePercent,
+            Duration slowCall, Duration openDuration, LongSupplier nanoClock) {
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRatePercent = failureRatePercent;
+        this.slowCallRatePercent = slowCallRatePercent;
+        this.slowCallNanos = slowCall.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    /**
+     * A permit for a call starting now, or {@link #REJECTED}. A granted permit must be handed
+     * back to {@link #record} with the call's outcome.
+     */
+    synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openNanos) {
+                return REJECTED;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return REJECTED;
+            }
+            probeInFlight = true;
+        }
+        return generation;
+    }
+
+    synchronized void record(long permit, long elapsedNanos, boolean failure) {
+        if (permit != generation) {
+            // granted before the last state change; its outcome no longer matters
+            return;
+        }
+        boolean isSlow = elapsedNanos >= slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            if (failure || isSlow) {
+                open();
+            } else {
+                transition(State.CLOSED);
+            }
+            return;
+        }
+        add(failure, isSlow);
+        if (recorded >= minimumCalls && (failures * 100 >= failureRatePercent * recorded
+                || slowCalls * 100 >= slowCallRatePercent * recorded)) {
+            open();
+        }
+    }
+
+    private void add(boolean failure, boolean isSlow) {
+        if (recorded == windowSize) {
+            failures -= failed[next] ? 1 : 0;
+            slowCalls -= slow[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failed[next] = failure;
+        slow[next] = isSlow;
+        failures += failure ? 1 : 0;
+        slowCalls += isSlow ? 1 : 0;
+        next = (next + 1) % windowSize;
+    }
+
+    private void open() {
+        transition(State.OPEN);
+        openedAt = nanoClock.getAsLong();
+    }
+
+    private void transition(State newState) {
+        state = newState;
+        generation++;
+        probeInFlight = false;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
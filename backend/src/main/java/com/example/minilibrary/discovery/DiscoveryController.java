@@ -1,6 +1,7 @@
 package com.example.minilibrary.discovery;
 
 import com.example.minilibrary.auth.User;
+import com.example.minilibrary.books.OwnedIsbns;
 import com.example.minilibrary.discovery.dto.DiscoveryResponse;
 import com.example.minilibrary.discovery.dto.RecommendedBookDto;
 import com.example.minilibrary.shared.security.CurrentUser;
@@ -10,7 +11,8 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/discovery")
@@ -25,64 +27,49 @@ public class DiscoveryController {
     @PostMapping("/search-log")
     public ResponseEntity<Void> logSearch(@RequestParam String query, @CurrentUser User user) {
         discoveryService.logSearch(query, user);
-        return ResponseEntity.ok().build();
+        return ResponseEntity.accepted().build();
     }
 
     @GetMapping("/authors")
-    public ResponseEntity<DiscoveryResponse.AuthorSection> getAuthorRecommendations(@CurrentUser User user) {
-        Set<String> ownedIsbns = discoveryService.getOwnedIsbns(user);
+    public CompletableFuture<ResponseEntity<DiscoveryResponse.AuthorSection>> getAuthorRecommendations(
+            @CurrentUser User user) {
+        OwnedIsbns ownedIsbns = discoveryService.getOwnedIsbns(user);
         List<String> topAuthors = discoveryService.getTopAuthors(user, 3);
-        List<RecommendedBookDto> books = topAuthors.isEmpty()
-                ? Collections.emptyList()
-                : discoveryService.getRecommendationsByAuthor(topAuthors.get(0), ownedIsbns, MAX_RESULTS);
-
-        return ResponseEntity.ok(new DiscoveryResponse.AuthorSection(topAuthors, books));
+        return forFirst(topAuthors,
+                author -> discoveryService.getRecommendationsByAuthor(author, ownedIsbns, MAX_RESULTS))
+                .thenApply(books -> ResponseEntity.ok(new DiscoveryResponse.AuthorSection(topAuthors, books)));
     }
 
     @GetMapping("/categories")
-    public ResponseEntity<DiscoveryResponse.CategorySection> getCategoryRecommendations(@CurrentUser User user) {
-        Set<String> ownedIsbns = discoveryService.getOwnedIsbns(user);
+    public CompletableFuture<ResponseEntity<DiscoveryResponse.CategorySection>> getCategoryRecommendations(
+            @CurrentUser User user) {
+        OwnedIsbns ownedIsbns = discoveryService.getOwnedIsbns(user);
         List<String> topCategories = discoveryService.getTopCategories(user, 3);
-        List<RecommendedBookDto> books = topCategories.isEmpty()
-                ? Collections.emptyList()
-                : discoveryService.getRecommendationsByCategory(topCategories.get(0), ownedIsbns, MAX_RESULTS);
-
-        return ResponseEntity.ok(new DiscoveryResponse.CategorySection(topCategories, books));
+        return forFirst(topCategories,
+                category -> discoveryService.getRecommendationsByCategory(category, ownedIsbns, MAX_RESULTS))
+                .thenApply(books -> ResponseEntity.ok(new DiscoveryResponse.CategorySection(topCategories, books)));
     }
 
     @GetMapping("/recent-searches")
-    public ResponseEntity<DiscoveryResponse.SearchSection> getRecentSearchRecommendations(@CurrentUser User user) {
-        Set<String> ownedIsbns = discoveryService.getOwnedIsbns(user);
+    public CompletableFuture<ResponseEntity<DiscoveryResponse.SearchSection>> getRecentSearchRecommendations(
+            @CurrentUser User user) {
+        OwnedIsbns ownedIsbns = discoveryService.getOwnedIsbns(user);
         List<String> recentSearches = discoveryService.getRecentSearches(user, DEFAULT_LIMIT);
-        List<RecommendedBookDto> books = recentSearches.isEmpty()
-                ? Collections.emptyList()
-                : discoveryService.getRecommendationsByQuery(recentSearches.get(0), ownedIsbns, MAX_RESULTS);
-
-        return ResponseEntity.ok(new DiscoveryResponse.SearchSection(recentSearches, books));
+        return forFirst(recentSearches,
+                query -> discoveryService.getRecommendationsByQuery(query, ownedIsbns, MAX_RESULTS))
+                .thenApply(books -> ResponseEntity.ok(new DiscoveryResponse.SearchSection(recentSearches, books)));
     }
 
     @GetMapping
-    public ResponseEntity<DiscoveryResponse> getDiscoveryData(@CurrentUser User user) {
-        Set<String> ownedIsbns = discoveryService.getOwnedIsbns(user);
-
-        List<String> topAuthors = discoveryService.getTopAuthors(user, 3);
-        List<RecommendedBookDto> authorBooks = topAuthors.isEmpty()
-                ? Collections.emptyList()
-                : discoveryService.getRecommendationsByAuthor(topAuthors.get(0), ownedIsbns, MAX_RESULTS);
-        var authorSection = new DiscoveryResponse.AuthorSection(topAuthors, authorBooks);
-
-        List<String> topCategories = discoveryService.getTopCategories(user, 3);
-        List<RecommendedBookDto> categoryBooks = topCategories.isEmpty()
-                ? Collections.emptyList()
-                : discoveryService.getRecommendationsByCategory(topCategories.get(0), ownedIsbns, MAX_RESULTS);
-        var categorySection = new DiscoveryResponse.CategorySection(topCategories, categoryBooks);
-
-        List<String> recentSearches = discoveryService.getRecentSearches(user, 3);
-        List<RecommendedBookDto> searchBooks = recentSearches.isEmpty()
-                ? Collections.emptyList()
-                : discoveryService.getRecommendationsByQuery(recentSearches.get(0), ownedIsbns, MAX_RESULTS);
-        var searchSection = new DiscoveryResponse.SearchSection(recentSearches, searchBooks);
+    public CompletableFuture<ResponseEntity<DiscoveryResponse>> getDiscoveryData(@CurrentUser User user,
+            @RequestParam(defaultValue = "false") boolean fresh) {
+        return discoveryService.getDiscoveryFeed(user, fresh).thenApply(ResponseEntity::ok);
+    }
 
-        return ResponseEntity.ok(new DiscoveryResponse(authorSection, categorySection, searchSection));
+    private static CompletableFuture<List<RecommendedBookDto>> forFirst(List<String> terms,
+            Function<String, CompletableFuture<List<RecommendedBookDto>>> fetch) {
+        return terms.isEmpty()
+                ? CompletableFuture.completedFuture(Collections.emptyList())
+                : fetch.apply(terms.get(0));
     }
 }
@@ -0,0 +1,162 @@
+package com.example.minilibrary.discovery;
+
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.books.LibraryVersionTracker;
+import com.example.minilibrary.discovery.dto.DiscoveryResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Materialized discovery feeds, one per recently active user. A feed remembers the library
+ * version and search-history version it was built from and is current while both are unchanged
+ * and it is younger than the TTL. Feeds expire once they have not been read for the idle timeout;
+ * a background refresh replaces a feed without counting as a read, so it cannot keep it alive.
+ */
+@Component
+class DiscoveryFeedCache {
+
+    static final String CACHE_NAME = "discoveryFeeds";
+
+    /** Versions a feed is built from; take it before reading the data the feed is built of. */
+    record Stamp(long libraryVersion, long searchVersion) {
+    }
+
+    /** {@code lastReadNanos} is shared by the successive builds of a user's feed. */
+    record Feed(User user, DiscoveryResponse response, Stamp stamp, long builtAtNanos, AtomicLong lastReadNanos) {
+    }
+
+    private final LibraryVersionTracker libraryVersionTracker;
+    private final Cache<Long, Feed> feeds;
+    private final Cache<Long, Long> searchVersions;
+    private final AtomicLong searchCounter = new AtomicLong();
+    private final long ttlNanos;
+    private final long idleNanos;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    DiscoveryFeedCache(LibraryVersionTracker libraryVersionTracker,
+            @Value("${app.discovery.feed.max-size:10000}") long maxSize,
+            @Value("${app.discovery.feed.ttl-seconds:900}") long ttlSeconds,
+            @Value("${app.discovery.feed.idle-minutes:60}") long idleMinutes,
+            MeterRegistry meterRegistry) {
+        this(libraryVersionTracker, maxSize, Duration.ofSeconds(ttlSeconds), Duration.ofMinutes(idleMinutes),
+                System::nanoTime, meterRegistry);
+    }
+
+    DiscoveryFeedCache(LibraryVersionTracker libraryVersionTracker, long maxSize, Duration ttl, Duration idle,
+            LongSupplier nanoClock, MeterRegistry meterRegistry) {
+        this.libraryVersionTracker = libraryVersionTracker;
+        this.ttlNanos = ttl.toNanos();
+        this.idleNanos = idle.toNanos();
+        this.nanoClock = nanoClock;
+        this.feeds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .ticker(nanoClock::getAsLong)
+                .expireAfter(new IdleSinceLastRead())
+                .recordStats()
+                .build();
+        // an evicted stamp reads as 0 and so never matches a feed built after a change
+        this.searchVersions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(idle)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, feeds, CACHE_NAME);
+    }
+
+    Stamp stamp(Long userId) {
+        Long searchVersion = searchVersions.getIfPresent(userId);
+        return new Stamp(libraryVersionTracker.currentVersion(userId), searchVersion == null ? 0 : searchVersion);
+    }
+
+    /** The user's feed, or {@code null} if there is none or it is out of date. Counts as a read. */
+    DiscoveryResponse getIfCurrent(Long userId) {
+        Feed feed = feeds.getIfPresent(userId);
+        if (feed == null) {
+            return null;
+        }
+        feed.lastReadNanos().set(nanoClock.getAsLong());
+        return isCurrent(userId, feed) ? feed.response() : null;
+    }
+
+    /** Stores a feed the user asked for, which counts as a read. */
+    void put(User user, Stamp stamp, DiscoveryResponse response) {
+        long now = nanoClock.getAsLong();
+        feeds.asMap().compute(user.getId(), (id, previous) -> {
+            AtomicLong lastRead = previous != null ? previous.lastReadNanos() : new AtomicLong();
+            lastRead.set(now);
+            return new Feed(user, response, stamp, now, lastRead);
+        });
+    }
+
+    /**
+     * Replaces a feed rebuilt in the background, keeping its last read time. A feed that expired
+     * meanwhile is not brought back.
+     */
+    void refreshed(User user, Stamp stamp, DiscoveryResponse response) {
+        feeds.asMap().computeIfPresent(user.getId(), (id, previous) -> new Feed(user, response, stamp,
+                nanoClock.getAsLong(), previous.lastReadNanos()));
+    }
+
+    /** Users whose cached feed is out of date and was read within the idle timeout, for the background refresh. */
+    List<User> staleUsers() {
+        long now = nanoClock.getAsLong();
+        return feeds.asMap().entrySet().stream()
+                .filter(entry -> now - entry.getValue().lastReadNanos().get() < idleNanos)
+                .filter(entry -> !isCurrent(entry.getKey(), entry.getValue()))
+                .map(entry -> entry.getValue().user())
+                .toList();
+    }
+
+    /** Same two-step bump as {@link LibraryVersionTracker#markChanged}. */
+    void searchChanged(Long userId) {
+        bumpSearch(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bumpSearch(userId);
+                }
+            });
+        }
+    }
+
+    private void bumpSearch(Long userId) {
+        searchVersions.put(userId, searchCounter.incrementAndGet());
+    }
+
+    private boolean isCurrent(Long userId, Feed feed) {
+        return nanoClock.getAsLong() - feed.builtAtNanos() < ttlNanos && feed.stamp().equals(stamp(userId));
+    }
+
+    /** Expires a feed the idle timeout after its last read; replacing it does not extend that. */
+    private final class IdleSinceLastRead implements Expiry<Long, Feed> {
+
+        @Override
+        public long expireAfterCreate(Long userId, Feed feed, long currentTime) {
+            return Math.max(0, idleNanos - (currentTime - feed.lastReadNanos().get()));
+        }
+
+        @Override
+        public long expireAfterUpdate(Long userId, Feed feed, long currentTime, long currentDuration) {
+            return expireAfterCreate(userId, feed, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long userId, Feed feed, long currentTime, long currentDuration) {
+            return idleNanos;
+        }
+    }
+}
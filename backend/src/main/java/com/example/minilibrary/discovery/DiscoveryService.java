@@ -1,79 +1,234 @@
 package com.example.minilibrary.discovery;
 
 import com.example.minilibrary.auth.User;
-import com.example.minilibrary.books.BookRepository;
+import com.example.minilibrary.books.AuthorStatsService;
+import com.example.minilibrary.books.BookCategoryRepository;
+import com.example.minilibrary.books.OwnedIsbnIndex;
+import com.example.minilibrary.books.OwnedIsbns;
+import com.example.minilibrary.discovery.dto.DiscoveryResponse;
 import com.example.minilibrary.discovery.dto.RecommendedBookDto;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class DiscoveryService {
 
-    private static final int MAX_SEARCH_HISTORY_PER_USER = 50;
-    private static final int DEDUPLICATION_MINUTES = 5;
+    private static final int SECTION_TERMS = 3;
+    private static final int MAX_RESULTS = 10;
 
     private final SearchHistoryRepository searchHistoryRepository;
-    private final BookRepository bookRepository;
+    private final OwnedIsbnIndex ownedIsbnIndex;
+    private final BookCategoryRepository bookCategoryRepository;
+    private final AuthorStatsService authorStatsService;
     private final GoogleBooksClient googleBooksClient;
+    private final DiscoveryFeedCache feedCache;
+    private final SearchLogWriter searchLogWriter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Executor refreshExecutor;
+    private final int refreshConcurrency;
+    private final long deadlineMillis;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
 
-    @Transactional
+    public DiscoveryService(SearchHistoryRepository searchHistoryRepository, OwnedIsbnIndex ownedIsbnIndex,
+            BookCategoryRepository bookCategoryRepository, AuthorStatsService authorStatsService,
+            GoogleBooksClient googleBooksClient, DiscoveryFeedCache feedCache, SearchLogWriter searchLogWriter,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("discoveryExecutor") Executor refreshExecutor,
+            @Value("${app.discovery.feed.refresh-concurrency:4}") int refreshConcurrency,
+            @Value("${app.discovery.deadline-ms:3000}") long deadlineMillis) {
+        this.searchHistoryRepository = searchHistoryRepository;
+        this.ownedIsbnIndex = ownedIsbnIndex;
+        this.bookCategoryRepository = bookCategoryRepository;
+        this.authorStatsService = authorStatsService;
+        this.googleBooksClient = googleBooksClient;
+        this.feedCache = feedCache;
+        this.searchLogWriter = searchLogWriter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.refreshExecutor = refreshExecutor;
+        this.refreshConcurrency = refreshConcurrency;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /** Queues the search for the background writer; see {@link SearchLogWriter}. */
     public void logSearch(String query, User user) {
-        if (query == null || query.trim().isEmpty()) {
+        if (query == null || query.isBlank()) {
             return;
         }
+        searchLogWriter.enqueue(user.getId(), query.trim());
+    }
 
-        String trimmedQuery = query.trim();
+    /**
+     * The user's materialized discovery feed; built on the spot if there is none yet, it is out
+     * of date, or {@code fresh} is requested. Feeds are kept current in the background by
+     * {@link #refreshStaleFeeds()}, so most reads are a cache lookup.
+     */
+    public CompletableFuture<DiscoveryResponse> getDiscoveryFeed(User user, boolean fresh) {
+        if (!fresh) {
+            DiscoveryResponse feed = feedCache.getIfCurrent(user.getId());
+            if (feed != null) {
+                return CompletableFuture.completedFuture(feed);
+            }
+        }
+        return rebuildFeed(user, false);
+    }
 
-        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(DEDUPLICATION_MINUTES);
-        if (searchHistoryRepository.existsByUserAndQueryAndTimestampAfter(user, trimmedQuery, cutoff)) {
-            log.debug("Skipping duplicate search log for query: {}", trimmedQuery);
+    /**
+     * Rebuilds every cached feed whose library or searches changed or that expired, among users
+     * who read their feed within the idle timeout. Returns at once, so the scheduler thread shared
+     * with other jobs is never held: the rebuilds run on the discovery executor, at most
+     * {@code refresh-concurrency} at a time, and a pass is skipped while the previous one runs.
+     */
+    @Scheduled(fixedDelayString = "${app.discovery.feed.refresh-interval-ms:30000}")
+    public void refreshStaleFeeds() {
+        if (!refreshing.compareAndSet(false, true)) {
             return;
         }
+        try {
+            Queue<User> pending = new ConcurrentLinkedQueue<>(feedCache.staleUsers());
+            CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(refreshConcurrency, pending.size())];
+            for (int i = 0; i < lanes.length; i++) {
+                lanes[i] = refreshNext(pending);
+            }
+            CompletableFuture.allOf(lanes).whenComplete((done, e) -> refreshing.set(false));
+        } catch (RuntimeException e) {
+            refreshing.set(false);
+            throw e;
+        }
+    }
 
-        if (searchHistoryRepository.countByUser(user) >= MAX_SEARCH_HISTORY_PER_USER) {
-            searchHistoryRepository.deleteOldestByUserId(user.getId());
+    /** Rebuilds the pending feeds one after another; each lane of a refresh pass runs one of these. */
+    private CompletableFuture<Void> refreshNext(Queue<User> pending) {
+        User user = pending.poll();
+        if (user == null) {
+            return CompletableFuture.completedFuture(null);
         }
+        return CompletableFuture.supplyAsync(() -> rebuildFeed(user, true), refreshExecutor)
+                .thenCompose(Function.identity())
+                .handle((response, e) -> {
+                    if (e != null) {
+                        log.warn("Refreshing discovery feed for user {} failed: {}", user.getId(), e.getMessage());
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> refreshNext(pending));
+    }
 
-        SearchHistory history = SearchHistory.builder()
-                .query(trimmedQuery)
-                .user(user)
-                .build();
-        searchHistoryRepository.save(history);
+    /**
+     * A feed with a section that missed the deadline is returned but not stored, so that the
+     * previous feed stays in place and the next refresh tries again. A background rebuild does
+     * not count as a read of the feed.
+     */
+    private CompletableFuture<DiscoveryResponse> rebuildFeed(User user, boolean background) {
+        DiscoveryFeedCache.Stamp stamp = feedCache.stamp(user.getId());
+        AtomicBoolean degraded = new AtomicBoolean();
+        return buildDiscoveryData(user, degraded).thenApply(response -> {
+            if (degraded.get()) {
+                return response;
+            }
+            if (background) {
+                feedCache.refreshed(user, stamp, response);
+            } else {
+                feedCache.put(user, stamp, response);
+            }
+            return response;
+        });
     }
 
-    public Set<String> getOwnedIsbns(User user) {
-        return new HashSet<>(bookRepository.findAllIsbnsByUser(user));
+    /**
+     * Builds all three discovery sections. The library lookups run on the calling thread in one
+     * read-only transaction that is committed before any Google Books call is issued, so no
+     * database connection is held across them. The calls then run concurrently without blocking
+     * the caller, so latency is that of the slowest call, bounded by the deadline. A section whose
+     * call misses the deadline or fails comes back without books.
+     */
+    public CompletableFuture<DiscoveryResponse> getDiscoveryData(User user) {
+        return buildDiscoveryData(user, new AtomicBoolean());
     }
 
-    public List<String> getTopAuthors(User user, int limit) {
-        List<String> authors = bookRepository.findTopAuthorsByUser(user);
-        return authors.stream().limit(limit).collect(Collectors.toList());
+    private CompletableFuture<DiscoveryResponse> buildDiscoveryData(User user, AtomicBoolean degraded) {
+        LibrarySignals signals = readOnlyTransaction.execute(status -> new LibrarySignals(
+                getOwnedIsbns(user),
+                getTopAuthors(user, SECTION_TERMS),
+                getTopCategories(user, SECTION_TERMS),
+                getRecentSearches(user, SECTION_TERMS)));
+        OwnedIsbns ownedIsbns = signals.ownedIsbns();
+
+        CompletableFuture<List<RecommendedBookDto>> authorBooks = fetchForFirst(signals.topAuthors(),
+                author -> getRecommendationsByAuthor(author, ownedIsbns, MAX_RESULTS), degraded);
+        CompletableFuture<List<RecommendedBookDto>> categoryBooks = fetchForFirst(signals.topCategories(),
+                category -> getRecommendationsByCategory(category, ownedIsbns, MAX_RESULTS), degraded);
+        CompletableFuture<List<RecommendedBookDto>> searchBooks = fetchForFirst(signals.recentSearches(),
+                query -> getRecommendationsByQuery(query, ownedIsbns, MAX_RESULTS), degraded);
+
+        return CompletableFuture.allOf(authorBooks, categoryBooks, searchBooks)
+                .thenApply(done -> new DiscoveryResponse(
+                        new DiscoveryResponse.AuthorSection(signals.topAuthors(), authorBooks.join()),
+                        new DiscoveryResponse.CategorySection(signals.topCategories(), categoryBooks.join()),
+                        new DiscoveryResponse.SearchSection(signals.recentSearches(), searchBooks.join())));
     }
 
-    public List<String> getTopCategories(User user, int limit) {
-        List<String> allCategoriesRaw = bookRepository.findAllCategoriesByUser(user);
+    /** Everything discovery reads from the database, loaded together before going out to Google. */
+    private record LibrarySignals(OwnedIsbns ownedIsbns, List<String> topAuthors, List<String> topCategories,
+            List<String> recentSearches) {
+    }
 
-        Map<String, Long> categoryCount = allCategoriesRaw.stream()
-                .flatMap(cats -> Arrays.stream(cats.split(",")))
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .collect(Collectors.groupingBy(c -> c, Collectors.counting()));
+    private CompletableFuture<List<RecommendedBookDto>> fetchForFirst(List<String> terms,
+            Function<String, CompletableFuture<List<RecommendedBookDto>>> fetch, AtomicBoolean degraded) {
+        if (terms.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        String term = terms.get(0);
+        // a failed or late lookup completes with null and leaves the section without books
+        return CompletableFuture.completedFuture(term)
+                .thenCompose(fetch)
+                .exceptionally(e -> {
+                    log.warn("Discovery lookup for '{}' failed: {}", term, e.getMessage());
+                    return null;
+                })
+                .completeOnTimeout(null, deadlineMillis, TimeUnit.MILLISECONDS)
+                .thenApply(books -> {
+                    if (books == null) {
+                        degraded.set(true);
+                        return Collections.<RecommendedBookDto>emptyList();
+                    }
+                    return books;
+                });
+    }
 
-        return categoryCount.entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                .limit(limit)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public OwnedIsbns getOwnedIsbns(User user) {
+        return ownedIsbnIndex.forUser(user);
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> getTopAuthors(User user, int limit) {
+        return authorStatsService.getTopAuthors(user, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> getTopCategories(User user, int limit) {
+        return bookCategoryRepository.findTopNamesByUser(user, Limit.of(limit));
     }
 
+    @Transactional(readOnly = true)
     public List<String> getRecentSearches(User user, int limit) {
         return searchHistoryRepository.findDistinctQueriesByUserOrderByTimestampDesc(user)
                 .stream()
@@ -81,22 +236,27 @@ public class DiscoveryService {
                 .collect(Collectors.toList());
     }
 
-    public List<RecommendedBookDto> getRecommendationsByAuthor(String author, Set<String> ownedIsbns, int maxResults) {
-        return filterOwnedBooks(googleBooksClient.getBooksByAuthor(author, maxResults), ownedIsbns);
+    public CompletableFuture<List<RecommendedBookDto>> getRecommendationsByAuthor(String author,
+            OwnedIsbns ownedIsbns, int maxResults) {
+        return googleBooksClient.getBooksByAuthor(author, maxResults)
+                .thenApply(books -> filterOwnedBooks(books, ownedIsbns));
     }
 
-    public List<RecommendedBookDto> getRecommendationsByCategory(String category, Set<String> ownedIsbns,
-            int maxResults) {
-        return filterOwnedBooks(googleBooksClient.getBooksByCategory(category, maxResults), ownedIsbns);
+    public CompletableFuture<List<RecommendedBookDto>> getRecommendationsByCategory(String category,
+            OwnedIsbns ownedIsbns, int maxResults) {
+        return googleBooksClient.getBooksByCategory(category, maxResults)
+                .thenApply(books -> filterOwnedBooks(books, ownedIsbns));
     }
 
-    public List<RecommendedBookDto> getRecommendationsByQuery(String query, Set<String> ownedIsbns, int maxResults) {
-        return filterOwnedBooks(googleBooksClient.getBooksByQuery(query, maxResults), ownedIsbns);
+    public CompletableFuture<List<RecommendedBookDto>> getRecommendationsByQuery(String query,
+            OwnedIsbns ownedIsbns, int maxResults) {
+        return googleBooksClient.getBooksByQuery(query, maxResults)
+                .thenApply(books -> filterOwnedBooks(books, ownedIsbns));
     }
 
-    private List<RecommendedBookDto> filterOwnedBooks(List<RecommendedBookDto> books, Set<String> ownedIsbns) {
+    private List<RecommendedBookDto> filterOwnedBooks(List<RecommendedBookDto> books, OwnedIsbns ownedIsbns) {
         return books.stream()
-                .filter(book -> book.isbn() == null || !ownedIsbns.contains(book.isbn()))
+                .filter(book -> !ownedIsbns.contains(book.isbn()))
                 .collect(Collectors.toList());
     }
 }
@@ -1,90 +1,171 @@
 package com.example.minilibrary.discovery;
 
 import com.example.minilibrary.discovery.dto.RecommendedBookDto;
-import lombok.RequiredArgsConstructor;
+import com.example.minilibrary.shared.http.OutboundCallGuard;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking Google Books lookups behind a shared cache. Results are not user specific (owned
+ * books are filtered out by the caller), so one entry serves every user asking the same question.
+ * Entries are refreshed in the background once stale and dropped after the TTL; failed lookups
+ * are not cached, and concurrent identical requests are coalesced into one outbound call. Lookups
+ * that miss and start a load are counted under {@value #REQUESTS_METRIC} tagged {@code flight=leader},
+ * lookups that join a load still in flight under {@code flight=coalesced}; hits on a loaded entry
+ * are in the cache metrics.
+ * Outbound calls pass through {@link GoogleBooksGuard}; when a lookup fails or is rejected, the
+ * last good result for the query is served, kept for a longer fallback TTL.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class GoogleBooksClient {
 
-    private final RestTemplate restTemplate;
-
-    @Value("${google.books.api.url:https://www.googleapis.com/books/v1/volumes}")
-    private String googleBooksApiUrl;
-
-    public List<RecommendedBookDto> getBooksByAuthor(String author, int maxResults) {
-        String url = googleBooksApiUrl + "?q=inauthor:" + encodeParam(author) + "&maxResults=" + maxResults;
-        return fetchBooks(url);
+    static final String CACHE_NAME = "googleBooks";
+    static final String REQUESTS_METRIC = "discovery.google.requests";
+
+    private final HttpClient httpClient;
+    private final ObjectReader volumesReader;
+    private final String googleBooksApiUrl;
+    private final Duration requestTimeout;
+    private final AsyncLoadingCache<BookQuery, List<RecommendedBookDto>> cache;
+    private final Cache<BookQuery, List<RecommendedBookDto>> lastKnownGood;
+    private final GoogleBooksGuard guard;
+    private final OutboundCallGuard outboundCallGuard;
+    private final SingleFlight<String, VolumesResponse> singleFlight;
+    private final Counter leaderRequests;
+    private final Counter coalescedRequests;
+
+    public GoogleBooksClient(@Qualifier("googleBooksHttpClient") HttpClient httpClient, ObjectMapper objectMapper,
+            @Value("${google.books.api.url:https://www.googleapis.com/books/v1/volumes}") String googleBooksApiUrl,
+            @Value("${app.discovery.http.request-timeout-ms:5000}") long requestTimeoutMillis,
+            @Value("${app.discovery.google-cache.ttl-seconds:3600}") long ttlSeconds,
+            @Value("${app.discovery.google-cache.refresh-seconds:600}") long refreshSeconds,
+            @Value("${app.discovery.google-cache.max-weight:20000}") long maxWeight,
+            @Value("${app.discovery.google-cache.fallback-ttl-hours:24}") long fallbackTtlHours,
+            GoogleBooksGuard guard, OutboundCallGuard outboundCallGuard, MeterRegistry meterRegistry) {
+        this.httpClient = httpClient;
+        this.volumesReader = objectMapper.readerFor(VolumesResponse.class);
+        this.googleBooksApiUrl = googleBooksApiUrl;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.singleFlight = new SingleFlight<>();
+        this.leaderRequests = meterRegistry.counter(REQUESTS_METRIC, "flight", "leader");
+        this.coalescedRequests = meterRegistry.counter(REQUESTS_METRIC, "flight", "coalesced");
+        this.guard = guard;
+        this.outboundCallGuard = outboundCallGuard;
+        this.lastKnownGood = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofHours(fallbackTtlHours))
+                .maximumWeight(maxWeight)
+                .weigher((BookQuery query, List<RecommendedBookDto> books) -> books.size() + 1)
+                .build();
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                // weight = number of books held, so large result lists count for more
+                .maximumWeight(maxWeight)
+                .weigher((BookQuery query, List<RecommendedBookDto> books) -> books.size() + 1)
+                .recordStats()
+                .buildAsync((query, executor) -> fetchBooks(query));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
     }
 
-    public List<RecommendedBookDto> getBooksByCategory(String category, int maxResults) {
-        String url = googleBooksApiUrl + "?q=subject:" + encodeParam(category) + "&maxResults=" + maxResults;
-        return fetchBooks(url);
+    public CompletableFuture<List<RecommendedBookDto>> getBooksByAuthor(String author, int maxResults) {
+        return lookup(BookQuery.of(BookQuery.Type.AUTHOR, author, maxResults));
     }
 
-    public List<RecommendedBookDto> getBooksByQuery(String query, int maxResults) {
-        String url = googleBooksApiUrl + "?q=" + encodeParam(query) + "&maxResults=" + maxResults;
-        return fetchBooks(url);
+    public CompletableFuture<List<RecommendedBookDto>> getBooksByCategory(String category, int maxResults) {
+        return lookup(BookQuery.of(BookQuery.Type.CATEGORY, category, maxResults));
     }
 
-    @SuppressWarnings("unchecked")
-    private List<RecommendedBookDto> fetchBooks(String url) {
-        try {
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            if (response == null || !response.containsKey("items")) {
-                return Collections.emptyList();
-            }
+    public CompletableFuture<List<RecommendedBookDto>> getBooksByQuery(String query, int maxResults) {
+        return lookup(BookQuery.of(BookQuery.Type.QUERY, query, maxResults));
+    }
 
-            List<Map<String, Object>> items = (List<Map<String, Object>>) response.get("items");
-            return items.stream()
-                    .map(this::mapToDto)
-                    .collect(Collectors.toList());
-        } catch (RestClientException e) {
-            log.error("Failed to fetch books from Google API: {}", e.getMessage());
-            return Collections.emptyList();
+    /**
+     * Checked on the caller's thread before the cache: a miss goes out to Google, and the caller
+     * typically waits for it, so the caller must not be holding a database connection. The cache
+     * runs the loader for the one caller that misses; others get the pending load, if any.
+     */
+    private CompletableFuture<List<RecommendedBookDto>> lookup(BookQuery query) {
+        outboundCallGuard.checkNoConnectionHeld(googleBooksApiUrl);
+        AtomicBoolean leader = new AtomicBoolean();
+        CompletableFuture<List<RecommendedBookDto>> books = cache.get(query, (key, executor) -> {
+            leader.set(true);
+            return fetchBooks(key);
+        });
+        if (leader.get()) {
+            leaderRequests.increment();
+        } else if (!books.isDone()) {
+            coalescedRequests.increment();
         }
+        return books.exceptionally(e -> {
+            List<RecommendedBookDto> lastGood = lastKnownGood.getIfPresent(query);
+            log.warn("Failed to fetch books from Google API ({}), serving {}", e.getMessage(),
+                    lastGood != null ? "last known good result" : "no books");
+            return lastGood != null ? lastGood : Collections.emptyList();
+        });
     }
 
-    @SuppressWarnings("unchecked")
-    private RecommendedBookDto mapToDto(Map<String, Object> item) {
-        Map<String, Object> volumeInfo = (Map<String, Object>) item.get("volumeInfo");
-
-        String title = (String) volumeInfo.get("title");
-        List<String> authors = (List<String>) volumeInfo.get("authors");
-        List<String> categories = (List<String>) volumeInfo.get("categories");
-        String publishedDate = (String) volumeInfo.get("publishedDate");
-        Integer pageCount = (Integer) volumeInfo.get("pageCount");
+    /**
+     * Cache loader, for misses and background refreshes; a failed future is dropped by the cache, so
+     * errors are never cached. A refresh racing a miss for the same request shares one outbound call.
+     */
+    private CompletableFuture<List<RecommendedBookDto>> fetchBooks(BookQuery query) {
+        String url = googleBooksApiUrl + "?q=" + query.type().prefix() + encodeParam(query.term())
+                + "&maxResults=" + query.maxResults() + "&fields=" + encodeParam(VolumesResponse.FIELDS);
+        return singleFlight.execute(url, () -> guard.call(() -> send(url)))
+                .thenApply(response -> {
+                    List<RecommendedBookDto> books = response == null ? List.of() : response.toDtos();
+                    lastKnownGood.put(query, books);
+                    return books;
+                });
+    }
 
-        String isbn = null;
-        List<Map<String, String>> identifiers = (List<Map<String, String>>) volumeInfo.get("industryIdentifiers");
-        if (identifiers != null) {
-            isbn = identifiers.stream()
-                    .filter(id -> "ISBN_13".equals(id.get("type")) || "ISBN_10".equals(id.get("type")))
-                    .map(id -> id.get("identifier"))
-                    .findFirst()
-                    .orElse(null);
-        }
+    private CompletableFuture<VolumesResponse> send(String url) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(this::parse);
+    }
 
-        String coverUrl = null;
-        Map<String, String> imageLinks = (Map<String, String>) volumeInfo.get("imageLinks");
-        if (imageLinks != null) {
-            coverUrl = imageLinks.getOrDefault("thumbnail", imageLinks.get("smallThumbnail"));
+    private VolumesResponse parse(HttpResponse<InputStream> response) {
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != HttpStatus.OK.value()) {
+                throw new GoogleBooksException("Google Books returned HTTP " + response.statusCode());
+            }
+            return volumesReader.readValue(body);
+        } catch (IOException e) {
+            throw new GoogleBooksException("Unreadable Google Books response", e);
         }
-
-        return new RecommendedBookDto(title, authors, categories, publishedDate, pageCount, isbn, coverUrl);
     }
 
     private String encodeParam(String param) {
@@ -0,0 +1,13 @@
+package com.example.minilibrary.discovery;
+
+/** A Google Books call that failed or returned an unusable response. */
+class GoogleBooksException extends RuntimeException {
+
+    GoogleBooksException(String message) {
+        super(message);
+    }
+
+    GoogleBooksException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
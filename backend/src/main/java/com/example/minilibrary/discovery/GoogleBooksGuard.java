@@ -0,0 +1,87 @@
+package com.example.minilibrary.discovery;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead and circuit breaker for outbound Google Books calls. At most {@code max-concurrent}
+ * calls are in flight; beyond that, and while the circuit is open, calls fail immediately with a
+ * {@link GoogleBooksException} instead of queueing. Publishes the breaker state
+ * ({@code 0} closed, {@code 1} open, {@code 2} half-open), free bulkhead permits and rejections.
+ */
+@Component
+class GoogleBooksGuard {
+
+    static final String STATE_METRIC = "discovery.google.breaker.state";
+    static final String AVAILABLE_METRIC = "discovery.google.bulkhead.available";
+    static final String REJECTED_METRIC = "discovery.google.rejected";
+
+    private final Semaphore permits;
+    private final CircuitBreaker breaker;
+    private final LongSupplier nanoClock;
+    private final Counter bulkheadRejections;
+    private final Counter breakerRejections;
+
+    @Autowired
+    GoogleBooksGuard(@Value("${app.discovery.google-guard.max-concurrent:20}") int maxConcurrent,
+            @Value("${app.discovery.google-guard.window-size:20}") int windowSize,
+            @Value("${app.discovery.google-guard.minimum-calls:10}") int minimumCalls,
+            @Value("${app.discovery.google-guard.failure-rate-percent:50}") int failureRatePercent,
+            @Value("${app.discovery.google-guard.slow-call-ms:2000}") long slowCallMillis,
+            @Value("${app.discovery.google-guard.slow-call-rate-percent:80}") int slowCallRatePercent,
+            @Value("${app.discovery.google-guard.open-seconds:30}") long openSeconds,
+            MeterRegistry meterRegistry) {
+        this(maxConcurrent, new CircuitBreaker(windowSize, minimumCalls, failureRatePercent, slowCallRatePercent,
+                Duration.ofMillis(slowCallMillis), Duration.ofSeconds(openSeconds), System::nanoTime),
+                System::nanoTime, meterRegistry);
+    }
+
+    GoogleBooksGuard(int maxConcurrent, CircuitBreaker breaker, LongSupplier nanoClock, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrent);
+        this.breaker = breaker;
+        this.nanoClock = nanoClock;
+        this.bulkheadRejections = meterRegistry.counter(REJECTED_METRIC, "reason", "bulkhead");
+        this.breakerRejections = meterRegistry.counter(REJECTED_METRIC, "reason", "breaker");
+        Gauge.builder(STATE_METRIC, breaker, b -> b.state().ordinal()).register(meterRegistry);
+        Gauge.builder(AVAILABLE_METRIC, permits, Semaphore::availablePermits).register(meterRegistry);
+    }
+
+    CircuitBreaker.State state() {
+        return breaker.state();
+    }
+
+    <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> call) {
+        if (!permits.tryAcquire()) {
+            bulkheadRejections.increment();
+            return CompletableFuture.failedFuture(new GoogleBooksException("Google Books bulkhead full"));
+        }
+        long permit = breaker.tryAcquire();
+        if (permit == CircuitBreaker.REJECTED) {
+            permits.release();
+            breakerRejections.increment();
+            return CompletableFuture.failedFuture(new GoogleBooksException("Google Books circuit open"));
+        }
+
+        long start = nanoClock.getAsLong();
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((value, error) -> {
+            permits.release();
+            breaker.record(permit, nanoClock.getAsLong() - start, error != null);
+        });
+    }
+}
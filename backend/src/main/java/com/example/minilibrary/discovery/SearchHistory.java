@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class SearchHistory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "search_history_seq")
+    @SequenceGenerator(name = "search_history_seq", sequenceName = "search_history_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
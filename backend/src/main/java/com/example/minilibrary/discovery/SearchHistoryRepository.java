@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -19,22 +20,33 @@ public interface SearchHistoryRepository extends JpaRepository<SearchHistory, Lo
     @Query("SELECT s.query FROM SearchHistory s WHERE s.user = :user GROUP BY s.query ORDER BY MAX(s.timestamp) DESC")
     List<String> findDistinctQueriesByUserOrderByTimestampDesc(@Param("user") User user);
 
-    /**
-     * Count total entries for a user (for limit check)
-     */
-    long countByUser(User user);
+    interface RecentQuery {
+        Long getUserId();
+
+        String getQuery();
+
+        LocalDateTime getTimestamp();
+    }
 
     /**
-     * Check if a duplicate query exists within the time window (for deduplication)
+     * Queries logged by any of the users after the given time (for deduplication of a write batch)
      */
-    boolean existsByUserAndQueryAndTimestampAfter(User user, String query, LocalDateTime after);
+    @Query("SELECT s.user.id AS userId, s.query AS query, s.timestamp AS timestamp FROM SearchHistory s "
+            + "WHERE s.user.id IN :userIds AND s.timestamp > :after")
+    List<RecentQuery> findRecentQueries(@Param("userIds") Collection<Long> userIds,
+            @Param("after") LocalDateTime after);
 
     /**
-     * Delete the oldest entry for a user (for FIFO cleanup when limit exceeded)
+     * Delete everything but each user's newest {@code keep} entries, in one statement (FIFO cleanup)
      */
-    @Modifying
-    @Query(value = "DELETE FROM search_history WHERE id = (SELECT id FROM search_history WHERE user_id = :userId ORDER BY timestamp ASC LIMIT 1)", nativeQuery = true)
-    void deleteOldestByUserId(@Param("userId") Long userId);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            DELETE FROM search_history WHERE id IN (
+                SELECT id FROM (
+                    SELECT id, ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY timestamp DESC, id DESC) AS rn
+                    FROM search_history WHERE user_id IN (:userIds)) ranked
+                WHERE ranked.rn > :keep)""", nativeQuery = true)
+    int bulkDeleteBeyondNewest(@Param("userIds") Collection<Long> userIds, @Param("keep") int keep);
 
     /**
      * Get recent searches with limit
@@ -0,0 +1,144 @@
+package com.example.minilibrary.discovery;
+
+import com.example.minilibrary.auth.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Search-history ingestion off the request path. Entries go into a bounded in-memory queue and
+ * are written in batches by a background task: one query to deduplicate the batch against recent
+ * history, batched inserts, and one set-based delete trimming each user to
+ * {@link #MAX_SEARCH_HISTORY_PER_USER} entries.
+ * <p>
+ * Search history only feeds recommendations, so entries arriving while the queue is full, or
+ * still queued when the process dies, are dropped (and counted) rather than slowing searches down.
+ */
+@Component
+@Slf4j
+class SearchLogWriter {
+
+    static final int MAX_SEARCH_HISTORY_PER_USER = 50;
+    static final int DEDUPLICATION_MINUTES = 5;
+    static final String DROPPED_METRIC = "discovery.search-log.dropped";
+    static final String QUEUED_METRIC = "discovery.search-log.queued";
+
+    record Entry(Long userId, String query, LocalDateTime timestamp) {
+
+        String key() {
+            return userId + ":" + query;
+        }
+    }
+
+    private final SearchHistoryRepository searchHistoryRepository;
+    private final DiscoveryFeedCache feedCache;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final BlockingQueue<Entry> queue;
+    private final int batchSize;
+    private final Counter dropped;
+
+    SearchLogWriter(SearchHistoryRepository searchHistoryRepository, DiscoveryFeedCache feedCache,
+            TransactionTemplate transactionTemplate, EntityManager entityManager,
+            @Value("${app.discovery.search-log.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.discovery.search-log.batch-size:500}") int batchSize,
+            MeterRegistry meterRegistry) {
+        this.searchHistoryRepository = searchHistoryRepository;
+        this.feedCache = feedCache;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.dropped = meterRegistry.counter(DROPPED_METRIC);
+        meterRegistry.gaugeCollectionSize(QUEUED_METRIC, Tags.empty(), queue);
+    }
+
+    /** Queues an entry without blocking; returns {@code false} if it was dropped. */
+    boolean enqueue(Long userId, String query) {
+        if (queue.offer(new Entry(userId, query, LocalDateTime.now()))) {
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${app.discovery.search-log.flush-interval-ms:1000}")
+    @PreDestroy
+    public void flush() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                write(batch);
+            } catch (DataAccessException e) {
+                log.error("Writing {} search log entries failed: {}", batch.size(), e.getMessage());
+                dropped.increment(batch.size());
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<Entry> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Entry> accepted = deduplicate(batch);
+            if (accepted.isEmpty()) {
+                return;
+            }
+            searchHistoryRepository.saveAll(accepted.stream()
+                    .map(entry -> SearchHistory.builder()
+                            .user(entityManager.getReference(User.class, entry.userId()))
+                            .query(entry.query())
+                            .timestamp(entry.timestamp())
+                            .build())
+                    .toList());
+            Set<Long> userIds = accepted.stream().map(Entry::userId).collect(Collectors.toSet());
+            searchHistoryRepository.bulkDeleteBeyondNewest(userIds, MAX_SEARCH_HISTORY_PER_USER);
+            userIds.forEach(feedCache::searchChanged);
+        });
+    }
+
+    /**
+     * Drops entries whose query the same user already logged within the deduplication window,
+     * either earlier in this batch or in stored history.
+     */
+    private List<Entry> deduplicate(List<Entry> batch) {
+        Set<Long> userIds = batch.stream().map(Entry::userId).collect(Collectors.toSet());
+        LocalDateTime oldest = batch.stream().map(Entry::timestamp).min(Comparator.naturalOrder()).orElseThrow();
+
+        Map<String, LocalDateTime> lastLogged = new HashMap<>();
+        for (SearchHistoryRepository.RecentQuery recent : searchHistoryRepository.findRecentQueries(userIds,
+                oldest.minusMinutes(DEDUPLICATION_MINUTES))) {
+            lastLogged.merge(recent.getUserId() + ":" + recent.getQuery(), recent.getTimestamp(),
+                    (a, b) -> a.isAfter(b) ? a : b);
+        }
+
+        List<Entry> accepted = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            LocalDateTime last = lastLogged.get(entry.key());
+            if (last != null && last.isAfter(entry.timestamp().minusMinutes(DEDUPLICATION_MINUTES))) {
+                continue;
+            }
+            lastLogged.put(entry.key(), entry.timestamp());
+            accepted.add(entry);
+        }
+        return accepted;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.minilibrary.discovery;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one: the first caller starts the call, callers
+ * arriving while it is in flight share its outcome. Nothing is retained once the call completes.
+ * <p>
+ * Concurrent misses for one cache entry are already coalesced by the cache itself, so callers see
+ * this only where the cache starts a second load next to one in flight: a background refresh
+ * racing the miss that follows the entry's expiry.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return existing.copy();
+        }
+
+        CompletableFuture<V> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, error) -> {
+            // leave the map first so that a caller arriving now starts a fresh call
+            inFlight.remove(key, flight);
+            if (error != null) {
+                flight.completeExceptionally(error);
+            } else {
+                flight.complete(value);
+            }
+        });
+        return flight.copy();
+    }
+}
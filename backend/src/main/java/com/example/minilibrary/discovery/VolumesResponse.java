@@ -0,0 +1,69 @@
+package com.example.minilibrary.discovery;
+
+import com.example.minilibrary.discovery.dto.RecommendedBookDto;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * The subset of a Google Books volumes response that discovery uses. Jackson binds straight from
+ * the token stream into these records and skips everything else, so no intermediate tree is built.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+record VolumesResponse(List<Item> items) {
+
+    /** Partial-response selector asking the API for exactly the fields bound below. */
+    static final String FIELDS =
+            "items(volumeInfo(title,authors,categories,publishedDate,pageCount,industryIdentifiers,imageLinks))";
+
+    List<RecommendedBookDto> toDtos() {
+        if (items == null) {
+            return List.of();
+        }
+        return items.stream()
+                .filter(item -> item.volumeInfo() != null)
+                .map(item -> item.volumeInfo().toDto())
+                .toList();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Item(VolumeInfo volumeInfo) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record VolumeInfo(
+            String title,
+            List<String> authors,
+            List<String> categories,
+            String publishedDate,
+            Integer pageCount,
+            List<Identifier> industryIdentifiers,
+            ImageLinks imageLinks) {
+
+        RecommendedBookDto toDto() {
+            String isbn = industryIdentifiers == null ? null : industryIdentifiers.stream()
+                    .filter(Identifier::isIsbn)
+                    .map(Identifier::identifier)
+                    .findFirst()
+                    .orElse(null);
+            String coverUrl = imageLinks == null ? null : imageLinks.coverUrl();
+            return new RecommendedBookDto(title, authors, categories, publishedDate, pageCount, isbn, coverUrl);
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Identifier(String type, String identifier) {
+
+        boolean isIsbn() {
+            return "ISBN_13".equals(type) || "ISBN_10".equals(type);
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record ImageLinks(String thumbnail, String smallThumbnail) {
+
+        String coverUrl() {
+            return thumbnail != null ? thumbnail : smallThumbnail;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.minilibrary.sessions;
+
+import com.example.minilibrary.sessions.dto.ReadingSessionDto;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Immutable snapshot of a user's open (ACTIVE or PAUSED) session, as held by
+ * {@link ActiveSessionRegistry}. Safe to share across threads and requests, unlike the entity.
+ */
+public record ActiveSession(Long id, Long bookId, Instant startTime, SessionStatus status, long pausedMillis,
+        Instant pausedAt) {
+
+    static ActiveSession of(ReadingSession session) {
+        return new ActiveSession(session.getId(), session.getBook().getId(), session.getStartTime(),
+                session.getStatus(), session.getPausedMillisOrZero(), session.getPausedAt());
+    }
+
+    /** The snapshot of a session just written; empty once it is completed. */
+    static Optional<ActiveSession> ifOpen(ReadingSession session) {
+        return session.getStatus() == SessionStatus.COMPLETED ? Optional.empty() : Optional.of(of(session));
+    }
+
+    public ReadingSessionDto toDto() {
+        return new ReadingSessionDto(id, bookId, startTime, null, status, null, pausedMillis, pausedAt);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.minilibrary.sessions;
+
+import java.util.Optional;
+
+/**
+ * Published by {@link ReadingSessionService} whenever a user's open session changes; delivered
+ * to listeners once the transaction commits. Empty when the user no longer has an open session.
+ */
+record ActiveSessionChanged(Long userId, Optional<ActiveSession> session) {
+}
@@ -0,0 +1,88 @@
+package com.example.minilibrary.sessions;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Write-through map of each user's open session, so that polling the active session is a memory
+ * read. A user missing from the map is loaded from the database on first use; an empty value
+ * means the user is known to have no open session. A write made inside a transaction drops the
+ * entry right away, so that lookups until the commit go to the database (and, on the writing
+ * thread, see the uncommitted change); the new state is stored once the transaction commits.
+ * Hit/miss statistics are published under the cache name {@code activeSessions}.
+ */
+@Component
+class ActiveSessionRegistry {
+
+    static final String CACHE_NAME = "activeSessions";
+
+    private final Cache<Long, Optional<ActiveSession>> cache;
+
+    ActiveSessionRegistry(@Value("${app.sessions.active-cache.max-size:10000}") long maxSize,
+            @Value("${app.sessions.active-cache.idle-minutes:60}") long idleMinutes,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    Optional<ActiveSession> get(Long userId, Supplier<Optional<ActiveSession>> loader) {
+        return cache.get(userId, id -> loader.get());
+    }
+
+    /** The cached open session, empty if the user has none, or {@code null} if the user is not cached. */
+    Optional<ActiveSession> getIfPresent(Long userId) {
+        return cache.getIfPresent(userId);
+    }
+
+    /** Records state just read from the database. */
+    void loaded(Long userId, Optional<ActiveSession> session) {
+        cache.put(userId, session);
+    }
+
+    /** Records the session's state after a write; a closed session leaves the user without one. */
+    void saved(Long userId, ReadingSession session) {
+        Optional<ActiveSession> value = ActiveSession.ifOpen(session);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.put(userId, value);
+            return;
+        }
+        cache.invalidate(userId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    cache.put(userId, value);
+                } else {
+                    cache.invalidate(userId);
+                }
+            }
+        });
+    }
+
+    /** Drops the user's entry now and again after the transaction completes, to be reloaded on next use. */
+    void invalidate(Long userId) {
+        cache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.minilibrary.sessions;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * In-process fan-out of active-session changes to each user's open SSE streams. Every device
+ * showing the timer holds one stream; a change is pushed to all of them once its transaction
+ * commits, straight from the {@link ActiveSessionChanged} event, so streams cost no queries.
+ * The state last sent is kept per user, to tell whether a {@link BookSessionsDeleted} ended it.
+ * Listeners run while the user's session lock is held, so they only queue the writes: each
+ * user's writes run in order on the delivery executor, and a slow client stalls nobody else.
+ * Events are {@code session} (a {@code ReadingSessionDto}) or {@code no-session}; heartbeat
+ * comments keep idle connections open through proxies. Streams end after a timeout and the
+ * client reconnects. The open stream count is published as {@code sessions.stream.subscribers}.
+ */
+@Component
+@Slf4j
+class ActiveSessionStreams {
+
+    static final String SESSION_EVENT = "session";
+    static final String NO_SESSION_EVENT = "no-session";
+    static final String SUBSCRIBERS_METRIC = "sessions.stream.subscribers";
+
+    private final Map<Long, UserStreams> streams = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount;
+    private final long timeoutMillis;
+    private final Executor deliveryExecutor;
+
+    ActiveSessionStreams(@Value("${app.sessions.stream.timeout-minutes:30}") long timeoutMinutes,
+            @Qualifier("sessionStreamExecutor") Executor deliveryExecutor, MeterRegistry meterRegistry) {
+        this.timeoutMillis = Duration.ofMinutes(timeoutMinutes).toMillis();
+        this.deliveryExecutor = deliveryExecutor;
+        this.subscriberCount = meterRegistry.gauge(SUBSCRIBERS_METRIC, new AtomicInteger());
+    }
+
+    /**
+     * Opens a stream for the user, starting with their current state. The stream is registered
+     * before that state is read, so a change committed meanwhile is pushed to it; the state read
+     * is then stale and not sent.
+     */
+    SseEmitter subscribe(Long userId, Supplier<Optional<ActiveSession>> currentState) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        UserStreams user = streams.compute(userId, (id, existing) -> {
+            UserStreams subscribed = existing != null ? existing : new UserStreams();
+            subscribed.emitters.add(emitter);
+            return subscribed;
+        });
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(() -> remove(userId, emitter));
+        emitter.onError(e -> remove(userId, emitter));
+        long seen;
+        synchronized (user) {
+            seen = user.version;
+        }
+        Optional<ActiveSession> current = currentState.get();
+        synchronized (user) {
+            if (user.version == seen) {
+                user.current = current;
+                deliver(user, () -> send(userId, emitter, event(current)));
+            }
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(ActiveSessionChanged change) {
+        push(change.userId(), change.session());
+    }
+
+    /** The open session went with the book's sessions only if it was for that book. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookSessionsDeleted(BookSessionsDeleted deletion) {
+        UserStreams user = streams.get(deletion.userId());
+        if (user == null) {
+            return;
+        }
+        synchronized (user) {
+            if (user.current.filter(open -> open.bookId().equals(deletion.bookId())).isPresent()) {
+                push(deletion.userId(), Optional.empty());
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${app.sessions.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        streams.forEach((userId, user) -> deliver(user, () -> user.emitters
+                .forEach(emitter -> send(userId, emitter, SseEmitter.event().comment("heartbeat")))));
+    }
+
+    int subscriberCount(Long userId) {
+        UserStreams user = streams.get(userId);
+        return user == null ? 0 : user.emitters.size();
+    }
+
+    private void push(Long userId, Optional<ActiveSession> session) {
+        UserStreams user = streams.get(userId);
+        if (user == null) {
+            return;
+        }
+        synchronized (user) {
+            user.current = session;
+            user.version++;
+            deliver(user, () -> user.emitters.forEach(emitter -> send(userId, emitter, event(session))));
+        }
+    }
+
+    /** Queues writes behind the user's earlier ones, so that every stream sees the changes in order. */
+    private void deliver(UserStreams user, Runnable writes) {
+        synchronized (user) {
+            user.deliveries = user.deliveries.thenRunAsync(writes, deliveryExecutor).exceptionally(e -> {
+                log.warn("Delivering session stream events failed: {}", e.getMessage());
+                return null;
+            });
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder event(Optional<ActiveSession> session) {
+        return session
+                .map(open -> SseEmitter.event().name(SESSION_EVENT).data(open.toDto(), MediaType.APPLICATION_JSON))
+                .orElseGet(() -> SseEmitter.event().name(NO_SESSION_EVENT).data(""));
+    }
+
+    /** A stream whose client went away fails on write; it is closed and dropped. */
+    private void send(Long userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException e) {
+            log.debug("Dropping session stream for user {}: {}", userId, e.getMessage());
+            remove(userId, emitter);
+            emitter.completeWithError(e);
+        } catch (IllegalStateException e) {
+            // already completed, e.g. timed out before its callback ran
+            remove(userId, emitter);
+        }
+    }
+
+    private void remove(Long userId, SseEmitter emitter) {
+        streams.computeIfPresent(userId, (id, user) -> {
+            if (user.emitters.remove(emitter)) {
+                subscriberCount.decrementAndGet();
+            }
+            return user.emitters.isEmpty() ? null : user;
+        });
+    }
+
+    /**
+     * A user's open streams, the state last sent to them, the number of changes pushed and the
+     * tail of their queued writes; guarded by itself.
+     */
+    private static final class UserStreams {
+        private final Set<SseEmitter> emitters = new CopyOnWriteArraySet<>();
+        private Optional<ActiveSession> current = Optional.empty();
+        private long version;
+        private CompletableFuture<Void> deliveries = CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.minilibrary.sessions;
+
+/**
+ * Published by {@link ReadingSessionService} when a book's sessions are deleted. The user's open
+ * session went with them only if it was for that book, which listeners holding the current state
+ * can tell without a query.
+ */
+record BookSessionsDeleted(Long userId, Long bookId) {
+}
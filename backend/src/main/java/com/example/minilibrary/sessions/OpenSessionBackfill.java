@@ -0,0 +1,34 @@
+package com.example.minilibrary.sessions;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Fills {@code open_user_id} for sessions opened before the column existed, first completing
+ * any duplicate open sessions so that the unique constraint holds.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OpenSessionBackfill {
+
+    private static final List<SessionStatus> OPEN_STATUSES = List.of(SessionStatus.ACTIVE, SessionStatus.PAUSED);
+
+    private final ReadingSessionRepository sessionRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        int completed = sessionRepository.completeSupersededOpenSessions(OPEN_STATUSES, SessionStatus.COMPLETED);
+        int tagged = sessionRepository.initializeOpenUserIds(OPEN_STATUSES);
+        if (completed + tagged > 0) {
+            log.info("Completed {} superseded open sessions, tagged {} open sessions", completed, tagged);
+        }
+    }
+}
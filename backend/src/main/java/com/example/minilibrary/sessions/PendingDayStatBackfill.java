@@ -0,0 +1,26 @@
+package com.example.minilibrary.sessions;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * A user whose completed sessions predate the daily rollup and are not rolled up yet. The
+ * migration that created the rollup records these users; {@link ReadingDayStatBackfill} removes
+ * each marker in the transaction that rolls up the user's history.
+ */
+@Entity
+@Table(name = "reading_day_stats_pending")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingDayStatBackfill {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+}
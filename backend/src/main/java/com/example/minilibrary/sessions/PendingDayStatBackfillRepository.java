@@ -0,0 +1,12 @@
+package com.example.minilibrary.sessions;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface PendingDayStatBackfillRepository extends JpaRepository<PendingDayStatBackfill, Long> {
+
+    @Query("SELECT p.userId FROM PendingDayStatBackfill p")
+    List<Long> findAllUserIds();
+}
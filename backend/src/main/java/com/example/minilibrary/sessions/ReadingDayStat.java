@@ -0,0 +1,57 @@
+package com.example.minilibrary.sessions;
+
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.books.Book;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Pages and active reading time per user, book and day, added to whenever a session is
+ * stopped, so daily statistics read a few rows instead of scanning the session history.
+ */
+@Entity
+@Table(name = "reading_day_stats", indexes = {
+        @Index(name = "idx_day_stats_user_day", columnList = "user_id, stat_day")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_day_stats_user_book_day", columnNames = { "user_id", "book_id", "stat_day" })
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReadingDayStat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reading_day_stats_seq")
+    @SequenceGenerator(name = "reading_day_stats_seq", sequenceName = "reading_day_stats_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    /** {@code day} is a reserved word in H2 and standard SQL. */
+    @Column(name = "stat_day", nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private long pages;
+
+    @Column(name = "active_millis", nullable = false)
+    private long activeMillis;
+
+    public ReadingDayStat(User user, Book book, LocalDate day, long pages, long activeMillis) {
+        this.user = user;
+        this.book = book;
+        this.day = day;
+        this.pages = pages;
+        this.activeMillis = activeMillis;
+    }
+}
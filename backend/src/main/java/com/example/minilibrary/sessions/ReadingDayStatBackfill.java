@@ -0,0 +1,68 @@
+package com.example.minilibrary.sessions;
+
+import com.example.minilibrary.auth.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the daily rollup once for users whose sessions were completed before it existed, as
+ * recorded by {@link PendingDayStatBackfill} markers. Each user gets a transaction of their own,
+ * taken under their session lock, that rebuilds their rows from the whole history (including
+ * stops since the rollup shipped) and drops the marker. Days are computed in Java, as on stop,
+ * rather than in database-specific SQL.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReadingDayStatBackfill {
+
+    private final ReadingDayStatRepository dayStatRepository;
+    private final PendingDayStatBackfillRepository pendingRepository;
+    private final ReadingSessionRepository sessionRepository;
+    private final SessionLocks sessionLocks;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<Long> userIds = pendingRepository.findAllUserIds();
+        int created = 0;
+        for (Long userId : userIds) {
+            created += sessionLocks.withUserLock(userId,
+                    () -> transactionTemplate.execute(status -> backfillUser(userId)));
+        }
+        if (created > 0) {
+            log.info("Created {} reading day stats for {} users", created, userIds.size());
+        }
+    }
+
+    private int backfillUser(Long userId) {
+        dayStatRepository.bulkDeleteByUser(User.reference(userId, null, null));
+        Map<DayKey, ReadingDayStat> days = new LinkedHashMap<>();
+        for (ReadingSession session : sessionRepository
+                .findByUserIdAndStatusAndEndTimeIsNotNull(userId, SessionStatus.COMPLETED)) {
+            LocalDate day = ReadingDayStatsService.dayOf(session);
+            ReadingDayStat stat = days.computeIfAbsent(new DayKey(session.getBook().getId(), day),
+                    key -> new ReadingDayStat(session.getUser(), session.getBook(), day, 0, 0));
+            stat.setPages(stat.getPages() + ReadingDayStatsService.pagesOf(session));
+            stat.setActiveMillis(stat.getActiveMillis() + ReadingDayStatsService.activeMillisOf(session));
+        }
+        List<ReadingDayStat> stats = days.values().stream()
+                .filter(stat -> stat.getPages() > 0 || stat.getActiveMillis() > 0)
+                .toList();
+        dayStatRepository.saveAll(stats);
+        pendingRepository.deleteById(userId);
+        return stats.size();
+    }
+
+    private record DayKey(Long bookId, LocalDate day) {
+    }
+}
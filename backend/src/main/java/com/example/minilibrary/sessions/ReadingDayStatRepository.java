@@ -0,0 +1,37 @@
+package com.example.minilibrary.sessions;
+
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.books.Book;
+import com.example.minilibrary.sessions.dto.ReadingDayDto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ReadingDayStatRepository extends JpaRepository<ReadingDayStat, Long> {
+
+    @Query("""
+            SELECT new com.example.minilibrary.sessions.dto.ReadingDayDto(d.day, SUM(d.pages), SUM(d.activeMillis))
+            FROM ReadingDayStat d WHERE d.user = :user AND d.day BETWEEN :from AND :to
+            GROUP BY d.day ORDER BY d.day""")
+    List<ReadingDayDto> findDailyTotals(@Param("user") User user, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE ReadingDayStat d SET d.pages = d.pages + :pages, d.activeMillis = d.activeMillis + :activeMillis
+            WHERE d.user = :user AND d.book = :book AND d.day = :day""")
+    int add(@Param("user") User user, @Param("book") Book book, @Param("day") LocalDate day,
+            @Param("pages") long pages, @Param("activeMillis") long activeMillis);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ReadingDayStat d WHERE d.user = :user AND d.book.id = :bookId")
+    int bulkDeleteByUserAndBookId(@Param("user") User user, @Param("bookId") Long bookId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ReadingDayStat d WHERE d.user = :user")
+    int bulkDeleteByUser(@Param("user") User user);
+}
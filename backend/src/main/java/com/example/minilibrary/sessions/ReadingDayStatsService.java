@@ -0,0 +1,69 @@
+package com.example.minilibrary.sessions;
+
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.sessions.dto.ReadingDayDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Keeps {@link ReadingDayStat} rows in step with completed sessions. A session counts towards
+ * the day it ended on, like the goal counters. Writes join the caller's transaction and run
+ * under the user's session lock, so updating before inserting cannot race within an instance.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReadingDayStatsService {
+
+    private final ReadingDayStatRepository dayStatRepository;
+
+    @Transactional(readOnly = true)
+    public List<ReadingDayDto> getDailyTotals(User user, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        return dayStatRepository.findDailyTotals(user, from, to);
+    }
+
+    @Transactional
+    public void sessionCompleted(ReadingSession session) {
+        long pages = pagesOf(session);
+        long activeMillis = activeMillisOf(session);
+        if (pages == 0 && activeMillis == 0) {
+            return;
+        }
+        LocalDate day = dayOf(session);
+        if (dayStatRepository.add(session.getUser(), session.getBook(), day, pages, activeMillis) == 0) {
+            dayStatRepository.save(new ReadingDayStat(session.getUser(), session.getBook(), day, pages, activeMillis));
+        }
+    }
+
+    @Transactional
+    public void bookRemoved(User user, Long bookId) {
+        dayStatRepository.bulkDeleteByUserAndBookId(user, bookId);
+    }
+
+    @Transactional
+    public void libraryRemoved(User user) {
+        dayStatRepository.bulkDeleteByUser(user);
+    }
+
+    static LocalDate dayOf(ReadingSession session) {
+        return LocalDate.ofInstant(session.getEndTime(), ZoneId.systemDefault());
+    }
+
+    static long pagesOf(ReadingSession session) {
+        return session.getPagesRead() != null ? session.getPagesRead() : 0;
+    }
+
+    /** Wall-clock duration minus paused time, never negative. */
+    static long activeMillisOf(ReadingSession session) {
+        long elapsed = Duration.between(session.getStartTime(), session.getEndTime()).toMillis();
+        return Math.max(0, elapsed - session.getPausedMillisOrZero());
+    }
+}
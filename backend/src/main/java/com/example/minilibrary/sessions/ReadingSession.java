@@ -2,7 +2,9 @@ package com.example.minilibrary.sessions;
 
 import com.example.minilibrary.auth.User;
 import com.example.minilibrary.books.Book;
+import com.example.minilibrary.books.LibraryChangeListener;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -11,11 +13,12 @@ import java.time.Instant;
 @Getter
 @Setter
 @Entity
+@EntityListeners(LibraryChangeListener.class)
 @Table(name = "reading_session", indexes = {
         @Index(name = "idx_session_user", columnList = "user_id"),
         @Index(name = "idx_session_book", columnList = "book_id"),
         @Index(name = "idx_session_user_status", columnList = "user_id, status")
-})
+}, uniqueConstraints = @UniqueConstraint(name = "uk_session_open_user", columnNames = "open_user_id"))
 public class ReadingSession {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -48,6 +51,20 @@ public class ReadingSession {
     @Column(name = "paused_at")
     private Instant pausedAt;
 
+    /**
+     * The user's id while the session is ACTIVE or PAUSED, null once it is completed. Unique, so
+     * the database allows at most one open session per user; maintained on every write.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "open_user_id")
+    private Long openUserId;
+
+    @PrePersist
+    @PreUpdate
+    void syncOpenUserId() {
+        openUserId = status != SessionStatus.COMPLETED && user != null ? user.getId() : null;
+    }
+
     public long getPausedMillisOrZero() {
         return pausedMillis != null ? pausedMillis : 0L;
     }
@@ -2,16 +2,21 @@ package com.example.minilibrary.sessions;
 
 import com.example.minilibrary.auth.User;
 import com.example.minilibrary.sessions.dto.ExcludeTimeRequest;
+import com.example.minilibrary.sessions.dto.ReadingDayDto;
 import com.example.minilibrary.sessions.dto.ReadingSessionDto;
 import com.example.minilibrary.sessions.dto.StartSessionRequest;
 import com.example.minilibrary.sessions.dto.StopSessionRequest;
 import com.example.minilibrary.shared.security.CurrentUser;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,6 +26,8 @@ import java.util.stream.Collectors;
 public class ReadingSessionController {
 
     private final ReadingSessionService sessionService;
+    private final ReadingDayStatsService dayStatsService;
+    private final ActiveSessionStreams sessionStreams;
 
     @PostMapping("/start")
     public ResponseEntity<ReadingSessionDto> startSession(
@@ -48,11 +55,20 @@ public class ReadingSessionController {
     @GetMapping("/active")
     public ResponseEntity<ReadingSessionDto> getActiveSession(@CurrentUser User user) {
         return sessionService.getActiveSession(user)
-                .map(this::mapToDto)
+                .map(ActiveSession::toDto)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.noContent().build());
     }
 
+    /**
+     * Server-sent events: the current state right away, then every change, with heartbeats in
+     * between. See {@link ActiveSessionStreams} for the event names.
+     */
+    @GetMapping(path = "/active/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamActiveSession(@CurrentUser User user) {
+        return sessionStreams.subscribe(user.getId(), () -> sessionService.getActiveSession(user));
+    }
+
     @PostMapping("/active/exclude-time")
     public ResponseEntity<ReadingSessionDto> excludeTime(
             @RequestBody @Valid ExcludeTimeRequest request,
@@ -83,6 +99,15 @@ public class ReadingSessionController {
         return ResponseEntity.ok(sessions);
     }
 
+    /** Pages and active time per day, summed over books, for heatmaps, streaks and goals. */
+    @GetMapping("/daily")
+    public ResponseEntity<List<ReadingDayDto>> getDailyTotals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @CurrentUser User user) {
+        return ResponseEntity.ok(dayStatsService.getDailyTotals(user, from, to));
+    }
+
     private ReadingSessionDto mapToDto(ReadingSession session) {
         return new ReadingSessionDto(
                 session.getId(),
@@ -3,6 +3,9 @@ package com.example.minilibrary.sessions;
 import com.example.minilibrary.auth.User;
 import com.example.minilibrary.books.Book;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Collection;
 import java.util.List;
@@ -15,5 +18,32 @@ public interface ReadingSessionRepository extends JpaRepository<ReadingSession,
 
     List<ReadingSession> findByUserAndBook(User user, Book book);
 
-    void deleteByUserAndBook(User user, Book book);
+    List<ReadingSession> findByBookIdInOrderByStartTimeAsc(Collection<Long> bookIds);
+
+    List<ReadingSession> findByUserIdAndStatusAndEndTimeIsNotNull(Long userId, SessionStatus status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ReadingSession s WHERE s.user = :user AND s.book.id = :bookId")
+    int bulkDeleteByUserAndBookId(@Param("user") User user, @Param("bookId") Long bookId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ReadingSession s WHERE s.user = :user")
+    int bulkDeleteByUser(@Param("user") User user);
+
+    /**
+     * Completes, with zero duration, every open session that is not its user's newest open one;
+     * such duplicates predate the one-open-session guarantee.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE ReadingSession s SET s.status = :completed, s.endTime = s.startTime, s.pausedAt = null
+            WHERE s.status IN :open AND EXISTS (
+                SELECT 1 FROM ReadingSession newer WHERE newer.user = s.user AND newer.status IN :open
+                AND (newer.startTime > s.startTime OR (newer.startTime = s.startTime AND newer.id > s.id)))""")
+    int completeSupersededOpenSessions(@Param("open") Collection<SessionStatus> open,
+            @Param("completed") SessionStatus completed);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ReadingSession s SET s.openUserId = s.user.id WHERE s.status IN :open AND s.openUserId IS NULL")
+    int initializeOpenUserIds(@Param("open") Collection<SessionStatus> open);
 }
@@ -7,121 +7,141 @@ import com.example.minilibrary.books.BookRepository;
 import com.example.minilibrary.shared.exception.IllegalSessionStateException;
 import com.example.minilibrary.shared.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 public class ReadingSessionService {
 
+    private static final List<SessionStatus> OPEN_STATUSES = List.of(SessionStatus.ACTIVE, SessionStatus.PAUSED);
+
     private final ReadingSessionRepository sessionRepository;
     private final BookRepository bookRepository;
     private final BookProgressService bookProgressService;
+    private final ReadingDayStatsService dayStatsService;
+    private final ActiveSessionRegistry activeSessions;
+    private final SessionLocks sessionLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Transactional
     public ReadingSession startSession(User user, Long bookId) {
-        Optional<ReadingSession> existingOpt = sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(user,
-                List.of(SessionStatus.ACTIVE, SessionStatus.PAUSED));
-
-        if (existingOpt.isPresent()) {
-            ReadingSession existing = existingOpt.get();
-            if (existing.getBook().getId().equals(bookId)) {
-                if (existing.getStatus() == SessionStatus.PAUSED) {
-                    return resumeSession(user);
+        return transition(user, () -> {
+            Optional<ReadingSession> existingOpt = findOpenSession(user);
+
+            if (existingOpt.isPresent()) {
+                ReadingSession existing = existingOpt.get();
+                if (existing.getBook().getId().equals(bookId)) {
+                    if (existing.getStatus() == SessionStatus.PAUSED) {
+                        return resumeSession(user);
+                    }
+                    return existing;
                 }
-                return existing;
+                stopSession(user, Instant.now(), null);
+                // release the user's open_user_id before inserting the new session
+                sessionRepository.flush();
             }
-            stopSession(user, Instant.now(), null);
-        }
 
-        Book book = bookRepository.findByIdAndUserId(bookId, user.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found or access denied"));
+            Book book = bookRepository.findByIdAndUserId(bookId, user.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Book not found or access denied"));
 
-        ReadingSession session = new ReadingSession();
-        session.setUser(user);
-        session.setBook(book);
-        session.setStartTime(Instant.now());
-        session.setStatus(SessionStatus.ACTIVE);
+            ReadingSession session = new ReadingSession();
+            session.setUser(user);
+            session.setBook(book);
+            session.setStartTime(Instant.now());
+            session.setStatus(SessionStatus.ACTIVE);
 
-        return sessionRepository.save(session);
+            return save(user, session);
+        });
     }
 
-    @Transactional
     public ReadingSession stopSession(User user, Instant endTime, Integer endPage) {
-        ReadingSession session = sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(user,
-                List.of(SessionStatus.ACTIVE, SessionStatus.PAUSED))
-                .orElseThrow(() -> new ResourceNotFoundException("No active reading session found"));
+        return transition(user, () -> {
+            ReadingSession session = findOpenSession(user)
+                    .orElseThrow(() -> new ResourceNotFoundException("No active reading session found"));
 
-        Instant safeEndTime = endTime != null ? endTime : Instant.now();
+            Instant safeEndTime = endTime != null ? endTime : Instant.now();
 
-        accumulatePausedTime(session, safeEndTime);
+            accumulatePausedTime(session, safeEndTime);
 
-        session.setPausedAt(null);
-        session.setEndTime(safeEndTime);
-        session.setEndPage(endPage);
-        session.setStatus(SessionStatus.COMPLETED);
+            session.setPausedAt(null);
+            session.setEndTime(safeEndTime);
+            session.setEndPage(endPage);
+            session.setStatus(SessionStatus.COMPLETED);
 
-        if (endPage != null) {
-            Book book = session.getBook();
+            if (endPage != null) {
+                Book book = session.getBook();
 
-            int startPage = book.getCurrentPage() != null ? book.getCurrentPage() : 0;
-            int pagesRead = endPage - startPage;
-            if (pagesRead < 0)
-                pagesRead = 0;
+                int startPage = book.getCurrentPage() != null ? book.getCurrentPage() : 0;
+                int pagesRead = endPage - startPage;
+                if (pagesRead < 0)
+                    pagesRead = 0;
 
-            session.setPagesRead(pagesRead);
+                session.setPagesRead(pagesRead);
+                bookProgressService.recordPagesRead(book, pagesRead, safeEndTime);
 
-            bookProgressService.updateProgress(book, endPage);
-        }
+                bookProgressService.updateProgress(book, endPage);
+            }
+            dayStatsService.sessionCompleted(session);
 
-        return sessionRepository.save(session);
+            return save(user, session);
+        });
     }
 
-    public Optional<ReadingSession> getActiveSession(User user) {
-        return sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(user,
-                List.of(SessionStatus.ACTIVE, SessionStatus.PAUSED));
+    /** Served from {@link ActiveSessionRegistry}; only the first call per user reaches the database. */
+    public Optional<ActiveSession> getActiveSession(User user) {
+        return activeSessions.get(user.getId(), () -> sessionRepository
+                .findFirstByUserAndStatusInOrderByStartTimeDesc(user, OPEN_STATUSES)
+                .map(ActiveSession::of));
     }
 
-    @Transactional
     public ReadingSession pauseSession(User user) {
-        ReadingSession session = sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(user,
-                List.of(SessionStatus.ACTIVE))
-                .orElseThrow(() -> new IllegalSessionStateException("No active session found to pause"));
-
-        session.setStatus(SessionStatus.PAUSED);
-        session.setPausedAt(Instant.now());
-        return sessionRepository.save(session);
+        return transition(user, () -> {
+            ReadingSession session = findOpenSession(user)
+                    .filter(open -> open.getStatus() == SessionStatus.ACTIVE)
+                    .orElseThrow(() -> new IllegalSessionStateException("No active session found to pause"));
+
+            session.setStatus(SessionStatus.PAUSED);
+            session.setPausedAt(Instant.now());
+            return save(user, session);
+        });
     }
 
-    @Transactional
     public ReadingSession resumeSession(User user) {
-        ReadingSession session = sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(user,
-                List.of(SessionStatus.PAUSED))
-                .orElseThrow(() -> new IllegalSessionStateException("No paused session found to resume"));
-
-        Instant now = Instant.now();
-        accumulatePausedTime(session, now);
-        session.setStatus(SessionStatus.ACTIVE);
-        session.setPausedAt(null);
-        return sessionRepository.save(session);
+        return transition(user, () -> {
+            ReadingSession session = findOpenSession(user)
+                    .filter(open -> open.getStatus() == SessionStatus.PAUSED)
+                    .orElseThrow(() -> new IllegalSessionStateException("No paused session found to resume"));
+
+            Instant now = Instant.now();
+            accumulatePausedTime(session, now);
+            session.setStatus(SessionStatus.ACTIVE);
+            session.setPausedAt(null);
+            return save(user, session);
+        });
     }
 
-    @Transactional
     public ReadingSession excludeTime(User user, Long millis) {
         if (millis == null || millis < 0) {
             throw new IllegalArgumentException("Invalid millis");
         }
-        ReadingSession session = sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(user,
-                List.of(SessionStatus.ACTIVE))
-                .orElseThrow(() -> new IllegalSessionStateException("No active session found"));
-
-        session.setPausedMillis(session.getPausedMillisOrZero() + millis);
-        return sessionRepository.save(session);
+        return transition(user, () -> {
+            ReadingSession session = findOpenSession(user)
+                    .filter(open -> open.getStatus() == SessionStatus.ACTIVE)
+                    .orElseThrow(() -> new IllegalSessionStateException("No active session found"));
+
+            session.setPausedMillis(session.getPausedMillisOrZero() + millis);
+            return save(user, session);
+        });
     }
 
     public List<ReadingSession> getSessionsByBook(User user, Long bookId) {
@@ -131,8 +151,62 @@ public class ReadingSessionService {
     }
 
     @Transactional
-    public void deleteSessionsByBook(User user, Book book) {
-        sessionRepository.deleteByUserAndBook(user, book);
+    public int deleteSessionsByBook(User user, Long bookId) {
+        activeSessions.invalidate(user.getId());
+        dayStatsService.bookRemoved(user, bookId);
+        int deleted = sessionRepository.bulkDeleteByUserAndBookId(user, bookId);
+        eventPublisher.publishEvent(new BookSessionsDeleted(user.getId(), bookId));
+        return deleted;
+    }
+
+    @Transactional
+    public int deleteAllSessions(User user) {
+        activeSessions.invalidate(user.getId());
+        dayStatsService.libraryRemoved(user);
+        int deleted = sessionRepository.bulkDeleteByUser(user);
+        eventPublisher.publishEvent(new ActiveSessionChanged(user.getId(), Optional.empty()));
+        return deleted;
+    }
+
+    /**
+     * Runs a state transition holding the user's lock, in a transaction that commits before the
+     * lock is released, so that the next transition for the user starts from its outcome. Nested
+     * transitions (a start that stops or resumes) re-enter the lock and join the transaction. A
+     * unique-key violation on {@code open_user_id} means another instance won the race.
+     */
+    private <T> T transition(User user, Supplier<T> action) {
+        return sessionLocks.withUserLock(user.getId(), () -> {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (DataIntegrityViolationException e) {
+                activeSessions.invalidate(user.getId());
+                throw new IllegalSessionStateException("Session was changed concurrently, please retry", e);
+            }
+        });
+    }
+
+    /**
+     * The user's open session. A user the registry knows to have none costs no query; a known
+     * session is loaded by id, which is free when it is already in the persistence context (as on
+     * a restart, where {@link #startSession} and the nested {@link #stopSession} both look it up).
+     */
+    private Optional<ReadingSession> findOpenSession(User user) {
+        Optional<ActiveSession> known = activeSessions.getIfPresent(user.getId());
+        if (known != null) {
+            return known.flatMap(open -> sessionRepository.findById(open.id()))
+                    .filter(session -> session.getStatus() != SessionStatus.COMPLETED);
+        }
+        Optional<ReadingSession> loaded = sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(user,
+                OPEN_STATUSES);
+        activeSessions.loaded(user.getId(), loaded.map(ActiveSession::of));
+        return loaded;
+    }
+
+    private ReadingSession save(User user, ReadingSession session) {
+        ReadingSession saved = sessionRepository.save(session);
+        activeSessions.saved(user.getId(), saved);
+        eventPublisher.publishEvent(new ActiveSessionChanged(user.getId(), ActiveSession.ifOpen(saved)));
+        return saved;
     }
 
     private void accumulatePausedTime(ReadingSession session, Instant endTime) {
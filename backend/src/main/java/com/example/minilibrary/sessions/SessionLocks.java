@@ -0,0 +1,46 @@
+package com.example.minilibrary.sessions;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped per-user locks serializing each user's session state transitions within this
+ * instance, and the writes that must not interleave with them (such as back-fills of what a stop
+ * updates). A fixed number of stripes bounds memory regardless of the number of users; users
+ * sharing a stripe only wait for each other briefly. {@link ReentrantLock} rather than
+ * {@code synchronized} so that waiting virtual threads do not pin their carrier. Across
+ * instances the unique {@code open_user_id} column is the backstop.
+ */
+@Component
+public class SessionLocks {
+
+    private final ReentrantLock[] stripes;
+
+    SessionLocks(@Value("${app.sessions.lock-stripes:256}") int stripeCount) {
+        // power of two, so that a mask picks the stripe
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /** Runs the action holding the user's lock; reentrant, so nested transitions do not deadlock. */
+    public <T> T withUserLock(Long userId, Supplier<T> action) {
+        ReentrantLock lock = stripeFor(userId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    ReentrantLock stripeFor(Long userId) {
+        int hash = userId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.minilibrary.sessions.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+
+public record ReadingDayDto(
+                @JsonFormat(shape = JsonFormat.Shape.STRING) LocalDate day,
+                long pages,
+                long activeMillis) {
+}
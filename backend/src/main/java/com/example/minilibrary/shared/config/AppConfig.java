@@ -1,20 +1,52 @@
 package com.example.minilibrary.shared.config;
 
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
 import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
+@Slf4j
 public class AppConfig {
 
+    static final String POOL_SIZE_PROPERTY = "jdk.httpclient.connectionPoolSize";
+    static final String KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+
+    /**
+     * Non-blocking client for outbound discovery calls: HTTP/2 where the server offers it (one
+     * multiplexed connection), pooled keep-alive HTTP/1.1 connections otherwise. The JDK reads the
+     * pool settings once per JVM from {@code -Djdk.httpclient.*} flags (set in the Dockerfile), so
+     * they are only logged here.
+     */
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder
-                .setConnectTimeout(Duration.ofSeconds(5))
-                .setReadTimeout(Duration.ofSeconds(10))
+    public HttpClient googleBooksHttpClient(@Qualifier("discoveryExecutor") ExecutorService discoveryExecutor,
+            @Value("${app.discovery.http.connect-timeout-ms:5000}") long connectTimeoutMillis) {
+        log.info("Outbound HTTP pool: {}={}, {}={}",
+                POOL_SIZE_PROPERTY, System.getProperty(POOL_SIZE_PROPERTY, "JDK default"),
+                KEEP_ALIVE_PROPERTY, System.getProperty(KEEP_ALIVE_PROPERTY, "JDK default"));
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(discoveryExecutor)
                 .build();
     }
+
+    /** Runs the discovery HTTP client's response handling and dependent stages. */
+    @Bean(destroyMethod = "close")
+    public ExecutorService discoveryExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /** Writes active-session stream events, which may block on slow clients. */
+    @Bean(destroyMethod = "close")
+    public ExecutorService sessionStreamExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
 }
@@ -4,4 +4,8 @@ public class IllegalSessionStateException extends RuntimeException {
     public IllegalSessionStateException(String message) {
         super(message);
     }
+
+    public IllegalSessionStateException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
@@ -0,0 +1,54 @@
+package com.example.minilibrary.shared.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Checked before every outbound HTTP call: a call made while the thread holds a database
+ * connection (a transaction, or an EntityManager bound for the request) keeps that pooled
+ * connection busy for the whole round trip. Violations are counted and logged; with
+ * {@code app.outbound-guard.fail-fast} (on in tests) they throw instead.
+ */
+@Component
+@Slf4j
+public class OutboundCallGuard {
+
+    static final String VIOLATIONS_METRIC = "http.outbound.connection-held";
+
+    private final boolean failFast;
+    private final Counter violations;
+
+    public OutboundCallGuard(@Value("${app.outbound-guard.fail-fast:false}") boolean failFast,
+            MeterRegistry meterRegistry) {
+        this.failFast = failFast;
+        this.violations = Counter.builder(VIOLATIONS_METRIC)
+                .description("Outbound HTTP calls made while holding a database connection")
+                .register(meterRegistry);
+    }
+
+    public void checkNoConnectionHeld(String target) {
+        if (!isConnectionHeld()) {
+            return;
+        }
+        violations.increment();
+        String message = "Outbound call to " + target + " while holding a database connection";
+        if (failFast) {
+            throw new IllegalStateException(message);
+        }
+        log.warn(message);
+    }
+
+    static boolean isConnectionHeld() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return true;
+        }
+        return TransactionSynchronizationManager.getResourceMap().values().stream()
+                .anyMatch(resource -> resource instanceof EntityManagerHolder || resource instanceof ConnectionHolder);
+    }
+}
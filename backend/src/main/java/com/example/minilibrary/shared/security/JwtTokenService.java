@@ -17,6 +17,9 @@ import java.util.Date;
 @Service
 public class JwtTokenService {
 
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+
     private final JWSSigner signer;
     private final long ttlSeconds;
 
@@ -35,7 +38,8 @@ public class JwtTokenService {
             Instant now = Instant.now();
             JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
                     .subject(user.getEmail())
-                    .claim("role", user.getRole().name())
+                    .claim(USER_ID_CLAIM, user.getId())
+                    .claim(ROLE_CLAIM, user.getRole().name())
                     .issueTime(Date.from(now))
                     .expirationTime(Date.from(now.plusSeconds(ttlSeconds)))
                     .build();
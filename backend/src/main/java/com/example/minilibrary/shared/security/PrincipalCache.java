@@ -0,0 +1,56 @@
+package com.example.minilibrary.shared.security;
+
+import com.example.minilibrary.auth.Role;
+import com.example.minilibrary.auth.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-based cache of authenticated users keyed by JWT subject (email). Only the id,
+ * email and role are kept, never the entity with its password hash; callers get an id-only
+ * {@link User#reference}. Hit/miss statistics are published under the cache name {@code principals}.
+ */
+@Component
+public class PrincipalCache {
+
+    static final String CACHE_NAME = "principals";
+
+    private final Cache<String, CachedPrincipal> cache;
+
+    public PrincipalCache(@Value("${app.auth.principal-cache.max-size:10000}") long maxSize,
+            @Value("${app.auth.principal-cache.ttl-seconds:300}") long ttlSeconds,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public User get(String subject, Function<String, User> loader) {
+        CachedPrincipal principal = cache.get(subject, key -> CachedPrincipal.of(loader.apply(key)));
+        return User.reference(principal.id(), principal.email(), principal.role());
+    }
+
+    /** Drops the user's entry under whichever subject it was cached, which may be a since-changed email. */
+    public void evictUser(Long userId) {
+        if (userId != null) {
+            cache.asMap().values().removeIf(principal -> userId.equals(principal.id()));
+        }
+    }
+
+    private record CachedPrincipal(Long id, String email, Role role) {
+
+        static CachedPrincipal of(User user) {
+            return new CachedPrincipal(user.getId(), user.getEmail(), user.getRole());
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.example.minilibrary.shared.security;
 
 import com.example.minilibrary.auth.AuthService;
+import com.example.minilibrary.auth.Role;
 import com.example.minilibrary.auth.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.MethodParameter;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
@@ -18,6 +20,7 @@ import org.springframework.web.method.support.ModelAndViewContainer;
 public class UserArgumentResolver implements HandlerMethodArgumentResolver {
 
     private final AuthService authService;
+    private final PrincipalCache principalCache;
 
     @Override
     public boolean supportsParameter(MethodParameter parameter) {
@@ -33,7 +36,27 @@ public class UserArgumentResolver implements HandlerMethodArgumentResolver {
             throw new AuthenticationCredentialsNotFoundException("User not authenticated");
         }
 
+        if (auth.getPrincipal() instanceof Jwt jwt) {
+            User reference = fromClaims(jwt);
+            if (reference != null) {
+                return reference;
+            }
+        }
+
         String email = auth.getName();
-        return authService.getUserByEmail(email);
+        return principalCache.get(email, authService::getUserByEmail);
+    }
+
+    private User fromClaims(Jwt jwt) {
+        Object userId = jwt.getClaims().get(JwtTokenService.USER_ID_CLAIM);
+        String role = jwt.getClaimAsString(JwtTokenService.ROLE_CLAIM);
+        if (!(userId instanceof Number id) || role == null) {
+            return null;
+        }
+        try {
+            return User.reference(id.longValue(), jwt.getSubject(), Role.valueOf(role));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,40 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates the pooled sequence for a table whose ids used to come from IDENTITY. Hibernate's
+ * pooled optimizer hands out the block of ids ending at the value it reads, so the sequence
+ * starts one allocation above the current max id; starting at {@code max(id) + 1} would
+ * reissue existing ids.
+ */
+abstract class PooledSequenceMigration extends BaseJavaMigration {
+
+    static final int ALLOCATION_SIZE = 50;
+
+    private final String table;
+    private final String sequence;
+
+    PooledSequenceMigration(String table, String sequence) {
+        this.table = table;
+        this.sequence = sequence;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        try (Statement statement = context.getConnection().createStatement()) {
+            long maxId;
+            try (ResultSet result = statement.executeQuery("select coalesce(max(id), 0) from " + table)) {
+                result.next();
+                maxId = result.getLong(1);
+            }
+            statement.execute("create sequence " + sequence + " start with " + (maxId + ALLOCATION_SIZE)
+                    + " increment by " + ALLOCATION_SIZE);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package db.migration;
+
+/** Book ids come from {@code books_seq} so that imports insert in JDBC batches. */
+public class V3__Books_id_sequence extends PooledSequenceMigration {
+
+    public V3__Books_id_sequence() {
+        super("books", "books_seq");
+    }
+}
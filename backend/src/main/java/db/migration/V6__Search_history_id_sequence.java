@@ -0,0 +1,9 @@
+package db.migration;
+
+/** search_history ids come from {@code search_history_seq} so that logged searches insert in JDBC batches. */
+public class V6__Search_history_id_sequence extends PooledSequenceMigration {
+
+    public V6__Search_history_id_sequence() {
+        super("search_history", "search_history_seq");
+    }
+}
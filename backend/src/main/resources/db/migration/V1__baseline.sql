@@ -0,0 +1,64 @@
+-- Schema as created by Hibernate before migrations were introduced. Existing databases are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+create table users (
+    enabled boolean not null,
+    id bigserial not null,
+    email varchar(255) not null unique,
+    password varchar(255) not null,
+    role varchar(255) check (role in ('USER','ADMIN')),
+    primary key (id)
+);
+
+create table books (
+    completed boolean,
+    current_page integer,
+    page_count integer,
+    reading_goal_pages integer,
+    start_date date,
+    id bigserial not null,
+    user_id bigint not null,
+    categories varchar(500),
+    author varchar(255),
+    cover_url varchar(255),
+    isbn varchar(255),
+    publish_date varchar(255),
+    reading_goal_type varchar(255) check (reading_goal_type in ('WEEKLY','MONTHLY')),
+    title varchar(255),
+    primary key (id),
+    unique (user_id, isbn)
+);
+
+create table reading_session (
+    end_page integer,
+    pages_read integer,
+    book_id bigint not null,
+    end_time timestamp(6) with time zone,
+    id bigserial not null,
+    paused_at timestamp(6) with time zone,
+    paused_millis bigint default 0,
+    start_time timestamp(6) with time zone not null,
+    user_id bigint not null,
+    status varchar(255) not null check (status in ('ACTIVE','PAUSED','COMPLETED')),
+    primary key (id)
+);
+
+create table search_history (
+    id bigserial not null,
+    timestamp timestamp(6) not null,
+    user_id bigint not null,
+    query varchar(255) not null,
+    primary key (id)
+);
+
+create index idx_book_user on books (user_id);
+create index idx_book_isbn on books (isbn);
+create index idx_session_user on reading_session (user_id);
+create index idx_session_book on reading_session (book_id);
+create index idx_session_user_status on reading_session (user_id, status);
+create index idx_search_user_timestamp on search_history (user_id, timestamp);
+
+alter table if exists books add constraint FKcykkh3hxh89ammmwch0gw5o1s foreign key (user_id) references users;
+alter table if exists reading_session add constraint FKe7q1s18t46tx9yfq4de4u4qin foreign key (book_id) references books;
+alter table if exists reading_session add constraint FKlp523vn18qmt8ukl5ppcv0wns foreign key (user_id) references users;
+alter table if exists search_history add constraint FK8ll2cxj6i83mnrcyxrxl4b7dm foreign key (user_id) references users;
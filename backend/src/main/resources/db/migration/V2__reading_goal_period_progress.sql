@@ -0,0 +1,14 @@
+-- Per-period goal counters on books (filled by ReadingGoalProgressBackfill).
+alter table books add column weekly_pages_read integer;
+alter table books add column weekly_period_start date;
+alter table books add column monthly_pages_read integer;
+alter table books add column monthly_period_start date;
+
+-- Users whose finished sessions predate the counters; ReadingGoalProgressBackfill removes each once done.
+create table reading_goal_progress_pending (
+    user_id bigint not null,
+    primary key (user_id)
+);
+
+insert into reading_goal_progress_pending (user_id)
+select distinct user_id from reading_session where pages_read is not null;
@@ -0,0 +1,16 @@
+-- Normalized book categories (filled from books.categories by BookCategoryBackfill).
+create sequence book_category_seq start with 1 increment by 50;
+
+create table book_category (
+    book_id bigint not null,
+    id bigint not null,
+    user_id bigint not null,
+    name varchar(500) not null,
+    primary key (id)
+);
+
+create index idx_book_category_user_name on book_category (user_id, name);
+create index idx_book_category_book on book_category (book_id);
+
+alter table if exists book_category add constraint FK7k0c5mr0rx89i8jy5ges23jpe foreign key (book_id) references books;
+alter table if exists book_category add constraint FKt6eay16p34n4aos4u3utvgirp foreign key (user_id) references users;
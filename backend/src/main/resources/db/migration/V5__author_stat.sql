@@ -0,0 +1,22 @@
+-- Per-user author counters (filled by AuthorStatBackfill).
+create table author_stat (
+    book_count bigint not null,
+    id bigserial not null,
+    user_id bigint not null,
+    author varchar(255) not null,
+    primary key (id),
+    unique (user_id, author)
+);
+
+create index idx_author_stat_user_count on author_stat (user_id, book_count desc);
+
+alter table if exists author_stat add constraint FKovuh8qg05ke7nu88ptrd0h9hj foreign key (user_id) references users;
+
+-- Users whose books predate the counters; AuthorStatBackfill removes each once done.
+create table author_stat_pending (
+    user_id bigint not null,
+    primary key (user_id)
+);
+
+insert into author_stat_pending (user_id)
+select distinct user_id from books where user_id is not null;
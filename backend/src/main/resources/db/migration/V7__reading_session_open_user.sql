@@ -0,0 +1,3 @@
+-- At most one open session per user (filled by OpenSessionBackfill; null values never collide).
+alter table reading_session add column open_user_id bigint;
+alter table reading_session add constraint uk_session_open_user unique (open_user_id);
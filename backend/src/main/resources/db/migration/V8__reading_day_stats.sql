@@ -0,0 +1,27 @@
+-- Daily reading rollup (filled by ReadingDayStatBackfill).
+create sequence reading_day_stats_seq start with 1 increment by 50;
+
+create table reading_day_stats (
+    stat_day date not null,
+    active_millis bigint not null,
+    book_id bigint not null,
+    id bigint not null,
+    pages bigint not null,
+    user_id bigint not null,
+    primary key (id),
+    constraint uk_day_stats_user_book_day unique (user_id, book_id, stat_day)
+);
+
+create index idx_day_stats_user_day on reading_day_stats (user_id, stat_day);
+
+alter table if exists reading_day_stats add constraint FK4vpfap9ecgxt3y530wyg6sixd foreign key (book_id) references books;
+alter table if exists reading_day_stats add constraint FK2dfvorw4bs1boxcffdvu55xbm foreign key (user_id) references users;
+
+-- Users whose history predates the rollup; ReadingDayStatBackfill removes each once done.
+create table reading_day_stats_pending (
+    user_id bigint not null,
+    primary key (user_id)
+);
+
+insert into reading_day_stats_pending (user_id)
+select distinct user_id from reading_session where status = 'COMPLETED' and end_time is not null;
@@ -0,0 +1,55 @@
+package com.example.minilibrary.auth;
+
+import com.example.minilibrary.shared.security.PrincipalCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheEvictionListenerTest {
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @InjectMocks
+    private UserCacheEvictionListener listener;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evict_ShouldInvalidateCachedPrincipalOfThatUser() {
+        User user = new User("test@example.com", "password", Role.USER);
+        user.setId(5L);
+
+        listener.evict(user);
+
+        verify(principalCache).evictUser(5L);
+    }
+
+    @Test
+    void evict_ShouldInvalidateAgainAfterTransactionCompletes() {
+        User user = new User("test@example.com", "password", Role.USER);
+        user.setId(5L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        listener.evict(user);
+        verify(principalCache).evictUser(5L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        verify(principalCache, times(2)).evictUser(5L);
+    }
+}
@@ -52,4 +52,14 @@ class UserTest {
         assertEquals(Role.USER, user.getRole());
         assertFalse(user.isEnabled());
     }
+
+    @Test
+    void reference_ShouldCarryIdentityWithoutCredentials() {
+        User user = User.reference(5L, "ref@test.com", Role.USER);
+
+        assertEquals(5L, user.getId());
+        assertEquals("ref@test.com", user.getEmail());
+        assertEquals(Role.USER, user.getRole());
+        assertNull(user.getPassword());
+    }
 }
@@ -0,0 +1,61 @@
+package com.example.minilibrary.books;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthorStatBackfillTest {
+
+    @Mock
+    private AuthorStatRepository authorStatRepository;
+    @Mock
+    private PendingAuthorStatBackfillRepository pendingRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AuthorStatBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        backfill = new AuthorStatBackfill(authorStatRepository, pendingRepository,
+                new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void backfill_ShouldRebuildCountersOfPendingUsers() {
+        when(pendingRepository.findAllUserIds()).thenReturn(List.of(1L, 2L));
+        when(authorStatRepository.initializeForUser(any())).thenReturn(2);
+
+        backfill.backfill();
+
+        // counters written since the counters shipped are rebuilt, then the marker goes
+        InOrder order = inOrder(authorStatRepository, pendingRepository);
+        order.verify(authorStatRepository).bulkDeleteByUser(argThat(user -> user.getId().equals(1L)));
+        order.verify(authorStatRepository).initializeForUser(argThat(user -> user.getId().equals(1L)));
+        order.verify(pendingRepository).deleteById(1L);
+        verify(pendingRepository).deleteById(2L);
+        // one transaction per user
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void backfill_ShouldDoNothing_WhenNoUserIsPending() {
+        when(pendingRepository.findAllUserIds()).thenReturn(List.of());
+
+        backfill.backfill();
+
+        verifyNoInteractions(authorStatRepository, transactionManager);
+    }
+}
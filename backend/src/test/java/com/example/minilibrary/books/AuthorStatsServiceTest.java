@@ -0,0 +1,121 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthorStatsServiceTest {
+
+    @Mock
+    private AuthorStatRepository authorStatRepository;
+    @InjectMocks
+    private AuthorStatsService authorStatsService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1L);
+    }
+
+    @Test
+    void getTopAuthors_ShouldUseBoundedQuery() {
+        when(authorStatRepository.findTopAuthorsByUser(user, Limit.of(3))).thenReturn(List.of("A"));
+
+        assertEquals(List.of("A"), authorStatsService.getTopAuthors(user, 3));
+    }
+
+    @Test
+    void bookAdded_ShouldIncrementExistingCounter() {
+        when(authorStatRepository.adjust(user, "Tolkien", 1)).thenReturn(1);
+
+        authorStatsService.bookAdded(user, "Tolkien");
+
+        verify(authorStatRepository, never()).insertIfAbsent(any(), any(), anyLong());
+    }
+
+    @Test
+    void bookAdded_ShouldCreateCounter_WhenAuthorIsNew() {
+        when(authorStatRepository.adjust(user, "Tolkien", 1)).thenReturn(0);
+        when(authorStatRepository.insertIfAbsent(1L, "Tolkien", 1)).thenReturn(1);
+
+        authorStatsService.bookAdded(user, "Tolkien");
+
+        verify(authorStatRepository, times(1)).adjust(user, "Tolkien", 1);
+    }
+
+    @Test
+    void bookAdded_ShouldIncrementAgain_WhenConcurrentWriteCreatedCounter() {
+        when(authorStatRepository.adjust(user, "Tolkien", 1)).thenReturn(0, 1);
+        when(authorStatRepository.insertIfAbsent(1L, "Tolkien", 1)).thenReturn(0);
+
+        authorStatsService.bookAdded(user, "Tolkien");
+
+        verify(authorStatRepository, times(2)).adjust(user, "Tolkien", 1);
+    }
+
+    @Test
+    void bookAdded_ShouldIgnoreMissingAuthor() {
+        authorStatsService.bookAdded(user, null);
+        authorStatsService.bookAdded(user, " ");
+
+        verifyNoInteractions(authorStatRepository);
+    }
+
+    @Test
+    void booksAdded_ShouldIncrementOncePerAuthor() {
+        when(authorStatRepository.adjust(eq(user), anyString(), anyLong())).thenReturn(1);
+
+        authorStatsService.booksAdded(user, List.of(book("A"), book("B"), book("A"), book(null), book("")));
+
+        verify(authorStatRepository).adjust(user, "A", 2);
+        verify(authorStatRepository).adjust(user, "B", 1);
+        verifyNoMoreInteractions(authorStatRepository);
+    }
+
+    @Test
+    void bookRemoved_ShouldDecrementAndDropEmptyCounters() {
+        when(authorStatRepository.decrementForBook(user, 5L)).thenReturn(1);
+
+        authorStatsService.bookRemoved(user, 5L);
+
+        verify(authorStatRepository).deleteEmptyByUser(user);
+    }
+
+    @Test
+    void bookRemoved_ShouldSkipCleanup_WhenNothingDecremented() {
+        when(authorStatRepository.decrementForBook(user, 5L)).thenReturn(0);
+
+        authorStatsService.bookRemoved(user, 5L);
+
+        verify(authorStatRepository, never()).deleteEmptyByUser(any());
+    }
+
+    @Test
+    void libraryRemoved_ShouldDeleteAllCounters() {
+        authorStatsService.libraryRemoved(user);
+
+        verify(authorStatRepository).bulkDeleteByUser(user);
+    }
+
+    private Book book(String author) {
+        Book book = new Book();
+        book.setAuthor(author);
+        return book;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.minilibrary.books;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookCategoryBackfillTest {
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private BookCategoryBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        backfill = new BookCategoryBackfill(bookRepository, transactionTemplate, 2);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation
+                .<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+    }
+
+    @Test
+    void backfill_ShouldWalkBooksByIdInChunks() {
+        Book first = book(1L, "Fiction");
+        Book second = book(5L, "Drama, Poetry");
+        Book third = book(9L, " , ");
+        when(bookRepository.findWithoutCategoryEntries(0L, Limit.of(2))).thenReturn(List.of(first, second));
+        when(bookRepository.findWithoutCategoryEntries(5L, Limit.of(2))).thenReturn(List.of(third));
+        when(bookRepository.findWithoutCategoryEntries(9L, Limit.of(2))).thenReturn(List.of());
+
+        backfill.backfill();
+
+        assertEquals(1, first.getCategoryEntries().size());
+        assertEquals(2, second.getCategoryEntries().size());
+        assertEquals(0, third.getCategoryEntries().size());
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+
+    @Test
+    void backfill_ShouldStop_WhenNothingToDo() {
+        when(bookRepository.findWithoutCategoryEntries(0L, Limit.of(2))).thenReturn(List.of());
+
+        backfill.backfill();
+
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    private Book book(Long id, String categories) {
+        Book book = new Book();
+        book.setId(id);
+        book.setCategories(categories);
+        return book;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.minilibrary.books;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookCategoryTest {
+
+    @Test
+    void parse_ShouldSplitTrimAndDeduplicate() {
+        assertEquals(List.of("Thriller", "Krimi"), BookCategory.parse(" Thriller , Krimi,Thriller, "));
+    }
+
+    @Test
+    void parse_ShouldReturnEmpty_ForMissingCategories() {
+        assertEquals(List.of(), BookCategory.parse(null));
+        assertEquals(List.of(), BookCategory.parse(" , "));
+    }
+}
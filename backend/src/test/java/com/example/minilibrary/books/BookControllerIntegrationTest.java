@@ -3,21 +3,40 @@ package com.example.minilibrary.books;
 import com.example.minilibrary.books.dto.CreateBookRequest;
 
 import com.example.minilibrary.books.Book;
+import com.example.minilibrary.auth.Role;
 import com.example.minilibrary.auth.User;
 
 import com.example.minilibrary.books.BookRepository;
+import com.example.minilibrary.sessions.ReadingDayStatRepository;
+import com.example.minilibrary.sessions.ReadingSession;
+import com.example.minilibrary.sessions.ReadingSessionRepository;
+import com.example.minilibrary.sessions.SessionStatus;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
-
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -36,13 +55,54 @@ public class BookControllerIntegrationTest {
         @Autowired
         private com.example.minilibrary.auth.UserRepository userRepository;
 
+        @Autowired
+        private ReadingSessionRepository sessionRepository;
+
+        @Autowired
+        private ReadingDayStatRepository dayStatRepository;
+
         @Autowired
         private ObjectMapper objectMapper;
 
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        @Autowired
+        private ReadingGoalProgressBackfill goalProgressBackfill;
+
+        @Autowired
+        private PendingGoalProgressBackfillRepository pendingGoalProgressRepository;
+
+        @Autowired
+        private BookCategoryRepository bookCategoryRepository;
+
+        @Autowired
+        private BookCategoryBackfill bookCategoryBackfill;
+
+        @Autowired
+        private AuthorStatsService authorStatsService;
+
+        @Autowired
+        private AuthorStatRepository authorStatRepository;
+
+        @Autowired
+        private AuthorStatBackfill authorStatBackfill;
+
+        @Autowired
+        private PendingAuthorStatBackfillRepository pendingAuthorStatRepository;
+
+        @Autowired
+        private TransactionTemplate transactionTemplate;
+
         private User defaultUser;
 
         @BeforeEach
         void setUp() {
+                dayStatRepository.deleteAll();
+                sessionRepository.deleteAll();
+                authorStatRepository.deleteAll();
+                pendingAuthorStatRepository.deleteAll();
+                pendingGoalProgressRepository.deleteAll();
                 bookRepository.deleteAll();
 
                 userRepository.deleteAll();
@@ -102,6 +162,136 @@ public class BookControllerIntegrationTest {
                                 .andExpect(jsonPath("$.content[0].title", is("My Book")));
         }
 
+        @Test
+        void shouldPageBooksInDatabase_WithoutLoadingSessions() throws Exception {
+                // Given: more books than one page, each with reading sessions
+                for (int i = 0; i < 5; i++) {
+                        Book book = createBook("Paged Book " + i, "555-00" + i, "Paged Author");
+                        addCompletedSession(book, 10);
+                        addCompletedSession(book, 5);
+                }
+                Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+                statistics.clear();
+
+                // When / Then: goal progress comes from the book row, so no session is loaded
+                mockMvc.perform(get("/api/books").param("page", "1").param("size", "2"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content", hasSize(2)))
+                                .andExpect(jsonPath("$.content[0].title", is("Paged Book 2")))
+                                .andExpect(jsonPath("$.content[1].title", is("Paged Book 3")))
+                                .andExpect(jsonPath("$.totalElements", is(5)));
+
+                assertEquals(2, statistics.getEntityStatistics(Book.class.getName()).getLoadCount());
+                assertEquals(0, statistics.getEntityStatistics(ReadingSession.class.getName()).getLoadCount());
+        }
+
+        @Test
+        void shouldScrollBooksByCursor_WithOneQueryPerPage() throws Exception {
+                // Given: a mix of open and completed books, listed open-first
+                for (int i = 0; i < 7; i++) {
+                        Book book = createBook("Scroll Book " + i, "777-00" + i, "Scroll Author");
+                        book.setCompleted(i % 3 == 0);
+                        bookRepository.save(book);
+                }
+                mockMvc.perform(get("/api/books/owned")); // warm the principal cache
+                Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+                List<String> titles = new ArrayList<>();
+                String cursor = null;
+
+                // When: walking every page via the continuation token
+                do {
+                        statistics.clear();
+                        var request = get("/api/books/scroll").param("size", "3");
+                        if (cursor != null) {
+                                request.param("cursor", cursor);
+                        }
+                        String body = mockMvc.perform(request)
+                                        .andExpect(status().isOk())
+                                        .andExpect(jsonPath("$.totalElements").doesNotExist())
+                                        .andReturn().getResponse().getContentAsString();
+                        Map<?, ?> slice = objectMapper.readValue(body, Map.class);
+                        ((List<?>) slice.get("content")).forEach(b -> titles.add((String) ((Map<?, ?>) b).get("title")));
+                        cursor = (String) slice.get("nextCursor");
+
+                        // Then: each page is a single seek, no matter how deep, and no COUNT
+                        assertEquals(1, statistics.getPrepareStatementCount());
+                } while (cursor != null);
+
+                assertEquals(List.of("Scroll Book 1", "Scroll Book 2", "Scroll Book 4", "Scroll Book 5",
+                                "Scroll Book 0", "Scroll Book 3", "Scroll Book 6"), titles);
+        }
+
+        @Test
+        void shouldReturnTotalWhenRequested_AndRejectBadCursor() throws Exception {
+                createBook("Counted Book", "888-001", "Author");
+
+                mockMvc.perform(get("/api/books/scroll").param("withTotal", "true"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.totalElements", is(1)))
+                                .andExpect(jsonPath("$.hasNext", is(false)));
+
+                mockMvc.perform(get("/api/books/scroll").param("cursor", "not-a-cursor"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        void shouldAnswerConditionalGetsFromLibraryVersion() throws Exception {
+                Book book = createBook("Tagged Book", "123-456", "Author");
+                String etag = mockMvc.perform(get("/api/books/owned"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Cache-Control", containsString("no-cache")))
+                                .andReturn().getResponse().getHeader("ETag");
+                String bookEtag = mockMvc.perform(get("/api/books/" + book.getId()))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getHeader("ETag");
+                Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+                statistics.clear();
+
+                // Unchanged library: 304 for both reads, without a single statement
+                mockMvc.perform(get("/api/books/owned").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified());
+                mockMvc.perform(get("/api/books/" + book.getId()).header("If-None-Match", bookEtag))
+                                .andExpect(status().isNotModified());
+                assertEquals(0, statistics.getPrepareStatementCount());
+
+                // A stamp only answers for its own book: other ids are looked up
+                mockMvc.perform(get("/api/books/" + (book.getId() + 1000)).header("If-None-Match", bookEtag))
+                                .andExpect(status().isNotFound());
+                mockMvc.perform(get("/api/books/" + (book.getId() + 1000)).header("If-None-Match", etag))
+                                .andExpect(status().isNotFound());
+
+                // Any session mutation invalidates the stamp
+                addCompletedSession(book, 3);
+                mockMvc.perform(get("/api/books/owned").header("If-None-Match", etag))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", not(etag)))
+                                .andExpect(jsonPath("$[0]", is("123-456")));
+        }
+
+        @Test
+        void shouldBackfillGoalProgress_IncludingSessionsStoppedBeforeIt() throws Exception {
+                Book book = createBook("Goal Book", "999-001", "Author");
+                book.setReadingGoalType(ReadingGoalType.WEEKLY);
+                book.setReadingGoalPages(100);
+                bookRepository.save(book);
+                // history from before the counters, and the marker their migration left
+                addCompletedSession(book, 30);
+                pendingGoalProgressRepository.save(new PendingGoalProgressBackfill(defaultUser.getId()));
+                // a stop between the deploy and the backfill already filled the counters
+                addCompletedSession(book, 12);
+                book.setWeeklyProgress(new GoalPeriodProgress(
+                                LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), 12));
+                book.setMonthlyProgress(new GoalPeriodProgress(LocalDate.now().withDayOfMonth(1), 12));
+                bookRepository.save(book);
+
+                goalProgressBackfill.backfill();
+                goalProgressBackfill.backfill();
+
+                mockMvc.perform(get("/api/books/" + book.getId()))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.readingGoalProgress", is(42)));
+        }
+
         @Test
         void shouldUpdateBookStatus() throws Exception {
                 // Given
@@ -151,6 +341,213 @@ public class BookControllerIntegrationTest {
                                 .andExpect(status().isNotFound());
         }
 
+        @Test
+        void shouldDeleteBookWithSessions_WithoutLoadingEntities() throws Exception {
+                Book book = createBook("Bulk Book", "444-555", "Author");
+                addCompletedSession(book, 10);
+                addCompletedSession(book, 20);
+                Book kept = createBook("Kept Book", "444-556", "Author");
+                addCompletedSession(kept, 5);
+                Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+                mockMvc.perform(get("/api/books/owned")); // warm the principal cache
+                statistics.clear();
+
+                mockMvc.perform(delete("/api/books/" + book.getId()))
+                                .andExpect(status().isNoContent());
+
+                assertEquals(0, statistics.getEntityLoadCount());
+                // day stats, sessions, categories, author counter, book
+                assertEquals(5, statistics.getPrepareStatementCount());
+                assertTrue(bookRepository.findById(book.getId()).isEmpty());
+                assertEquals(1, sessionRepository.count());
+
+                mockMvc.perform(delete("/api/books/" + book.getId()))
+                                .andExpect(status().isNotFound());
+        }
+
+        @Test
+        void shouldWipeOnlyOwnLibrary_WithoutLoadingEntities() throws Exception {
+                for (int i = 0; i < 3; i++) {
+                        addCompletedSession(createBook("Wiped Book " + i, "333-00" + i, "Author"), 10);
+                }
+                User other = userRepository.save(new User("other@example.com", "password", Role.USER));
+                Book foreign = new Book();
+                foreign.setTitle("Foreign Book");
+                foreign.setIsbn("333-999");
+                foreign.setUser(other);
+                bookRepository.save(foreign);
+                Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+                mockMvc.perform(get("/api/books/owned")); // warm the principal cache
+                statistics.clear();
+
+                mockMvc.perform(delete("/api/books"))
+                                .andExpect(status().isNoContent());
+
+                assertEquals(0, statistics.getEntityLoadCount());
+                assertEquals(0, sessionRepository.count());
+                assertEquals(1, bookRepository.count());
+                assertTrue(bookRepository.findById(foreign.getId()).isPresent());
+        }
+
+        @Test
+        void shouldImportCsvInBatches() throws Exception {
+                createBook("Already Owned", "imp-0", "Author");
+                StringBuilder csv = new StringBuilder("isbn,title,authorName,pageCount\n");
+                for (int i = 0; i < 120; i++) {
+                        csv.append("imp-").append(i).append(",Imported ").append(i).append(",Author,100\n");
+                }
+                csv.append(",Missing Isbn,Author,10\n");
+                Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+                mockMvc.perform(get("/api/books/owned")); // warm the principal cache
+                statistics.clear();
+
+                mockMvc.perform(post("/api/books/import").contentType("text/csv").content(csv.toString()))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.imported", is(119)))
+                                .andExpect(jsonPath("$.duplicates", is(1)))
+                                .andExpect(jsonPath("$.invalid", is(1)))
+                                .andExpect(jsonPath("$.rows", hasSize(121)))
+                                .andExpect(jsonPath("$.rows[0].status", is("DUPLICATE")))
+                                .andExpect(jsonPath("$.rows[1].status", is("IMPORTED")))
+                                .andExpect(jsonPath("$.rows[120].line", is(122)));
+
+                assertEquals(120, bookRepository.count());
+                // one ISBN lookup, a few sequence calls and batched inserts rather than 119 inserts
+                assertTrue(statistics.getPrepareStatementCount() < 15,
+                                "statements: " + statistics.getPrepareStatementCount());
+        }
+
+        @Test
+        void shouldImportNdjson() throws Exception {
+                String ndjson = "{\"isbn\":\"nd-1\",\"title\":\"Json Book\",\"authorName\":\"Writer\"}\n";
+
+                mockMvc.perform(post("/api/books/import").contentType("application/x-ndjson").content(ndjson))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.imported", is(1)));
+
+                mockMvc.perform(get("/api/books/owned"))
+                                .andExpect(jsonPath("$", contains("nd-1")));
+        }
+
+        @Test
+        void shouldExportLibraryAndReimportIt() throws Exception {
+                Book book = createBook("Exported, Book", "exp-1", "Author");
+                addCompletedSession(book, 7);
+                createBook("Second Export", "exp-2", "Author");
+
+                MvcResult ndjson = mockMvc.perform(get("/api/books/export"))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+                String exported = mockMvc.perform(asyncDispatch(ndjson))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                                .andReturn().getResponse().getContentAsString();
+                String[] lines = exported.split("\n");
+                assertEquals(2, lines.length);
+                assertTrue(lines[0].contains("\"pagesRead\":7"));
+
+                MvcResult csv = mockMvc.perform(get("/api/books/export").param("format", "CSV")).andReturn();
+                mockMvc.perform(asyncDispatch(csv))
+                                .andExpect(status().isOk())
+                                .andExpect(content().string(containsString("exp-1,\"Exported, Book\",Author")));
+
+                // the export is valid import input
+                mockMvc.perform(delete("/api/books")).andExpect(status().isNoContent());
+                mockMvc.perform(post("/api/books/import").contentType("application/x-ndjson").content(exported))
+                                .andExpect(jsonPath("$.imported", is(2)));
+        }
+
+        @Test
+        void shouldAggregateTopCategoriesInDatabase() throws Exception {
+                String ndjson = "{\"isbn\":\"c-1\",\"title\":\"A\",\"categories\":\"Thriller, Krimi\"}\n"
+                                + "{\"isbn\":\"c-2\",\"title\":\"B\",\"categories\":\"Thriller\"}\n";
+                mockMvc.perform(post("/api/books/import").contentType("application/x-ndjson").content(ndjson))
+                                .andExpect(jsonPath("$.imported", is(2)));
+                CreateBookRequest request = new CreateBookRequest("c-3", "C", null, null, null, null,
+                                "Sci-Fi, Krimi, Thriller");
+                mockMvc.perform(post("/api/books").contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isCreated());
+
+                assertEquals(List.of("Thriller", "Krimi"),
+                                bookCategoryRepository.findTopNamesByUser(defaultUser, Limit.of(2)));
+
+                mockMvc.perform(delete("/api/books")).andExpect(status().isNoContent());
+                assertEquals(0, bookCategoryRepository.count());
+        }
+
+        @Test
+        void shouldBackfillCategoryEntriesForExistingBooks() {
+                Book book = createBook("Legacy", "legacy-1", "Author");
+                book.setCategories("History, Biography");
+                bookRepository.save(book);
+                bookCategoryRepository.deleteAll();
+
+                bookCategoryBackfill.backfill();
+
+                assertEquals(List.of("Biography", "History"),
+                                bookCategoryRepository.findTopNamesByUser(defaultUser, Limit.of(5)));
+        }
+
+        @Test
+        void shouldMaintainAuthorCountersOnWrites() throws Exception {
+                String ndjson = "{\"isbn\":\"a-1\",\"title\":\"A\",\"authorName\":\"Pratchett\"}\n"
+                                + "{\"isbn\":\"a-2\",\"title\":\"B\",\"authorName\":\"Pratchett\"}\n"
+                                + "{\"isbn\":\"a-3\",\"title\":\"C\",\"authorName\":\"Gaiman\"}\n";
+                mockMvc.perform(post("/api/books/import").contentType("application/x-ndjson").content(ndjson))
+                                .andExpect(jsonPath("$.imported", is(3)));
+                CreateBookRequest request = new CreateBookRequest("a-4", "D", "Gaiman", null, null, null, null);
+                String created = mockMvc.perform(post("/api/books").contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andReturn().getResponse().getContentAsString();
+                Number createdId = com.jayway.jsonpath.JsonPath.read(created, "$.id");
+                CreateBookRequest other = new CreateBookRequest("a-5", "E", "Adams", null, null, null, null);
+                mockMvc.perform(post("/api/books").contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(other)));
+
+                assertEquals(List.of("Gaiman", "Pratchett"), authorStatsService.getTopAuthors(defaultUser, 2));
+
+                mockMvc.perform(delete("/api/books/" + createdId)).andExpect(status().isNoContent());
+                assertEquals(List.of("Pratchett", "Adams", "Gaiman"),
+                                authorStatsService.getTopAuthors(defaultUser, 5));
+
+                mockMvc.perform(delete("/api/books")).andExpect(status().isNoContent());
+                assertEquals(0, authorStatRepository.count());
+        }
+
+        @Test
+        void shouldBackfillAuthorCounters_IncludingBooksWrittenBeforeIt() {
+                // books from before the counters, and the marker their migration left
+                createBook("Old 1", "old-1", "Le Guin");
+                createBook("Old 2", "old-2", "Le Guin");
+                createBook("Old 3", "old-3", null);
+                pendingAuthorStatRepository.save(new PendingAuthorStatBackfill(defaultUser.getId()));
+                // a book written between the deploy and the backfill already created a counter
+                createBook("New", "new-1", "Butler");
+                authorStatsService.bookAdded(defaultUser, "Butler");
+
+                authorStatBackfill.backfill();
+                authorStatBackfill.backfill();
+
+                assertEquals(List.of("Le Guin", "Butler"), authorStatsService.getTopAuthors(defaultUser, 5));
+                assertEquals(2, authorStatRepository.count());
+                assertEquals(0, pendingAuthorStatRepository.count());
+        }
+
+        @Test
+        void shouldKeepCountingAuthor_WhenItsCounterInsertLosesTheRace() {
+                transactionTemplate.executeWithoutResult(status -> {
+                        authorStatsService.bookAdded(defaultUser, "Le Guin");
+                        // what a concurrent first book by the same author runs into
+                        assertEquals(0, authorStatRepository.insertIfAbsent(defaultUser.getId(), "Le Guin", 1));
+                        authorStatsService.bookAdded(defaultUser, "Le Guin");
+                });
+
+                List<AuthorStat> counters = authorStatRepository.findAll();
+                assertEquals(1, counters.size());
+                assertEquals(2, counters.get(0).getBookCount());
+        }
+
         // --- Helper Methods ---
 
         private Book createBook(String title, String isbn, String author) {
@@ -162,4 +559,15 @@ public class BookControllerIntegrationTest {
                 book.setCompleted(false);
                 return bookRepository.save(book);
         }
+
+        private void addCompletedSession(Book book, int pagesRead) {
+                ReadingSession session = new ReadingSession();
+                session.setUser(defaultUser);
+                session.setBook(book);
+                session.setStartTime(Instant.now().minusSeconds(600));
+                session.setEndTime(Instant.now());
+                session.setStatus(SessionStatus.COMPLETED);
+                session.setPagesRead(pagesRead);
+                sessionRepository.save(session);
+        }
 }
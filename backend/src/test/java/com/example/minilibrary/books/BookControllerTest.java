@@ -1,6 +1,7 @@
 package com.example.minilibrary.books;
 
 import com.example.minilibrary.books.dto.BookDto;
+import com.example.minilibrary.books.dto.BookImportResult;
 import com.example.minilibrary.books.dto.CreateBookRequest;
 import com.example.minilibrary.books.dto.UpdateProgressRequest;
 import com.example.minilibrary.books.dto.UpdateStatusRequest;
@@ -17,8 +18,11 @@ import org.springframework.core.MethodParameter;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
@@ -31,10 +35,15 @@ import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,6 +55,15 @@ class BookControllerTest {
         @Mock
         private BookMapper bookMapper;
 
+        @Mock
+        private LibraryVersionTracker libraryVersionTracker;
+
+        @Mock
+        private BookImportService bookImportService;
+
+        @Mock
+        private BookExportService bookExportService;
+
         @InjectMocks
         private BookController bookController;
 
@@ -106,18 +124,112 @@ class BookControllerTest {
                                 .andExpect(jsonPath("$.content[0].id").value(1));
         }
 
+        @Test
+        void scrollBooks_ShouldReturnSliceWithNextCursor() throws Exception {
+                Book book = new Book();
+                book.setId(4L);
+                book.setCompleted(false);
+                Window<Book> window = Window.from(new java.util.ArrayList<>(List.of(book)), ScrollPosition::offset,
+                                true);
+
+                when(bookService.scrollAllByUser(eq(user), any(ScrollPosition.class), eq(1))).thenReturn(window);
+                when(bookMapper.toDto(any(Book.class))).thenReturn(
+                                new BookDto(4L, "isbn", "title", "author", "date", "url", 100, 0, null, false, null,
+                                                null, null, null));
+
+                mockMvc.perform(get("/api/books/scroll").param("size", "1"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content[0].id").value(4))
+                                .andExpect(jsonPath("$.hasNext").value(true))
+                                .andExpect(jsonPath("$.nextCursor").value(new BookCursor(false, 4L).encode()))
+                                .andExpect(jsonPath("$.totalElements").doesNotExist());
+        }
+
+        @Test
+        void scrollBooks_ShouldIncludeTotal_WhenRequested() throws Exception {
+                when(bookService.scrollAllByUser(eq(user), any(ScrollPosition.class), eq(10)))
+                                .thenReturn(Window.from(List.of(), ScrollPosition::offset));
+                when(bookService.countByUser(user)).thenReturn(0L);
+
+                mockMvc.perform(get("/api/books/scroll")
+                                .param("cursor", new BookCursor(true, 9L).encode())
+                                .param("withTotal", "true"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content").isEmpty())
+                                .andExpect(jsonPath("$.hasNext").value(false))
+                                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                                .andExpect(jsonPath("$.totalElements").value(0));
+        }
+
+        @Test
+        void importBooks_ShouldPickFormatFromContentType() throws Exception {
+                BookImportResult result = BookImportResult.of(List.of());
+                when(bookImportService.importBooks(any(), eq(BookImportFormat.CSV), eq(user))).thenReturn(result);
+                when(bookImportService.importBooks(any(), eq(BookImportFormat.NDJSON), eq(user))).thenReturn(result);
+
+                mockMvc.perform(post("/api/books/import").contentType("text/csv").content("isbn,title\n"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.imported").value(0));
+                mockMvc.perform(post("/api/books/import").contentType("application/x-ndjson").content("{}\n"))
+                                .andExpect(status().isOk());
+                mockMvc.perform(post("/api/books/import").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                                .andExpect(status().isUnsupportedMediaType());
+        }
+
+        @Test
+        void exportBooks_ShouldStreamAttachment() throws Exception {
+                doAnswer(invocation -> {
+                        invocation.<java.io.OutputStream>getArgument(2).write("row\n".getBytes());
+                        return null;
+                }).when(bookExportService).export(eq(user), eq(BookExportFormat.CSV), any());
+
+                MvcResult result = mockMvc.perform(get("/api/books/export").param("format", "CSV"))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                mockMvc.perform(asyncDispatch(result))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Content-Type", "text/csv"))
+                                .andExpect(header().string("Content-Disposition",
+                                                "attachment; filename=\"library.csv\""))
+                                .andExpect(content().string("row\n"));
+        }
+
         @Test
         void getAllOwnedIsbns_ShouldReturnList() throws Exception {
+                when(libraryVersionTracker.etag(1L)).thenReturn("\"lib-1\"");
                 when(bookService.getAllOwnedIsbns(any())).thenReturn(List.of("123"));
 
                 mockMvc.perform(get("/api/books/owned"))
                                 .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", "\"lib-1\""))
                                 .andExpect(jsonPath("$[0]").value("123"));
         }
 
+        @Test
+        void getAllOwnedIsbns_ShouldReturnNotModified_WhenEtagMatches() throws Exception {
+                when(libraryVersionTracker.etag(1L)).thenReturn("\"lib-1\"");
+
+                mockMvc.perform(get("/api/books/owned").header("If-None-Match", "\"lib-1\""))
+                                .andExpect(status().isNotModified());
+
+                verify(bookService, never()).getAllOwnedIsbns(any());
+        }
+
+        @Test
+        void getBookById_ShouldReturnNotModified_WhenEtagMatches() throws Exception {
+                when(libraryVersionTracker.bookEtag(1L, 1L)).thenReturn("\"lib-2-book-1\"");
+
+                mockMvc.perform(get("/api/books/1").header("If-None-Match", "\"lib-2-book-1\""))
+                                .andExpect(status().isNotModified());
+
+                verify(bookService, never()).findByIdAndUser(any(), any());
+        }
+
         @Test
         void getBookById_ShouldReturnBook() throws Exception {
                 Book book = new Book();
+                when(libraryVersionTracker.bookEtag(1L, 1L)).thenReturn("\"lib-1-book-1\"");
                 when(bookService.findByIdAndUser(eq(1L), any())).thenReturn(Optional.of(book));
                 when(bookMapper.toDto(book)).thenReturn(
                                 new BookDto(1L, "isbn", "title", "author", "date", "url", 100, 0, null, false, null,
@@ -125,6 +237,7 @@ class BookControllerTest {
 
                 mockMvc.perform(get("/api/books/1"))
                                 .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", "\"lib-1-book-1\""))
                                 .andExpect(jsonPath("$.id").value(1));
         }
 
@@ -0,0 +1,57 @@
+package com.example.minilibrary.books;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookCursorTest {
+
+    @Test
+    void encode_ShouldRoundTrip() {
+        BookCursor cursor = new BookCursor(true, 42L);
+
+        assertEquals(cursor, BookCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void of_ShouldTakeKeysFromBook() {
+        Book book = new Book();
+        book.setId(7L);
+        book.setCompleted(null);
+
+        assertEquals(new BookCursor(false, 7L), BookCursor.of(book));
+    }
+
+    @Test
+    void toPosition_ShouldStartAtBeginning_WhenNoToken() {
+        assertTrue(((KeysetScrollPosition) BookCursor.toPosition(null)).isInitial());
+        assertTrue(((KeysetScrollPosition) BookCursor.toPosition(" ")).isInitial());
+    }
+
+    @Test
+    void toPosition_ShouldSeekForwardFromKeys() {
+        ScrollPosition position = BookCursor.toPosition(new BookCursor(false, 3L).encode());
+
+        KeysetScrollPosition keyset = (KeysetScrollPosition) position;
+        assertEquals(false, keyset.getKeys().get("completed"));
+        assertEquals(3L, keyset.getKeys().get("id"));
+        assertTrue(keyset.scrollsForward());
+    }
+
+    @Test
+    void decode_ShouldRejectMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode("%%%"));
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode(encodeRaw("1:abc")));
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode(encodeRaw("2:5")));
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode(encodeRaw("15")));
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.sessions.ReadingSession;
+import com.example.minilibrary.sessions.ReadingSessionRepository;
+import com.example.minilibrary.sessions.SessionStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookExportServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private ReadingSessionRepository sessionRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookExportService service;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        service = new BookExportService(bookRepository, sessionRepository, entityManager, transactionManager,
+                new ObjectMapper().registerModule(new JavaTimeModule()), 2);
+        user = new User();
+        user.setId(1L);
+    }
+
+    @Test
+    void export_Ndjson_ShouldWriteOneLinePerBookWithSessions() {
+        Book first = book(1L, "111", "First");
+        Book second = book(2L, "222", "Second");
+        Book third = book(3L, "333", "Third");
+        when(bookRepository.streamByUserOrderByIdAsc(user, 2)).thenReturn(Stream.of(first, second, third));
+        when(sessionRepository.findByBookIdInOrderByStartTimeAsc(List.of(1L, 2L)))
+                .thenReturn(List.of(session(first, 12)));
+        when(sessionRepository.findByBookIdInOrderByStartTimeAsc(List.of(3L))).thenReturn(List.of());
+
+        String output = export(BookExportFormat.NDJSON);
+
+        String[] lines = output.split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("\"isbn\":\"111\""));
+        assertTrue(lines[0].contains("\"pagesRead\":12"));
+        assertTrue(lines[1].contains("\"sessions\":[]"));
+        // a read-only transaction around the cursor, context cleared per chunk
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void export_Csv_ShouldWriteHeaderAndEscapedRows() {
+        Book book = book(1L, "111", "Crime, and \"Punishment\"");
+        book.setReadingGoalType(ReadingGoalType.WEEKLY);
+        when(bookRepository.streamByUserOrderByIdAsc(user, 2)).thenReturn(Stream.of(book));
+        when(sessionRepository.findByBookIdInOrderByStartTimeAsc(List.of(1L)))
+                .thenReturn(List.of(session(book, 5), session(book, null)));
+
+        String[] lines = export(BookExportFormat.CSV).split("\n");
+
+        assertEquals("isbn,title,authorName,publishDate,coverUrl,pageCount,categories,currentPage,startDate,"
+                + "completed,readingGoalType,readingGoalPages,sessionCount,pagesRead", lines[0]);
+        assertEquals("111,\"Crime, and \"\"Punishment\"\"\",,,,,,,,false,WEEKLY,,2,5", lines[1]);
+    }
+
+    @Test
+    void export_ShouldWriteOnlyHeader_ForEmptyLibrary() {
+        when(bookRepository.streamByUserOrderByIdAsc(user, 2)).thenReturn(Stream.empty());
+
+        assertEquals("isbn", export(BookExportFormat.CSV).split(",")[0]);
+        verifyNoInteractions(sessionRepository);
+    }
+
+    @Test
+    void export_ShouldWrapWriteErrors() {
+        when(bookRepository.streamByUserOrderByIdAsc(user, 2)).thenReturn(Stream.of(book(1L, "1", "T")));
+        when(sessionRepository.findByBookIdInOrderByStartTimeAsc(any())).thenReturn(List.of());
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("client went away");
+            }
+        };
+
+        assertThrows(UncheckedIOException.class, () -> service.export(user, BookExportFormat.NDJSON, broken));
+    }
+
+    @Test
+    void escapeCsv_ShouldQuoteOnlyWhenNeeded() {
+        assertEquals("plain", BookExportService.escapeCsv("plain"));
+        assertEquals("\"a\nb\"", BookExportService.escapeCsv("a\nb"));
+        assertEquals("\"a\rb\"", BookExportService.escapeCsv("a\rb"));
+    }
+
+    private String export(BookExportFormat format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(user, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private Book book(Long id, String isbn, String title) {
+        Book book = new Book();
+        book.setId(id);
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setCompleted(false);
+        return book;
+    }
+
+    private ReadingSession session(Book book, Integer pagesRead) {
+        ReadingSession session = new ReadingSession();
+        session.setBook(book);
+        session.setStartTime(Instant.parse("2024-01-01T10:00:00Z"));
+        session.setStatus(SessionStatus.COMPLETED);
+        session.setPagesRead(pagesRead);
+        return session;
+    }
+}
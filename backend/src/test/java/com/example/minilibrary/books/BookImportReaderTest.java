@@ -0,0 +1,137 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.books.BookImportReader.Row;
+import com.example.minilibrary.books.dto.CreateBookRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookImportReaderTest {
+
+    private final BookImportReader reader = new BookImportReader(new ObjectMapper());
+
+    @Test
+    void read_Csv_ShouldMapOwnColumns() {
+        List<Row> rows = read(BookImportFormat.CSV, """
+                isbn,title,authorName,publishDate,coverUrl,pageCount,categories
+                111,First,Ann,2020,http://cover,120,Fiction
+                """);
+
+        assertEquals(1, rows.size());
+        assertEquals(new CreateBookRequest("111", "First", "Ann", "2020", "http://cover", 120, "Fiction"),
+                rows.get(0).request());
+        assertEquals(2, rows.get(0).line());
+    }
+
+    @Test
+    void read_Csv_ShouldUnderstandGoodreadsExport() {
+        List<Row> rows = read(BookImportFormat.CSV, "﻿Book Id,Title,Author,ISBN,ISBN13,Number of Pages,Year Published\r\n"
+                + "1,\"Crime, and Punishment\",Dostoevsky,\"=\"\"0140449132\"\"\",\"=\"\"9780140449136\"\"\",671,2002\r\n"
+                + "2,No Isbn13,Someone,\"=\"\"0000000001\"\"\",\"=\"\"\"\"\",,\r\n");
+
+        assertEquals(2, rows.size());
+        CreateBookRequest first = rows.get(0).request();
+        assertEquals("9780140449136", first.isbn());
+        assertEquals("Crime, and Punishment", first.title());
+        assertEquals("Dostoevsky", first.authorName());
+        assertEquals(671, first.pageCount());
+        assertEquals("2002", first.publishDate());
+        assertEquals("0000000001", rows.get(1).request().isbn());
+        assertNull(rows.get(1).request().pageCount());
+    }
+
+    @Test
+    void read_Csv_ShouldKeepQuotedNewlinesAndTrackLines() {
+        List<Row> rows = read(BookImportFormat.CSV, """
+                isbn,title
+                1,"Two
+                Lines"
+
+                2,Next""");
+
+        assertEquals(2, rows.size());
+        assertEquals("Two\nLines", rows.get(0).request().title());
+        assertEquals(2, rows.get(0).line());
+        assertEquals(5, rows.get(1).line());
+    }
+
+    @Test
+    void read_Csv_ShouldReportInvalidPageCount() {
+        List<Row> rows = read(BookImportFormat.CSV, "isbn,title,pageCount\n1,Title,many\n");
+
+        assertNull(rows.get(0).request());
+        assertEquals("Invalid page count", rows.get(0).error());
+    }
+
+    @Test
+    void read_Csv_ShouldHandleEmptyBodyAndShortRows() {
+        assertTrue(read(BookImportFormat.CSV, "").isEmpty());
+
+        List<Row> rows = read(BookImportFormat.CSV, "title,isbn\nOnly Title\n");
+        assertEquals("Only Title", rows.get(0).request().title());
+        assertNull(rows.get(0).request().isbn());
+    }
+
+    @Test
+    void read_Csv_ShouldRejectOversizedRecords_AndKeepReading() {
+        String longField = "x".repeat(BookImportReader.MAX_CSV_FIELD_LENGTH + 1);
+        String manyFields = ",".repeat(BookImportReader.MAX_CSV_RECORD_LENGTH);
+        List<Row> rows = read(BookImportFormat.CSV, "isbn,title\n"
+                + "1,\"" + longField + "\nstill the same field\"\n"
+                + "2," + manyFields + "\n"
+                + "3,Fits\n");
+
+        assertEquals(3, rows.size());
+        assertEquals("Record too long", rows.get(0).error());
+        assertEquals(2, rows.get(0).line());
+        assertEquals("Record too long", rows.get(1).error());
+        assertEquals(4, rows.get(1).line());
+        assertEquals("Fits", rows.get(2).request().title());
+        assertEquals(5, rows.get(2).line());
+    }
+
+    @Test
+    void read_Ndjson_ShouldParseEachLine() {
+        List<Row> rows = read(BookImportFormat.NDJSON, """
+                {"isbn":"1","title":"One","unknown":true}
+
+                not json
+                {"isbn":"2","title":"Two","pageCount":10}
+                """);
+
+        assertEquals(3, rows.size());
+        assertEquals("One", rows.get(0).request().title());
+        assertEquals(1, rows.get(0).line());
+        assertEquals("Malformed JSON", rows.get(1).error());
+        assertEquals(3, rows.get(1).line());
+        assertEquals(10, rows.get(2).request().pageCount());
+    }
+
+    @Test
+    void read_ShouldWrapIoErrors() {
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("boom");
+            }
+        };
+
+        assertThrows(UncheckedIOException.class, () -> reader.read(broken, BookImportFormat.NDJSON, row -> {
+        }));
+    }
+
+    private List<Row> read(BookImportFormat format, String body) {
+        List<Row> rows = new ArrayList<>();
+        reader.read(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, rows::add);
+        return rows;
+    }
+}
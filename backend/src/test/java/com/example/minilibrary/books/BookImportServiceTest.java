@@ -0,0 +1,164 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.books.dto.BookImportResult;
+import com.example.minilibrary.books.dto.BookImportRowResult;
+import com.example.minilibrary.books.dto.BookImportRowResult.Status;
+import com.example.minilibrary.books.dto.CreateBookRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private BookMapper bookMapper;
+    @Mock
+    private AuthorStatsService authorStatsService;
+    @Mock
+    private OwnedIsbnIndex ownedIsbnIndex;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private EntityManager entityManager;
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private final AtomicLong ids = new AtomicLong();
+    private BookImportService service;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        service = new BookImportService(bookRepository, bookMapper, authorStatsService, ownedIsbnIndex, validator,
+                transactionTemplate,
+                entityManager, new ObjectMapper(), 2);
+        user = new User();
+        user.setId(1L);
+        lenient().when(bookMapper.toEntity(any(CreateBookRequest.class))).thenAnswer(invocation -> {
+            CreateBookRequest request = invocation.getArgument(0);
+            Book book = new Book();
+            book.setIsbn(request.isbn());
+            book.setTitle(request.title());
+            return book;
+        });
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            books.forEach(book -> book.setId(ids.incrementAndGet()));
+            return books;
+        });
+    }
+
+    @Test
+    void importBooks_ShouldInsertInChunksAndReportEachRow() {
+        when(bookRepository.findAllIsbnsByUser(user)).thenReturn(List.of("owned"));
+
+        BookImportResult result = service.importBooks(ndjson("""
+                {"isbn":"a","title":"A"}
+                {"isbn":"owned","title":"Owned"}
+                {"isbn":"b","title":"B"}
+                {"isbn":"a","title":"A again"}
+                {"isbn":"c","title":""}
+                {"isbn":"d","title":"D"}
+                """), BookImportFormat.NDJSON, user);
+
+        assertEquals(3, result.imported());
+        assertEquals(2, result.duplicates());
+        assertEquals(1, result.invalid());
+        assertEquals(List.of(Status.IMPORTED, Status.DUPLICATE, Status.IMPORTED, Status.DUPLICATE, Status.INVALID,
+                Status.IMPORTED), result.rows().stream().map(BookImportRowResult::status).toList());
+        assertEquals("title: must not be blank", result.rows().get(4).message());
+        assertNotNull(result.rows().get(0).bookId());
+        // chunk size 2: one full chunk plus the remainder
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(entityManager, times(2)).clear();
+        verify(authorStatsService, times(2)).booksAdded(eq(user), anyList());
+        verify(ownedIsbnIndex, times(2)).booksAdded(eq(1L), anyList());
+    }
+
+    @Test
+    void importBooks_ShouldMarkChunkFailed_WhenInsertFails() {
+        when(bookRepository.findAllIsbnsByUser(user)).thenReturn(List.of());
+        doThrow(new DataIntegrityViolationException("duplicate key")).when(bookRepository).flush();
+
+        BookImportResult result = service.importBooks(ndjson("""
+                {"isbn":"a","title":"A"}
+                not json
+                """), BookImportFormat.NDJSON, user);
+
+        assertEquals(1, result.failed());
+        assertEquals(1, result.invalid());
+        assertEquals(Status.FAILED, result.rows().get(0).status());
+        assertNull(result.rows().get(0).bookId());
+        // a single row is not retried
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+    }
+
+    @Test
+    void importBooks_ShouldRetryFailedChunkRowByRow_AndOnlyFailTheBadRow() {
+        when(bookRepository.findAllIsbnsByUser(user)).thenReturn(List.of());
+        when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            if (books.stream().anyMatch(book -> book.getIsbn().equals("bad"))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            books.forEach(book -> book.setId(ids.incrementAndGet()));
+            return books;
+        });
+
+        BookImportResult result = service.importBooks(ndjson("""
+                {"isbn":"a","title":"A"}
+                {"isbn":"bad","title":"Bad"}
+                """), BookImportFormat.NDJSON, user);
+
+        assertEquals(1, result.imported());
+        assertEquals(1, result.failed());
+        assertEquals(List.of(Status.IMPORTED, Status.FAILED),
+                result.rows().stream().map(BookImportRowResult::status).toList());
+        assertNotNull(result.rows().get(0).bookId());
+        assertEquals("bad", result.rows().get(1).isbn());
+        // the chunk, then each of its rows
+        verify(transactionTemplate, times(3)).executeWithoutResult(any());
+    }
+
+    @Test
+    void importBooks_ShouldNotOpenTransaction_WhenNothingToInsert() {
+        when(bookRepository.findAllIsbnsByUser(user)).thenReturn(List.of());
+
+        BookImportResult result = service.importBooks(ndjson(""), BookImportFormat.NDJSON, user);
+
+        assertTrue(result.rows().isEmpty());
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    private ByteArrayInputStream ndjson(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -5,8 +5,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
@@ -16,6 +21,8 @@ class BookProgressServiceTest {
 
     @Mock
     private BookRepository bookRepository;
+    @Spy
+    private ReadingGoalProgressCalculator goalProgressCalculator = new ReadingGoalProgressCalculator();
     @InjectMocks
     private BookProgressService bookProgressService;
 
@@ -75,4 +82,29 @@ class BookProgressServiceTest {
         assertThrows(IllegalArgumentException.class,
                 () -> bookProgressService.updateProgress(book, 201));
     }
+
+    @Test
+    void recordPagesRead_ShouldUpdateWeeklyAndMonthlyCounters() {
+        Book book = new Book();
+        Instant readAt = Instant.now();
+        LocalDate day = LocalDate.ofInstant(readAt, ZoneId.systemDefault());
+
+        bookProgressService.recordPagesRead(book, 20, readAt);
+        bookProgressService.recordPagesRead(book, 5, readAt);
+
+        assertEquals(new GoalPeriodProgress(
+                goalProgressCalculator.periodStart(ReadingGoalType.WEEKLY, day), 25), book.getWeeklyProgress());
+        assertEquals(new GoalPeriodProgress(
+                goalProgressCalculator.periodStart(ReadingGoalType.MONTHLY, day), 25), book.getMonthlyProgress());
+    }
+
+    @Test
+    void recordPagesRead_ShouldIgnoreZeroPages() {
+        Book book = new Book();
+
+        bookProgressService.recordPagesRead(book, 0, Instant.now());
+
+        assertNull(book.getWeeklyProgress());
+        assertNull(book.getMonthlyProgress());
+    }
 }
@@ -8,13 +8,17 @@ import com.example.minilibrary.auth.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 import java.util.Optional;
@@ -30,11 +34,19 @@ class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
     @Mock
+    private BookCategoryRepository bookCategoryRepository;
+    @Mock
     private BookMapper bookMapper;
     @Mock
     private ReadingSessionService readingSessionService;
     @Mock
     private BookProgressService bookProgressService;
+    @Mock
+    private LibraryVersionTracker libraryVersionTracker;
+    @Mock
+    private AuthorStatsService authorStatsService;
+    @Mock
+    private OwnedIsbnIndex ownedIsbnIndex;
     @InjectMocks
     private BookService bookService;
 
@@ -50,11 +62,43 @@ class BookServiceTest {
     void findAllByUser_ShouldReturnPage() {
         Pageable pageable = PageRequest.of(0, 10);
         Page<Book> page = new PageImpl<>(List.of(new Book()));
-        when(bookRepository.findByUserOrderByCompletedAsc(user, pageable)).thenReturn(page);
+        when(bookRepository.findByUserOrderByCompletedAscIdAsc(user, pageable)).thenReturn(page);
 
         assertEquals(1, bookService.findAllByUser(user, pageable).getTotalElements());
     }
 
+    @Test
+    void scrollAllByUser_ShouldSeekWithLimit() {
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<Book> window = Window.from(List.of(new Book()), ScrollPosition::offset);
+        when(bookRepository.findByUserOrderByCompletedAscIdAsc(user, position, Limit.of(5))).thenReturn(window);
+
+        assertSame(window, bookService.scrollAllByUser(user, position, 5));
+    }
+
+    @Test
+    void scrollAllByUser_ShouldCapSize() {
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<Book> window = Window.from(List.of(), ScrollPosition::offset);
+        when(bookRepository.findByUserOrderByCompletedAscIdAsc(user, position, Limit.of(BookService.MAX_SCROLL_SIZE)))
+                .thenReturn(window);
+
+        assertSame(window, bookService.scrollAllByUser(user, position, 1_000_000));
+    }
+
+    @Test
+    void scrollAllByUser_ShouldRejectNonPositiveSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bookService.scrollAllByUser(user, ScrollPosition.keyset(), 0));
+    }
+
+    @Test
+    void countByUser_ShouldDelegateToRepository() {
+        when(bookRepository.countByUser(user)).thenReturn(4L);
+
+        assertEquals(4L, bookService.countByUser(user));
+    }
+
     @Test
     void findByIdAndUser_ShouldReturnOptional() {
         Book book = new Book();
@@ -77,12 +121,15 @@ class BookServiceTest {
         CreateBookRequest request = new CreateBookRequest("isbn", "title", "author", "2023", "url", 100, "cat");
         Book book = new Book();
         book.setAuthor("author");
+        book.setIsbn("isbn");
         when(bookRepository.existsByIsbnAndUser("isbn", user)).thenReturn(false);
         when(bookMapper.toEntity(request)).thenReturn(book);
         when(bookRepository.save(any(Book.class))).thenAnswer(i -> i.getArgument(0));
 
         Book result = bookService.createBook(request, user);
         assertEquals(user, result.getUser());
+        verify(authorStatsService).bookAdded(user, "author");
+        verify(ownedIsbnIndex).booksAdded(1L, List.of("isbn"));
     }
 
     @Test
@@ -94,30 +141,41 @@ class BookServiceTest {
     }
 
     @Test
-    void deleteByIdAndUser_ShouldDeleteBookAndSessions() {
-        Book book = new Book();
-        book.setId(1L);
-        when(bookRepository.findByIdAndUser(1L, user)).thenReturn(Optional.of(book));
+    void deleteByIdAndUser_ShouldDeleteSessionsThenBook() {
+        when(bookRepository.bulkDeleteByIdAndUser(1L, user)).thenReturn(1);
 
         bookService.deleteByIdAndUser(1L, user);
 
-        verify(readingSessionService).deleteSessionsByBook(user, book);
-        verify(bookRepository).delete(book);
+        InOrder inOrder = inOrder(readingSessionService, bookCategoryRepository, authorStatsService,
+                bookRepository, libraryVersionTracker);
+        inOrder.verify(readingSessionService).deleteSessionsByBook(user, 1L);
+        inOrder.verify(bookCategoryRepository).bulkDeleteByUserAndBookId(user, 1L);
+        inOrder.verify(authorStatsService).bookRemoved(user, 1L);
+        inOrder.verify(bookRepository).bulkDeleteByIdAndUser(1L, user);
+        inOrder.verify(libraryVersionTracker).markChanged(user.getId());
+        verify(ownedIsbnIndex).booksRemoved(1L);
     }
 
     @Test
     void deleteByIdAndUser_ShouldThrow_WhenNotFound() {
-        when(bookRepository.findByIdAndUser(1L, user)).thenReturn(Optional.empty());
+        when(bookRepository.bulkDeleteByIdAndUser(1L, user)).thenReturn(0);
+
         assertThrows(ResourceNotFoundException.class, () -> bookService.deleteByIdAndUser(1L, user));
+        verify(libraryVersionTracker, never()).markChanged(any());
     }
 
     @Test
-    void deleteAllByUser_ShouldDeleteAll() {
-        List<Book> books = List.of(new Book(), new Book());
-        when(bookRepository.findByUser(user)).thenReturn(books);
-
+    void deleteAllByUser_ShouldDeleteSessionsThenBooks() {
         bookService.deleteAllByUser(user);
-        verify(bookRepository).deleteAll(books);
+
+        InOrder inOrder = inOrder(readingSessionService, bookCategoryRepository, authorStatsService,
+                bookRepository, libraryVersionTracker);
+        inOrder.verify(readingSessionService).deleteAllSessions(user);
+        inOrder.verify(bookCategoryRepository).bulkDeleteByUser(user);
+        inOrder.verify(authorStatsService).libraryRemoved(user);
+        inOrder.verify(bookRepository).bulkDeleteByUser(user);
+        inOrder.verify(libraryVersionTracker).markChanged(user.getId());
+        verify(ownedIsbnIndex).booksRemoved(1L);
     }
 
     @Test
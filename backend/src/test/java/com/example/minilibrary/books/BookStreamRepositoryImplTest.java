@@ -0,0 +1,42 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookStreamRepositoryImplTest {
+
+    @Mock
+    private EntityManager entityManager;
+    @Mock(answer = Answers.RETURNS_SELF)
+    private TypedQuery<Book> query;
+
+    @Test
+    void streamByUserOrderByIdAsc_ShouldFetchTheRequestedRowsPerRoundTrip() {
+        User user = new User();
+        Book book = new Book();
+        when(entityManager.createQuery(anyString(), eq(Book.class))).thenReturn(query);
+        when(query.getResultStream()).thenReturn(Stream.of(book));
+
+        Stream<Book> books = new BookStreamRepositoryImpl(entityManager).streamByUserOrderByIdAsc(user, 250);
+
+        assertEquals(book, books.findFirst().orElseThrow());
+        verify(query).setParameter("user", user);
+        verify(query).setHint(HibernateHints.HINT_FETCH_SIZE, 250);
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -126,7 +127,7 @@ class BookTest {
         User user = new User();
         Book book = new Book(1L, "isbn", "title", "author", user,
                 "2023", "url", 300, 50, LocalDate.now(), false,
-                ReadingGoalType.WEEKLY, 100, "Fiction", new ArrayList<>());
+                ReadingGoalType.WEEKLY, 100, "Fiction", null, null, new ArrayList<>(), new ArrayList<>());
 
         assertEquals(1L, book.getId());
         assertEquals("isbn", book.getIsbn());
@@ -135,4 +136,19 @@ class BookTest {
         assertEquals(ReadingGoalType.WEEKLY, book.getReadingGoalType());
         assertEquals("Fiction", book.getCategories());
     }
+
+    @Test
+    void prePersist_ShouldCreateCategoryEntries() {
+        User user = new User();
+        Book book = new Book();
+        book.setUser(user);
+        book.setCategories("Fiction, Classics,,Fiction");
+
+        book.prePersist();
+
+        assertEquals(List.of("Fiction", "Classics"),
+                book.getCategoryEntries().stream().map(BookCategory::getName).toList());
+        assertSame(user, book.getCategoryEntries().get(0).getUser());
+        assertSame(book, book.getCategoryEntries().get(0).getBook());
+    }
 }
@@ -0,0 +1,65 @@
+package com.example.minilibrary.books;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class GoalPeriodProgressTest {
+
+    private static final LocalDate WEEK = LocalDate.of(2024, 3, 11);
+    private static final LocalDate NEXT_WEEK = LocalDate.of(2024, 3, 18);
+
+    @Test
+    void accumulate_ShouldStartPeriod_WhenNothingRecorded() {
+        GoalPeriodProgress progress = GoalPeriodProgress.accumulate(null, WEEK, 10);
+
+        assertEquals(new GoalPeriodProgress(WEEK, 10), progress);
+    }
+
+    @Test
+    void accumulate_ShouldStartPeriod_WhenStoredPeriodMissing() {
+        GoalPeriodProgress progress = GoalPeriodProgress.accumulate(new GoalPeriodProgress(null, null), WEEK, 10);
+
+        assertEquals(new GoalPeriodProgress(WEEK, 10), progress);
+    }
+
+    @Test
+    void accumulate_ShouldAdd_WhenSamePeriod() {
+        GoalPeriodProgress progress = GoalPeriodProgress.accumulate(new GoalPeriodProgress(WEEK, 10), WEEK, 5);
+
+        assertEquals(new GoalPeriodProgress(WEEK, 15), progress);
+    }
+
+    @Test
+    void accumulate_ShouldTreatNullPagesAsZero_WhenSamePeriod() {
+        GoalPeriodProgress progress = GoalPeriodProgress.accumulate(new GoalPeriodProgress(WEEK, null), WEEK, 5);
+
+        assertEquals(new GoalPeriodProgress(WEEK, 5), progress);
+    }
+
+    @Test
+    void accumulate_ShouldRollOver_WhenNewerPeriod() {
+        GoalPeriodProgress progress = GoalPeriodProgress.accumulate(new GoalPeriodProgress(WEEK, 40), NEXT_WEEK, 5);
+
+        assertEquals(new GoalPeriodProgress(NEXT_WEEK, 5), progress);
+    }
+
+    @Test
+    void accumulate_ShouldIgnore_WhenOlderPeriod() {
+        GoalPeriodProgress current = new GoalPeriodProgress(NEXT_WEEK, 40);
+
+        assertSame(current, GoalPeriodProgress.accumulate(current, WEEK, 5));
+    }
+
+    @Test
+    void pagesIn_ShouldOnlyCountMatchingPeriod() {
+        GoalPeriodProgress progress = new GoalPeriodProgress(WEEK, 40);
+
+        assertEquals(40, progress.pagesIn(WEEK));
+        assertEquals(0, progress.pagesIn(NEXT_WEEK));
+        assertEquals(0, new GoalPeriodProgress(WEEK, null).pagesIn(WEEK));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.minilibrary.books;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IsbnKeyTest {
+
+    @Test
+    void of_ShouldReadIsbn13() {
+        assertEquals(9780306406157L, IsbnKey.of("978-0-306-40615-7"));
+        assertEquals(9780306406157L, IsbnKey.of("978 0306406157"));
+    }
+
+    @Test
+    void of_ShouldConvertIsbn10ToIsbn13() {
+        assertEquals(IsbnKey.of("9780306406157"), IsbnKey.of("0-306-40615-2"));
+        assertEquals(IsbnKey.of("9780804429573"), IsbnKey.of("080442957X"));
+        assertEquals(IsbnKey.of("9780804429573"), IsbnKey.of("080442957x"));
+    }
+
+    @Test
+    void of_ShouldRejectAnythingElse() {
+        assertEquals(IsbnKey.NONE, IsbnKey.of(null));
+        assertEquals(IsbnKey.NONE, IsbnKey.of(""));
+        assertEquals(IsbnKey.NONE, IsbnKey.of("isbn123"));
+        assertEquals(IsbnKey.NONE, IsbnKey.of("12345"));
+        assertEquals(IsbnKey.NONE, IsbnKey.of("97803064061570"));
+        assertEquals(IsbnKey.NONE, IsbnKey.of("0804429X57"));
+        assertEquals(IsbnKey.NONE, IsbnKey.of("080442957X1"));
+    }
+}
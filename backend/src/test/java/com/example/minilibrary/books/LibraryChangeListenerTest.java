@@ -0,0 +1,57 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.sessions.ReadingSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class LibraryChangeListenerTest {
+
+    @Mock
+    private LibraryVersionTracker libraryVersionTracker;
+
+    @InjectMocks
+    private LibraryChangeListener listener;
+
+    @Test
+    void markChanged_ShouldBumpOwnerOfBook() {
+        Book book = new Book();
+        book.setUser(user(3L));
+
+        listener.markChanged(book);
+
+        verify(libraryVersionTracker).markChanged(3L);
+    }
+
+    @Test
+    void markChanged_ShouldBumpOwnerOfSession() {
+        ReadingSession session = new ReadingSession();
+        session.setUser(user(4L));
+
+        listener.markChanged(session);
+
+        verify(libraryVersionTracker).markChanged(4L);
+    }
+
+    @Test
+    void markChanged_ShouldIgnoreEntitiesWithoutOwner() {
+        listener.markChanged(new Book());
+        listener.markChanged("not an entity");
+
+        verify(libraryVersionTracker, never()).markChanged(any());
+    }
+
+    private User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
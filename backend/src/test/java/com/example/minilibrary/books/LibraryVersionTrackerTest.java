@@ -0,0 +1,98 @@
+package com.example.minilibrary.books;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LibraryVersionTrackerTest {
+
+    private final Clock clock = mock(Clock.class);
+    private final LibraryVersionTracker tracker = new LibraryVersionTracker(
+            new ReadingGoalProgressCalculator(clock));
+
+    @BeforeEach
+    void setUp() {
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        setToday(LocalDate.of(2026, 10, 14));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void currentVersion_ShouldBeStable_UntilChanged() {
+        long before = tracker.currentVersion(1L);
+
+        assertEquals(before, tracker.currentVersion(1L));
+        assertEquals("\"lib-" + before + "\"", tracker.etag(1L));
+        assertEquals("\"lib-" + before + "-book-7-week-2026-10-12-month-2026-10-01\"",
+                tracker.bookEtag(1L, 7L));
+    }
+
+    @Test
+    void bookEtag_ShouldChange_WhenWeekRollsOver() {
+        setToday(LocalDate.of(2026, 10, 18));
+        String sunday = tracker.bookEtag(1L, 7L);
+
+        setToday(LocalDate.of(2026, 10, 19));
+
+        assertNotEquals(sunday, tracker.bookEtag(1L, 7L));
+    }
+
+    @Test
+    void bookEtag_ShouldChange_WhenMonthRollsOver() {
+        // a Wednesday to a Thursday: same week, new month
+        setToday(LocalDate.of(2026, 9, 30));
+        String lastOfMonth = tracker.bookEtag(1L, 7L);
+
+        setToday(LocalDate.of(2026, 10, 1));
+
+        assertNotEquals(lastOfMonth, tracker.bookEtag(1L, 7L));
+    }
+
+    @Test
+    void markChanged_ShouldOnlyBumpThatUser() {
+        long mine = tracker.currentVersion(1L);
+        long other = tracker.currentVersion(2L);
+
+        tracker.markChanged(1L);
+
+        assertTrue(tracker.currentVersion(1L) > mine);
+        assertEquals(other, tracker.currentVersion(2L));
+    }
+
+    @Test
+    void markChanged_ShouldIgnoreMissingUser() {
+        assertDoesNotThrow(() -> tracker.markChanged(null));
+    }
+
+    @Test
+    void markChanged_ShouldBumpAgainAfterTransactionCompletes() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        tracker.markChanged(1L);
+        long duringTransaction = tracker.currentVersion(1L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertTrue(tracker.currentVersion(1L) > duringTransaction);
+    }
+
+    private void setToday(LocalDate day) {
+        when(clock.instant()).thenReturn(day.atTime(12, 0).toInstant(ZoneOffset.UTC));
+    }
+}
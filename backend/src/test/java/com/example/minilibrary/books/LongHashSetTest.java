@@ -0,0 +1,55 @@
+package com.example.minilibrary.books;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongHashSetTest {
+
+    @Test
+    void add_ShouldGrowAndKeepAllValues() {
+        LongHashSet set = new LongHashSet(0);
+
+        for (long value = 1; value <= 1_000; value++) {
+            assertTrue(set.add(value * 9_780_000_000L));
+        }
+
+        assertEquals(1_000, set.size());
+        for (long value = 1; value <= 1_000; value++) {
+            assertTrue(set.contains(value * 9_780_000_000L));
+        }
+        assertFalse(set.contains(7L));
+    }
+
+    @Test
+    void add_ShouldIgnoreDuplicates() {
+        LongHashSet set = new LongHashSet(4);
+
+        assertTrue(set.add(42L));
+        assertFalse(set.add(42L));
+
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void zero_ShouldNeverBeStored() {
+        LongHashSet set = new LongHashSet(4);
+
+        assertThrows(IllegalArgumentException.class, () -> set.add(0L));
+        assertFalse(set.contains(0L));
+    }
+
+    @Test
+    void copy_ShouldBeIndependent() {
+        LongHashSet set = new LongHashSet(2);
+        set.add(1L);
+        set.add(2L);
+
+        LongHashSet copy = set.copy(1);
+        copy.add(3L);
+
+        assertEquals(3, copy.size());
+        assertTrue(copy.contains(1L));
+        assertFalse(set.contains(3L));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.auth.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OwnedIsbnIndexTest {
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final OwnedIsbnIndex index = new OwnedIsbnIndex(bookRepository, 100, 60, new SimpleMeterRegistry());
+    private final User user = user(1L);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void forUser_ShouldLoadOnce() {
+        when(bookRepository.findAllIsbnsByUser(user)).thenReturn(List.of("0-306-40615-2", "not an isbn"));
+
+        OwnedIsbns owned = index.forUser(user);
+
+        assertSame(owned, index.forUser(user));
+        assertEquals(1, owned.size());
+        assertTrue(owned.contains("9780306406157"));
+        verify(bookRepository, times(1)).findAllIsbnsByUser(user);
+    }
+
+    @Test
+    void booksAdded_ShouldMergeWithoutReloading() {
+        when(bookRepository.findAllIsbnsByUser(user)).thenReturn(List.of("9780306406157"));
+        OwnedIsbns before = index.forUser(user);
+
+        index.booksAdded(1L, List.of("080442957X"));
+
+        OwnedIsbns after = index.forUser(user);
+        assertTrue(after.contains("9780804429573"));
+        assertTrue(after.contains("9780306406157"));
+        assertFalse(before.contains("9780804429573"));
+        verify(bookRepository, times(1)).findAllIsbnsByUser(user);
+    }
+
+    @Test
+    void booksAdded_ShouldWaitForCommit() {
+        when(bookRepository.findAllIsbnsByUser(user)).thenReturn(List.of());
+        index.forUser(user);
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.booksAdded(1L, List.of("9780306406157"));
+        assertFalse(index.forUser(user).contains("9780306406157"));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(index.forUser(user).contains("9780306406157"));
+    }
+
+    @Test
+    void booksAdded_ShouldIgnoreUsersNotCached() {
+        index.booksAdded(2L, List.of("9780306406157"));
+
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void booksRemoved_ShouldReloadAfterTransactionCompletes() {
+        when(bookRepository.findAllIsbnsByUser(user))
+                .thenReturn(List.of("9780306406157"), List.of("9780306406157"), List.of());
+        index.forUser(user);
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.booksRemoved(1L);
+        index.forUser(user);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertEquals(0, index.forUser(user).size());
+        verify(bookRepository, times(3)).findAllIsbnsByUser(user);
+    }
+
+    @Test
+    void booksRemoved_ShouldReloadWithoutTransaction() {
+        when(bookRepository.findAllIsbnsByUser(user)).thenReturn(List.of("9780306406157"), List.of());
+        index.forUser(user);
+
+        index.booksRemoved(1L);
+
+        assertEquals(0, index.forUser(user).size());
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
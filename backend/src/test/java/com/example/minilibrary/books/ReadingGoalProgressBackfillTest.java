@@ -0,0 +1,71 @@
+package com.example.minilibrary.books;
+
+import com.example.minilibrary.sessions.SessionLocks;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadingGoalProgressBackfillTest {
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private PendingGoalProgressBackfillRepository pendingRepository;
+    @Mock
+    private SessionLocks sessionLocks;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReadingGoalProgressBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        // a Thursday
+        Clock clock = Clock.fixed(LocalDate.of(2026, 10, 15).atStartOfDay(ZoneId.systemDefault()).toInstant(),
+                ZoneId.systemDefault());
+        backfill = new ReadingGoalProgressBackfill(bookRepository, pendingRepository,
+                new ReadingGoalProgressCalculator(clock), sessionLocks, new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void backfill_ShouldSeedCountersOfPendingUsersForCurrentPeriods() {
+        when(pendingRepository.findAllUserIds()).thenReturn(List.of(1L));
+        when(sessionLocks.withUserLock(eq(1L), any())).thenAnswer(call -> call.<Supplier<?>>getArgument(1).get());
+        when(bookRepository.rebuildGoalProgress(any(), any(), any(), any(), any())).thenReturn(3);
+
+        backfill.backfill();
+
+        // counters filled by stops since the counters shipped are recounted, then the marker goes
+        InOrder order = inOrder(bookRepository, pendingRepository);
+        order.verify(bookRepository).rebuildGoalProgress(argThat(user -> user.getId().equals(1L)),
+                eq(LocalDate.of(2026, 10, 12)), any(), eq(LocalDate.of(2026, 10, 1)), any());
+        order.verify(pendingRepository).deleteById(1L);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void backfill_ShouldDoNothing_WhenNoUserIsPending() {
+        when(pendingRepository.findAllUserIds()).thenReturn(List.of());
+
+        backfill.backfill();
+
+        verifyNoInteractions(bookRepository, sessionLocks, transactionManager);
+    }
+}
@@ -1,11 +1,11 @@
 package com.example.minilibrary.books;
 
-import com.example.minilibrary.sessions.ReadingSession;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.time.Instant;
-import java.util.List;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -38,128 +38,79 @@ class ReadingGoalProgressCalculatorTest {
     }
 
     @Test
-    void calculateProgress_ShouldReturnZero_WhenSessionsAreNull() {
+    void calculateProgress_ShouldReturnZero_WhenNothingRecorded() {
         Book book = createBook();
         book.setReadingGoalType(ReadingGoalType.WEEKLY);
         book.setReadingGoalPages(100);
-        book.setReadingSessions(null);
 
         assertEquals(0, calculator.calculateProgress(book));
     }
 
     @Test
-    void calculateProgress_ShouldReturnZero_WhenNoSessionsInPeriod() {
+    void calculateProgress_Weekly_ShouldReturnCurrentWeekCounter() {
         Book book = createBook();
         book.setReadingGoalType(ReadingGoalType.WEEKLY);
         book.setReadingGoalPages(100);
-
-        ReadingSession session = new ReadingSession();
-        session.setEndTime(Instant.parse("2020-01-01T00:00:00Z"));
-        session.setPagesRead(50);
-        book.setReadingSessions(List.of(session));
-
-        assertEquals(0, calculator.calculateProgress(book));
-    }
-
-    @Test
-    void calculateProgress_Weekly_ShouldSumPagesRead() {
-        Book book = createBook();
-        book.setReadingGoalType(ReadingGoalType.WEEKLY);
-        book.setReadingGoalPages(100);
-
-        ReadingSession session = new ReadingSession();
-        session.setEndTime(Instant.now());
-        session.setPagesRead(25);
-
-        book.setReadingSessions(List.of(session));
+        book.setWeeklyProgress(new GoalPeriodProgress(
+                calculator.periodStart(ReadingGoalType.WEEKLY, LocalDate.now()), 25));
+        book.setMonthlyProgress(new GoalPeriodProgress(
+                calculator.periodStart(ReadingGoalType.MONTHLY, LocalDate.now()), 80));
 
         assertEquals(25, calculator.calculateProgress(book));
     }
 
     @Test
-    void calculateProgress_Monthly_ShouldSumPagesRead() {
+    void calculateProgress_Monthly_ShouldReturnCurrentMonthCounter() {
         Book book = createBook();
         book.setReadingGoalType(ReadingGoalType.MONTHLY);
         book.setReadingGoalPages(200);
+        book.setWeeklyProgress(new GoalPeriodProgress(
+                calculator.periodStart(ReadingGoalType.WEEKLY, LocalDate.now()), 25));
+        book.setMonthlyProgress(new GoalPeriodProgress(
+                calculator.periodStart(ReadingGoalType.MONTHLY, LocalDate.now()), 80));
 
-        ReadingSession s1 = new ReadingSession();
-        s1.setEndTime(Instant.now());
-        s1.setPagesRead(30);
-
-        ReadingSession s2 = new ReadingSession();
-        s2.setEndTime(Instant.now());
-        s2.setPagesRead(20);
-
-        book.setReadingSessions(List.of(s1, s2));
-
-        assertEquals(50, calculator.calculateProgress(book));
+        assertEquals(80, calculator.calculateProgress(book));
     }
 
     @Test
-    void calculateProgress_ShouldFilterOutSessionsWithNullEndTime() {
+    void calculateProgress_ShouldReturnZero_WhenCounterBelongsToPastPeriod() {
         Book book = createBook();
         book.setReadingGoalType(ReadingGoalType.WEEKLY);
         book.setReadingGoalPages(100);
+        book.setWeeklyProgress(new GoalPeriodProgress(LocalDate.of(2020, 1, 6), 50));
 
-        ReadingSession activeSession = new ReadingSession();
-        activeSession.setEndTime(null);
-        activeSession.setPagesRead(99);
-
-        ReadingSession completedSession = new ReadingSession();
-        completedSession.setEndTime(Instant.now());
-        completedSession.setPagesRead(10);
-
-        book.setReadingSessions(List.of(activeSession, completedSession));
-
-        assertEquals(10, calculator.calculateProgress(book));
+        assertEquals(0, calculator.calculateProgress(book));
     }
 
     @Test
-    void calculateProgress_ShouldReturnZero_WhenPagesReadIsNullAndEndPageExists() {
+    void calculateProgress_ShouldReadPeriodFromClock() {
         Book book = createBook();
         book.setReadingGoalType(ReadingGoalType.WEEKLY);
         book.setReadingGoalPages(100);
+        book.setWeeklyProgress(new GoalPeriodProgress(LocalDate.of(2026, 10, 12), 40));
 
-        ReadingSession session = new ReadingSession();
-        session.setEndTime(Instant.now());
-        session.setPagesRead(null);
-        session.setEndPage(50);
-
-        book.setReadingSessions(List.of(session));
-
-        assertEquals(0, calculator.calculateProgress(book));
+        assertEquals(40, new ReadingGoalProgressCalculator(clockAt(LocalDate.of(2026, 10, 18)))
+                .calculateProgress(book));
+        assertEquals(0, new ReadingGoalProgressCalculator(clockAt(LocalDate.of(2026, 10, 19)))
+                .calculateProgress(book));
     }
 
     @Test
-    void calculateProgress_ShouldReturnZero_WhenPagesReadAndEndPageAreNull() {
-        Book book = createBook();
-        book.setReadingGoalType(ReadingGoalType.WEEKLY);
-        book.setReadingGoalPages(100);
-
-        ReadingSession session = new ReadingSession();
-        session.setEndTime(Instant.now());
-        session.setPagesRead(null);
-        session.setEndPage(null);
-
-        book.setReadingSessions(List.of(session));
-
-        assertEquals(0, calculator.calculateProgress(book));
+    void periodStart_Weekly_ShouldReturnMonday() {
+        assertEquals(LocalDate.of(2024, 3, 11),
+                calculator.periodStart(ReadingGoalType.WEEKLY, LocalDate.of(2024, 3, 14)));
+        assertEquals(LocalDate.of(2024, 3, 11),
+                calculator.periodStart(ReadingGoalType.WEEKLY, LocalDate.of(2024, 3, 11)));
     }
 
     @Test
-    void calculateProgress_ShouldReturnZero_WhenEndPageIsZero() {
-        Book book = createBook();
-        book.setReadingGoalType(ReadingGoalType.WEEKLY);
-        book.setReadingGoalPages(100);
-
-        ReadingSession session = new ReadingSession();
-        session.setEndTime(Instant.now());
-        session.setPagesRead(null);
-        session.setEndPage(0);
-
-        book.setReadingSessions(List.of(session));
+    void periodStart_Monthly_ShouldReturnFirstOfMonth() {
+        assertEquals(LocalDate.of(2024, 3, 1),
+                calculator.periodStart(ReadingGoalType.MONTHLY, LocalDate.of(2024, 3, 31)));
+    }
 
-        assertEquals(0, calculator.calculateProgress(book));
+    private Clock clockAt(LocalDate day) {
+        return Clock.fixed(day.atTime(12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
     }
 
     private Book createBook() {
@@ -0,0 +1,127 @@
+package com.example.minilibrary.discovery;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(3).toNanos();
+
+    private final AtomicLong now = new AtomicLong();
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new CircuitBreaker(10, 4, 50, 80, Duration.ofSeconds(2), Duration.ofSeconds(30), now::get);
+    }
+
+    @Test
+    void shouldStayClosed_BelowMinimumCalls() {
+        record(3, FAST, true);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertNotEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void shouldOpen_WhenFailureRateReachesThreshold() {
+        record(2, FAST, false);
+        record(2, FAST, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void shouldOpen_WhenSlowCallRateReachesThreshold() {
+        record(1, FAST, false);
+        record(4, SLOW, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void shouldOnlyCountCallsInsideWindow() {
+        record(4, FAST, false);
+        record(3, FAST, true);
+        record(3, FAST, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        // the three failures slide out of the window
+        record(7, FAST, false);
+        record(4, FAST, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        // 5 of the last 10 failed, although only 8 of all 21 did
+        record(1, FAST, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void shouldLetOneProbeThrough_AfterOpenDuration_AndCloseOnSuccess() {
+        record(4, FAST, true);
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        long probe = breaker.tryAcquire();
+        assertNotEquals(CircuitBreaker.REJECTED, probe);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+
+        breaker.record(probe, FAST, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertNotEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void shouldReopen_WhenProbeFailsOrIsSlow() {
+        record(4, FAST, true);
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        breaker.record(breaker.tryAcquire(), FAST, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        breaker.record(breaker.tryAcquire(), SLOW, false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void lateOutcomeWhileOpen_ShouldBeIgnored() {
+        long early = breaker.tryAcquire();
+        record(4, FAST, true);
+
+        breaker.record(early, FAST, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void lateOutcomeWhileHalfOpen_ShouldNotCountAsProbe() {
+        long early = breaker.tryAcquire();
+        record(4, FAST, true);
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        long probe = breaker.tryAcquire();
+
+        // the call from before the circuit opened succeeds while the probe is in flight
+        breaker.record(early, FAST, false);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+
+        breaker.record(probe, FAST, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    private void record(int calls, long elapsedNanos, boolean failure) {
+        for (int i = 0; i < calls; i++) {
+            long permit = breaker.tryAcquire();
+            assertNotEquals(CircuitBreaker.REJECTED, permit);
+            breaker.record(permit, elapsedNanos, failure);
+        }
+    }
+}
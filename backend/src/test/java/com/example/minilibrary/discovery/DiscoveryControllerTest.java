@@ -1,6 +1,8 @@
 package com.example.minilibrary.discovery;
 
 import com.example.minilibrary.auth.User;
+import com.example.minilibrary.books.OwnedIsbns;
+import com.example.minilibrary.discovery.dto.DiscoveryResponse;
 import com.example.minilibrary.discovery.dto.RecommendedBookDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,16 +19,17 @@ import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.method.support.ModelAndViewContainer;
 
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -64,21 +67,23 @@ class DiscoveryControllerTest {
         void logSearch_ShouldCallService() throws Exception {
                 mockMvc.perform(post("/api/discovery/search-log")
                                 .param("query", "test"))
-                                .andExpect(status().isOk());
+                                .andExpect(status().isAccepted());
 
                 verify(discoveryService).logSearch(anyString(), any());
         }
 
         @Test
         void getAuthorRecommendations_ShouldReturnData() throws Exception {
-                when(discoveryService.getOwnedIsbns(any())).thenReturn(new HashSet<>());
+                when(discoveryService.getOwnedIsbns(any())).thenReturn(OwnedIsbns.of(List.of()));
                 when(discoveryService.getTopAuthors(any(), anyInt())).thenReturn(List.of("Author1"));
                 RecommendedBookDto book = new RecommendedBookDto(
                                 "title", List.of("Author1"), List.of("Cat1"), "2023", 100, "isbn123", "url");
                 when(discoveryService.getRecommendationsByAuthor(anyString(), any(), anyInt()))
-                                .thenReturn(List.of(book));
+                                .thenReturn(CompletableFuture.completedFuture(List.of(book)));
 
-                mockMvc.perform(get("/api/discovery/authors"))
+                mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/discovery/authors"))
+                                                .andExpect(request().asyncStarted())
+                                                .andReturn()))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.authors[0]").value("Author1"))
                                 .andExpect(jsonPath("$.books[0].title").value("title"));
@@ -86,10 +91,12 @@ class DiscoveryControllerTest {
 
         @Test
         void getAuthorRecommendations_ShouldReturnEmptyBooks_WhenNoAuthors() throws Exception {
-                when(discoveryService.getOwnedIsbns(any())).thenReturn(new HashSet<>());
+                when(discoveryService.getOwnedIsbns(any())).thenReturn(OwnedIsbns.of(List.of()));
                 when(discoveryService.getTopAuthors(any(), anyInt())).thenReturn(Collections.emptyList());
 
-                mockMvc.perform(get("/api/discovery/authors"))
+                mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/discovery/authors"))
+                                                .andExpect(request().asyncStarted())
+                                                .andReturn()))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.authors").isEmpty())
                                 .andExpect(jsonPath("$.books").isEmpty());
@@ -97,24 +104,28 @@ class DiscoveryControllerTest {
 
         @Test
         void getCategoryRecommendations_ShouldReturnData() throws Exception {
-                when(discoveryService.getOwnedIsbns(any())).thenReturn(new HashSet<>());
+                when(discoveryService.getOwnedIsbns(any())).thenReturn(OwnedIsbns.of(List.of()));
                 when(discoveryService.getTopCategories(any(), anyInt())).thenReturn(List.of("Cat1"));
                 RecommendedBookDto book = new RecommendedBookDto(
                                 "title", List.of("Author1"), List.of("Cat1"), "2023", 100, "isbn123", "url");
                 when(discoveryService.getRecommendationsByCategory(anyString(), any(), anyInt()))
-                                .thenReturn(List.of(book));
+                                .thenReturn(CompletableFuture.completedFuture(List.of(book)));
 
-                mockMvc.perform(get("/api/discovery/categories"))
+                mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/discovery/categories"))
+                                                .andExpect(request().asyncStarted())
+                                                .andReturn()))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.categories[0]").value("Cat1"));
         }
 
         @Test
         void getCategoryRecommendations_ShouldReturnEmptyBooks_WhenNoCategories() throws Exception {
-                when(discoveryService.getOwnedIsbns(any())).thenReturn(new HashSet<>());
+                when(discoveryService.getOwnedIsbns(any())).thenReturn(OwnedIsbns.of(List.of()));
                 when(discoveryService.getTopCategories(any(), anyInt())).thenReturn(Collections.emptyList());
 
-                mockMvc.perform(get("/api/discovery/categories"))
+                mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/discovery/categories"))
+                                                .andExpect(request().asyncStarted())
+                                                .andReturn()))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.categories").isEmpty())
                                 .andExpect(jsonPath("$.books").isEmpty());
@@ -122,24 +133,28 @@ class DiscoveryControllerTest {
 
         @Test
         void getRecentSearchRecommendations_ShouldReturnData() throws Exception {
-                when(discoveryService.getOwnedIsbns(any())).thenReturn(new HashSet<>());
+                when(discoveryService.getOwnedIsbns(any())).thenReturn(OwnedIsbns.of(List.of()));
                 when(discoveryService.getRecentSearches(any(), anyInt())).thenReturn(List.of("Query1"));
                 RecommendedBookDto book = new RecommendedBookDto(
                                 "title", List.of("Author1"), List.of("Cat1"), "2023", 100, "isbn123", "url");
                 when(discoveryService.getRecommendationsByQuery(anyString(), any(), anyInt()))
-                                .thenReturn(List.of(book));
+                                .thenReturn(CompletableFuture.completedFuture(List.of(book)));
 
-                mockMvc.perform(get("/api/discovery/recent-searches"))
+                mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/discovery/recent-searches"))
+                                                .andExpect(request().asyncStarted())
+                                                .andReturn()))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.queries[0]").value("Query1"));
         }
 
         @Test
         void getRecentSearchRecommendations_ShouldReturnEmptyBooks_WhenNoSearches() throws Exception {
-                when(discoveryService.getOwnedIsbns(any())).thenReturn(new HashSet<>());
+                when(discoveryService.getOwnedIsbns(any())).thenReturn(OwnedIsbns.of(List.of()));
                 when(discoveryService.getRecentSearches(any(), anyInt())).thenReturn(Collections.emptyList());
 
-                mockMvc.perform(get("/api/discovery/recent-searches"))
+                mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/discovery/recent-searches"))
+                                                .andExpect(request().asyncStarted())
+                                                .andReturn()))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.queries").isEmpty())
                                 .andExpect(jsonPath("$.books").isEmpty());
@@ -147,39 +162,37 @@ class DiscoveryControllerTest {
 
         @Test
         void getDiscoveryData_ShouldReturnAllSections() throws Exception {
-                when(discoveryService.getOwnedIsbns(any())).thenReturn(new HashSet<>());
-                when(discoveryService.getTopAuthors(any(), anyInt())).thenReturn(Collections.emptyList());
-                when(discoveryService.getTopCategories(any(), anyInt())).thenReturn(Collections.emptyList());
-                when(discoveryService.getRecentSearches(any(), anyInt())).thenReturn(Collections.emptyList());
-
-                mockMvc.perform(get("/api/discovery"))
-                                .andExpect(status().isOk())
-                                .andExpect(jsonPath("$.byAuthor").exists())
-                                .andExpect(jsonPath("$.byCategory").exists())
-                                .andExpect(jsonPath("$.bySearch").exists());
-        }
-
-        @Test
-        void getDiscoveryData_ShouldReturnAllSections_WithNonEmptyData() throws Exception {
-                when(discoveryService.getOwnedIsbns(any())).thenReturn(new HashSet<>());
-                when(discoveryService.getTopAuthors(any(), anyInt())).thenReturn(List.of("Author1"));
-                when(discoveryService.getTopCategories(any(), anyInt())).thenReturn(List.of("Cat1"));
-                when(discoveryService.getRecentSearches(any(), anyInt())).thenReturn(List.of("Query1"));
-
                 RecommendedBookDto book = new RecommendedBookDto(
                                 "title", List.of("Author1"), List.of("Cat1"), "2023", 100, "isbn123", "url");
-                when(discoveryService.getRecommendationsByAuthor(anyString(), any(), anyInt()))
-                                .thenReturn(List.of(book));
-                when(discoveryService.getRecommendationsByCategory(anyString(), any(), anyInt()))
-                                .thenReturn(List.of(book));
-                when(discoveryService.getRecommendationsByQuery(anyString(), any(), anyInt()))
-                                .thenReturn(List.of(book));
-
-                mockMvc.perform(get("/api/discovery"))
+                when(discoveryService.getDiscoveryFeed(any(), eq(false))).thenReturn(CompletableFuture.completedFuture(
+                                new DiscoveryResponse(
+                                                new DiscoveryResponse.AuthorSection(List.of("Author1"), List.of(book)),
+                                                new DiscoveryResponse.CategorySection(List.of("Cat1"), List.of()),
+                                                new DiscoveryResponse.SearchSection(List.of("Query1"), List.of()))));
+
+                mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/discovery"))
+                                                .andExpect(request().asyncStarted())
+                                                .andReturn()))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.byAuthor.authors[0]").value("Author1"))
                                 .andExpect(jsonPath("$.byAuthor.books[0].title").value("title"))
                                 .andExpect(jsonPath("$.byCategory.categories[0]").value("Cat1"))
                                 .andExpect(jsonPath("$.bySearch.queries[0]").value("Query1"));
         }
+
+        @Test
+        void getDiscoveryData_ShouldBypassFeed_WhenFreshRequested() throws Exception {
+                when(discoveryService.getDiscoveryFeed(any(), eq(true))).thenReturn(CompletableFuture.completedFuture(
+                                new DiscoveryResponse(
+                                                new DiscoveryResponse.AuthorSection(List.of(), List.of()),
+                                                new DiscoveryResponse.CategorySection(List.of(), List.of()),
+                                                new DiscoveryResponse.SearchSection(List.of(), List.of()))));
+
+                mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/discovery").param("fresh", "true"))
+                                                .andExpect(request().asyncStarted())
+                                                .andReturn()))
+                                .andExpect(status().isOk());
+
+                verify(discoveryService).getDiscoveryFeed(any(), eq(true));
+        }
 }
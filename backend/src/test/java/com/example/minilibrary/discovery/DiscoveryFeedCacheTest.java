@@ -0,0 +1,133 @@
+package com.example.minilibrary.discovery;
+
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.books.LibraryVersionTracker;
+import com.example.minilibrary.books.ReadingGoalProgressCalculator;
+import com.example.minilibrary.discovery.dto.DiscoveryResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscoveryFeedCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final LibraryVersionTracker libraryVersionTracker = new LibraryVersionTracker(
+            new ReadingGoalProgressCalculator());
+    private final DiscoveryResponse response = new DiscoveryResponse(
+            new DiscoveryResponse.AuthorSection(List.of("Author"), List.of()),
+            new DiscoveryResponse.CategorySection(List.of(), List.of()),
+            new DiscoveryResponse.SearchSection(List.of(), List.of()));
+
+    private DiscoveryFeedCache feedCache;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        feedCache = new DiscoveryFeedCache(libraryVersionTracker, 100, Duration.ofMinutes(15), Duration.ofHours(1),
+                now::get, new SimpleMeterRegistry());
+        user = new User();
+        user.setId(1L);
+    }
+
+    @Test
+    void getIfCurrent_ShouldReturnFeed_WhileNothingChanged() {
+        feedCache.put(user, feedCache.stamp(1L), response);
+
+        assertSame(response, feedCache.getIfCurrent(1L));
+        assertTrue(feedCache.staleUsers().isEmpty());
+        assertNull(feedCache.getIfCurrent(2L));
+    }
+
+    @Test
+    void feed_ShouldBeStale_AfterLibraryChange() {
+        feedCache.put(user, feedCache.stamp(1L), response);
+
+        libraryVersionTracker.markChanged(1L);
+
+        assertNull(feedCache.getIfCurrent(1L));
+        assertEquals(List.of(user), feedCache.staleUsers());
+    }
+
+    @Test
+    void feed_ShouldBeStale_AfterSearchChange() {
+        feedCache.put(user, feedCache.stamp(1L), response);
+
+        feedCache.searchChanged(1L);
+
+        assertNull(feedCache.getIfCurrent(1L));
+    }
+
+    @Test
+    void feed_ShouldBeStale_AfterTtl() {
+        feedCache.put(user, feedCache.stamp(1L), response);
+
+        now.addAndGet(Duration.ofMinutes(15).toNanos());
+
+        assertNull(feedCache.getIfCurrent(1L));
+        assertEquals(List.of(user), feedCache.staleUsers());
+    }
+
+    @Test
+    void feedBuiltFromStampTakenBeforeChange_ShouldBeStale() {
+        DiscoveryFeedCache.Stamp stamp = feedCache.stamp(1L);
+        feedCache.searchChanged(1L);
+
+        feedCache.put(user, stamp, response);
+
+        assertNull(feedCache.getIfCurrent(1L));
+    }
+
+    @Test
+    void searchChanged_ShouldBumpAgainAfterTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            feedCache.searchChanged(1L);
+            DiscoveryFeedCache.Stamp duringTransaction = feedCache.stamp(1L);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+            assertNotEquals(duringTransaction, feedCache.stamp(1L));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void feed_ShouldExpire_WhenNotReadWithinIdleTimeout_DespiteRefreshes() {
+        feedCache.put(user, feedCache.stamp(1L), response);
+
+        for (int i = 0; i < 3; i++) {
+            now.addAndGet(Duration.ofMinutes(15).toNanos());
+            assertEquals(List.of(user), feedCache.staleUsers());
+            feedCache.refreshed(user, feedCache.stamp(1L), response);
+        }
+        now.addAndGet(Duration.ofMinutes(15).toNanos());
+
+        // an hour after the last read the feed is gone, and a late refresh does not bring it back
+        assertTrue(feedCache.staleUsers().isEmpty());
+        feedCache.refreshed(user, feedCache.stamp(1L), response);
+        assertNull(feedCache.getIfCurrent(1L));
+        assertTrue(feedCache.staleUsers().isEmpty());
+    }
+
+    @Test
+    void read_ShouldKeepFeedAlive_AcrossRefreshes() {
+        feedCache.put(user, feedCache.stamp(1L), response);
+
+        now.addAndGet(Duration.ofMinutes(45).toNanos());
+        assertNull(feedCache.getIfCurrent(1L)); // out of date, but read
+        feedCache.refreshed(user, feedCache.stamp(1L), response);
+        now.addAndGet(Duration.ofMinutes(45).toNanos());
+
+        assertEquals(List.of(user), feedCache.staleUsers());
+    }
+}
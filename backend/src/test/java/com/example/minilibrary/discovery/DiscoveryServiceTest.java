@@ -1,18 +1,25 @@
 package com.example.minilibrary.discovery;
 
 import com.example.minilibrary.auth.User;
-import com.example.minilibrary.books.BookRepository;
+import com.example.minilibrary.books.AuthorStatsService;
+import com.example.minilibrary.books.BookCategoryRepository;
+import com.example.minilibrary.books.OwnedIsbnIndex;
+import com.example.minilibrary.books.OwnedIsbns;
+import com.example.minilibrary.discovery.dto.DiscoveryResponse;
 import com.example.minilibrary.discovery.dto.RecommendedBookDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -24,16 +31,29 @@ class DiscoveryServiceTest {
     @Mock
     private SearchHistoryRepository searchHistoryRepository;
     @Mock
-    private BookRepository bookRepository;
+    private OwnedIsbnIndex ownedIsbnIndex;
+    @Mock
+    private BookCategoryRepository bookCategoryRepository;
+    @Mock
+    private AuthorStatsService authorStatsService;
     @Mock
     private GoogleBooksClient googleBooksClient;
-    @InjectMocks
+    @Mock
+    private DiscoveryFeedCache feedCache;
+    @Mock
+    private SearchLogWriter searchLogWriter;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private DiscoveryService discoveryService;
 
     private User user;
 
     @BeforeEach
     void setUp() {
+        discoveryService = new DiscoveryService(searchHistoryRepository, ownedIsbnIndex, bookCategoryRepository,
+                authorStatsService, googleBooksClient, feedCache, searchLogWriter, transactionManager,
+                Runnable::run, 2, 1000);
         user = new User();
         user.setId(1L);
     }
@@ -41,68 +61,42 @@ class DiscoveryServiceTest {
     // --- logSearch ---
 
     @Test
-    void logSearch_ShouldSave_WhenQueryValid() {
-        when(searchHistoryRepository.existsByUserAndQueryAndTimestampAfter(eq(user), eq("test"), any()))
-                .thenReturn(false);
-        when(searchHistoryRepository.countByUser(user)).thenReturn(0L);
-
-        discoveryService.logSearch("test", user);
-        verify(searchHistoryRepository).save(any());
+    void logSearch_ShouldQueueTrimmedQuery() {
+        discoveryService.logSearch("  test ", user);
+        verify(searchLogWriter).enqueue(1L, "test");
     }
 
     @Test
     void logSearch_ShouldSkip_WhenQueryNull() {
         discoveryService.logSearch(null, user);
-        verify(searchHistoryRepository, never()).save(any());
+        verifyNoInteractions(searchLogWriter);
     }
 
     @Test
     void logSearch_ShouldSkip_WhenQueryEmpty() {
         discoveryService.logSearch("   ", user);
-        verify(searchHistoryRepository, never()).save(any());
-    }
-
-    @Test
-    void logSearch_ShouldSkip_WhenDuplicate() {
-        when(searchHistoryRepository.existsByUserAndQueryAndTimestampAfter(eq(user), eq("test"), any()))
-                .thenReturn(true);
-
-        discoveryService.logSearch("test", user);
-        verify(searchHistoryRepository, never()).save(any());
-    }
-
-    @Test
-    void logSearch_ShouldDeleteOldest_WhenOverLimit() {
-        when(searchHistoryRepository.existsByUserAndQueryAndTimestampAfter(eq(user), eq("test"), any()))
-                .thenReturn(false);
-        when(searchHistoryRepository.countByUser(user)).thenReturn(50L);
-
-        discoveryService.logSearch("test", user);
-        verify(searchHistoryRepository).deleteOldestByUserId(user.getId());
-        verify(searchHistoryRepository).save(any());
+        verifyNoInteractions(searchLogWriter);
     }
 
     // --- getTopAuthors ---
 
     @Test
-    void getTopAuthors_ShouldReturnLimitedList() {
-        when(bookRepository.findTopAuthorsByUser(user)).thenReturn(List.of("A", "B", "C", "D"));
+    void getTopAuthors_ShouldReadAuthorCounters() {
+        when(authorStatsService.getTopAuthors(user, 2)).thenReturn(List.of("A", "B"));
 
         List<String> result = discoveryService.getTopAuthors(user, 2);
-        assertEquals(2, result.size());
-        assertEquals("A", result.get(0));
+        assertEquals(List.of("A", "B"), result);
     }
 
     // --- getTopCategories ---
 
     @Test
-    void getTopCategories_ShouldParseAndSort() {
-        when(bookRepository.findAllCategoriesByUser(user))
-                .thenReturn(List.of("Thriller, Krimi", "Thriller", "Sci-Fi"));
+    void getTopCategories_ShouldQueryTopNInDatabase() {
+        when(bookCategoryRepository.findTopNamesByUser(user, Limit.of(2)))
+                .thenReturn(List.of("Thriller", "Krimi"));
 
         List<String> result = discoveryService.getTopCategories(user, 2);
-        assertEquals(2, result.size());
-        assertEquals("Thriller", result.get(0)); // count 2
+        assertEquals(List.of("Thriller", "Krimi"), result);
     }
 
     // --- getRecentSearches ---
@@ -120,54 +114,54 @@ class DiscoveryServiceTest {
 
     @Test
     void getRecommendationsByAuthor_ShouldReturnBooks() {
-        Set<String> ownedIsbns = new HashSet<>(List.of("owned123"));
+        OwnedIsbns ownedIsbns = OwnedIsbns.of(List.of("9780306406157"));
 
         RecommendedBookDto book = new RecommendedBookDto(
-                "Book Title", List.of("Author"), null, null, 200, "isbn456", null);
+                "Book Title", List.of("Author"), null, null, 200, "9781861972712", null);
 
-        when(googleBooksClient.getBooksByAuthor("Author", 5)).thenReturn(List.of(book));
+        when(googleBooksClient.getBooksByAuthor("Author", 5)).thenReturn(CompletableFuture.completedFuture(List.of(book)));
 
-        var result = discoveryService.getRecommendationsByAuthor("Author", ownedIsbns, 5);
+        var result = discoveryService.getRecommendationsByAuthor("Author", ownedIsbns, 5).join();
         assertEquals(1, result.size());
         assertEquals("Book Title", result.get(0).title());
     }
 
     @Test
     void getRecommendationsByAuthor_ShouldExcludeOwnedBooks() {
-        Set<String> ownedIsbns = new HashSet<>(List.of("isbn123"));
+        OwnedIsbns ownedIsbns = OwnedIsbns.of(List.of("0-306-40615-2"));
 
         RecommendedBookDto book = new RecommendedBookDto(
-                "Owned Book", List.of("Author"), null, null, 200, "isbn123", null);
+                "Owned Book", List.of("Author"), null, null, 200, "9780306406157", null);
 
-        when(googleBooksClient.getBooksByAuthor("Author", 5)).thenReturn(List.of(book));
+        when(googleBooksClient.getBooksByAuthor("Author", 5)).thenReturn(CompletableFuture.completedFuture(List.of(book)));
 
-        var result = discoveryService.getRecommendationsByAuthor("Author", ownedIsbns, 5);
+        var result = discoveryService.getRecommendationsByAuthor("Author", ownedIsbns, 5).join();
         assertEquals(0, result.size());
     }
 
     @Test
     void getRecommendationsByCategory_ShouldReturnBooks() {
-        Set<String> ownedIsbns = new HashSet<>();
+        OwnedIsbns ownedIsbns = OwnedIsbns.of(List.of());
 
         RecommendedBookDto book = new RecommendedBookDto(
                 "Cat Book", null, null, null, null, null, null);
 
-        when(googleBooksClient.getBooksByCategory("Fiction", 5)).thenReturn(List.of(book));
+        when(googleBooksClient.getBooksByCategory("Fiction", 5)).thenReturn(CompletableFuture.completedFuture(List.of(book)));
 
-        var result = discoveryService.getRecommendationsByCategory("Fiction", ownedIsbns, 5);
+        var result = discoveryService.getRecommendationsByCategory("Fiction", ownedIsbns, 5).join();
         assertEquals(1, result.size());
     }
 
     @Test
     void getRecommendationsByQuery_ShouldReturnBooks() {
-        Set<String> ownedIsbns = new HashSet<>();
+        OwnedIsbns ownedIsbns = OwnedIsbns.of(List.of());
 
         RecommendedBookDto book = new RecommendedBookDto(
                 "Search Book", null, null, null, null, null, null);
 
-        when(googleBooksClient.getBooksByQuery("Java", 5)).thenReturn(List.of(book));
+        when(googleBooksClient.getBooksByQuery("Java", 5)).thenReturn(CompletableFuture.completedFuture(List.of(book)));
 
-        var result = discoveryService.getRecommendationsByQuery("Java", ownedIsbns, 5);
+        var result = discoveryService.getRecommendationsByQuery("Java", ownedIsbns, 5).join();
         assertEquals(1, result.size());
     }
 
@@ -175,10 +169,201 @@ class DiscoveryServiceTest {
 
     @Test
     void getOwnedIsbns_ShouldReturnSet() {
-        when(bookRepository.findAllIsbnsByUser(user)).thenReturn(List.of("isbn1", "isbn2"));
+        OwnedIsbns owned = OwnedIsbns.of(List.of("9780306406157"));
+        when(ownedIsbnIndex.forUser(user)).thenReturn(owned);
 
-        Set<String> result = discoveryService.getOwnedIsbns(user);
-        assertEquals(2, result.size());
-        assertTrue(result.contains("isbn1"));
+        assertSame(owned, discoveryService.getOwnedIsbns(user));
+    }
+
+    // --- getDiscoveryData ---
+
+    @Test
+    void getDiscoveryData_ShouldFetchSectionsConcurrently() {
+        stubTerms();
+        RecommendedBookDto book = new RecommendedBookDto("Found", null, null, null, null, "isbn-x", null);
+        when(googleBooksClient.getBooksByAuthor("Author", 10)).thenAnswer(i -> slow(List.of(book)));
+        when(googleBooksClient.getBooksByCategory("Cat", 10)).thenAnswer(i -> slow(List.of(book)));
+        when(googleBooksClient.getBooksByQuery("Query", 10)).thenAnswer(i -> slow(List.of(book)));
+
+        long start = System.nanoTime();
+        DiscoveryResponse response = discoveryService.getDiscoveryData(user).join();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(List.of("Author"), response.byAuthor().authors());
+        assertEquals(1, response.byAuthor().books().size());
+        assertEquals(1, response.byCategory().books().size());
+        assertEquals(1, response.bySearch().books().size());
+        // three 300ms calls: the max, not the sum
+        assertTrue(elapsedMillis < 800, "took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void getDiscoveryData_ShouldReturnEmptySection_WhenCallMissesDeadlineOrFails() {
+        discoveryService = new DiscoveryService(searchHistoryRepository, ownedIsbnIndex, bookCategoryRepository,
+                authorStatsService, googleBooksClient, feedCache, searchLogWriter, transactionManager,
+                Runnable::run, 2, 100);
+        stubTerms();
+        RecommendedBookDto book = new RecommendedBookDto("Fast", null, null, null, null, null, null);
+        when(googleBooksClient.getBooksByAuthor("Author", 10)).thenAnswer(i -> slow(List.of(book)));
+        when(googleBooksClient.getBooksByCategory("Cat", 10)).thenThrow(new IllegalStateException("boom"));
+        when(googleBooksClient.getBooksByQuery("Query", 10)).thenReturn(CompletableFuture.completedFuture(List.of(book)));
+
+        DiscoveryResponse response = discoveryService.getDiscoveryData(user).join();
+
+        assertTrue(response.byAuthor().books().isEmpty());
+        assertTrue(response.byCategory().books().isEmpty());
+        assertEquals(List.of("Cat"), response.byCategory().categories());
+        assertEquals(1, response.bySearch().books().size());
+    }
+
+    @Test
+    void getDiscoveryData_ShouldSkipCalls_WhenLibraryIsEmpty() {
+        when(ownedIsbnIndex.forUser(user)).thenReturn(OwnedIsbns.of(List.of()));
+        when(authorStatsService.getTopAuthors(user, 3)).thenReturn(List.of());
+        when(bookCategoryRepository.findTopNamesByUser(user, Limit.of(3))).thenReturn(List.of());
+        when(searchHistoryRepository.findDistinctQueriesByUserOrderByTimestampDesc(user)).thenReturn(List.of());
+
+        DiscoveryResponse response = discoveryService.getDiscoveryData(user).join();
+
+        assertTrue(response.byAuthor().books().isEmpty());
+        verifyNoInteractions(googleBooksClient);
+    }
+
+    @Test
+    void getDiscoveryData_ShouldCommitLibraryReads_BeforeCallingGoogle() {
+        stubTerms();
+        stubLookups(CompletableFuture.completedFuture(List.of()));
+
+        discoveryService.getDiscoveryData(user).join();
+
+        InOrder inOrder = inOrder(transactionManager, ownedIsbnIndex, searchHistoryRepository, googleBooksClient);
+        inOrder.verify(transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()));
+        inOrder.verify(ownedIsbnIndex).forUser(user);
+        inOrder.verify(searchHistoryRepository).findDistinctQueriesByUserOrderByTimestampDesc(user);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(googleBooksClient).getBooksByAuthor("Author", 10);
+    }
+
+    // --- materialized feed ---
+
+    @Test
+    void getDiscoveryFeed_ShouldServeCurrentFeed_WithoutRecomputing() {
+        DiscoveryResponse cached = emptyResponse();
+        when(feedCache.getIfCurrent(1L)).thenReturn(cached);
+
+        assertSame(cached, discoveryService.getDiscoveryFeed(user, false).join());
+        verifyNoInteractions(ownedIsbnIndex, authorStatsService, googleBooksClient);
+    }
+
+    @Test
+    void getDiscoveryFeed_ShouldBuildAndStore_WhenMissingOrStale() {
+        DiscoveryFeedCache.Stamp stamp = new DiscoveryFeedCache.Stamp(7, 0);
+        when(feedCache.getIfCurrent(1L)).thenReturn(null);
+        when(feedCache.stamp(1L)).thenReturn(stamp);
+        stubTerms();
+        stubLookups(CompletableFuture.completedFuture(List.of()));
+
+        DiscoveryResponse response = discoveryService.getDiscoveryFeed(user, false).join();
+
+        verify(feedCache).put(user, stamp, response);
+    }
+
+    @Test
+    void getDiscoveryFeed_ShouldBypassCache_WhenFresh() {
+        when(feedCache.stamp(1L)).thenReturn(new DiscoveryFeedCache.Stamp(7, 0));
+        stubTerms();
+        stubLookups(CompletableFuture.completedFuture(List.of()));
+
+        discoveryService.getDiscoveryFeed(user, true).join();
+
+        verify(feedCache, never()).getIfCurrent(any());
+        verify(feedCache).put(eq(user), any(), any());
+    }
+
+    @Test
+    void getDiscoveryFeed_ShouldNotStore_WhenSectionMissedDeadline() {
+        discoveryService = new DiscoveryService(searchHistoryRepository, ownedIsbnIndex, bookCategoryRepository,
+                authorStatsService, googleBooksClient, feedCache, searchLogWriter, transactionManager,
+                Runnable::run, 2, 50);
+        when(feedCache.stamp(1L)).thenReturn(new DiscoveryFeedCache.Stamp(7, 0));
+        stubTerms();
+        stubLookups(new CompletableFuture<>());
+
+        DiscoveryResponse response = discoveryService.getDiscoveryFeed(user, true).join();
+
+        assertTrue(response.byAuthor().books().isEmpty());
+        verify(feedCache, never()).put(any(), any(), any());
+    }
+
+    @Test
+    void refreshStaleFeeds_ShouldRebuildEachStaleUser_AndContinueAfterFailure() {
+        User broken = new User();
+        broken.setId(2L);
+        when(feedCache.staleUsers()).thenReturn(List.of(broken, user));
+        when(feedCache.stamp(any())).thenReturn(new DiscoveryFeedCache.Stamp(7, 0));
+        when(ownedIsbnIndex.forUser(broken)).thenThrow(new IllegalStateException("db down"));
+        stubTerms();
+        stubLookups(CompletableFuture.completedFuture(List.of()));
+
+        discoveryService.refreshStaleFeeds();
+
+        verify(feedCache).refreshed(eq(user), any(), any());
+        verify(feedCache, never()).refreshed(eq(broken), any(), any());
+        verify(feedCache, never()).put(any(), any(), any());
+    }
+
+    @Test
+    void refreshStaleFeeds_ShouldCapConcurrentRebuilds_WithoutWaitingForThem() {
+        discoveryService = new DiscoveryService(searchHistoryRepository, ownedIsbnIndex, bookCategoryRepository,
+                authorStatsService, googleBooksClient, feedCache, searchLogWriter, transactionManager,
+                Runnable::run, 2, 60_000);
+        List<User> users = LongStream.rangeClosed(1, 5).mapToObj(id -> {
+            User stale = new User();
+            stale.setId(id);
+            return stale;
+        }).toList();
+        when(feedCache.staleUsers()).thenReturn(users);
+        when(feedCache.stamp(any())).thenReturn(new DiscoveryFeedCache.Stamp(7, 0));
+        when(ownedIsbnIndex.forUser(any())).thenReturn(OwnedIsbns.of(List.of()));
+        when(authorStatsService.getTopAuthors(any(), eq(3))).thenReturn(List.of("Author"));
+        CompletableFuture<List<RecommendedBookDto>> lookup = new CompletableFuture<>();
+        when(googleBooksClient.getBooksByAuthor("Author", 10)).thenReturn(lookup);
+
+        discoveryService.refreshStaleFeeds();
+        discoveryService.refreshStaleFeeds(); // the first pass is still running
+
+        verify(googleBooksClient, times(2)).getBooksByAuthor("Author", 10);
+        verify(feedCache, times(1)).staleUsers();
+
+        lookup.complete(List.of());
+
+        verify(feedCache, times(5)).refreshed(any(), any(), any());
+        discoveryService.refreshStaleFeeds();
+        verify(feedCache, times(2)).staleUsers();
+    }
+
+    private void stubLookups(CompletableFuture<List<RecommendedBookDto>> result) {
+        when(googleBooksClient.getBooksByAuthor("Author", 10)).thenReturn(result);
+        when(googleBooksClient.getBooksByCategory("Cat", 10)).thenReturn(result);
+        when(googleBooksClient.getBooksByQuery("Query", 10)).thenReturn(result);
+    }
+
+    private static DiscoveryResponse emptyResponse() {
+        return new DiscoveryResponse(
+                new DiscoveryResponse.AuthorSection(List.of(), List.of()),
+                new DiscoveryResponse.CategorySection(List.of(), List.of()),
+                new DiscoveryResponse.SearchSection(List.of(), List.of()));
+    }
+
+    private void stubTerms() {
+        when(ownedIsbnIndex.forUser(user)).thenReturn(OwnedIsbns.of(List.of()));
+        when(authorStatsService.getTopAuthors(user, 3)).thenReturn(List.of("Author"));
+        when(bookCategoryRepository.findTopNamesByUser(user, Limit.of(3))).thenReturn(List.of("Cat"));
+        when(searchHistoryRepository.findDistinctQueriesByUserOrderByTimestampDesc(user))
+                .thenReturn(List.of("Query"));
+    }
+
+    private static <T> CompletableFuture<T> slow(T value) {
+        return CompletableFuture.supplyAsync(() -> value, CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS));
     }
 }
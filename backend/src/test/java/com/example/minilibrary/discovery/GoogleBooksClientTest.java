@@ -1,111 +1,275 @@
 package com.example.minilibrary.discovery;
 
+import com.example.minilibrary.discovery.dto.RecommendedBookDto;
+import com.example.minilibrary.shared.http.OutboundCallGuard;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.when;
 
-@ExtendWith(MockitoExtension.class)
+/** Runs the client against a local stub of the volumes endpoint. */
 class GoogleBooksClientTest {
 
-    @Mock
-    private RestTemplate restTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> requestedQueries = new CopyOnWriteArrayList<>();
+    private final Deque<StubResponse> responses = new ArrayDeque<>();
+    private volatile CountDownLatch responseGate = new CountDownLatch(0);
 
-    @InjectMocks
+    private HttpServer server;
+    private SimpleMeterRegistry meterRegistry;
     private GoogleBooksClient googleBooksClient;
 
+    private record StubResponse(int status, String body) {
+    }
+
     @BeforeEach
-    void setUp() {
-        ReflectionTestUtils.setField(googleBooksClient, "googleBooksApiUrl", "https://mock-api.com");
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/volumes", exchange -> {
+            requestedQueries.add(exchange.getRequestURI().getRawQuery());
+            try {
+                responseGate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StubResponse response;
+            synchronized (responses) {
+                response = responses.size() > 1 ? responses.poll() : responses.peek();
+            }
+            byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(response.status(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        googleBooksClient = client(3600);
+    }
+
+    private GoogleBooksClient client(long ttlSeconds) {
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+        String url = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/volumes";
+        GoogleBooksGuard guard = new GoogleBooksGuard(20, 20, 10, 50, 2000, 80, 30, meterRegistry);
+        return new GoogleBooksClient(httpClient, objectMapper, url, 2000, ttlSeconds, 600, 1000, 24, guard,
+                new OutboundCallGuard(true, meterRegistry), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
     }
 
     @Test
-    void getBooksByAuthor_ShouldReturnBooks() {
-        Map<String, Object> volumeInfo = Map.of(
+    void getBooksByAuthor_ShouldReturnBooks() throws Exception {
+        respond(200, Map.of("items", List.of(Map.of("volumeInfo", Map.of(
                 "title", "Book Title",
                 "authors", List.of("Author"),
-                "pageCount", 200);
-        Map<String, Object> item = Map.of("volumeInfo", volumeInfo);
-        Map<String, Object> response = Map.of("items", List.of(item));
+                "pageCount", 200)))));
 
-        when(restTemplate.getForObject(anyString(), eq(Map.class))).thenReturn(response);
+        var result = googleBooksClient.getBooksByAuthor("Author", 5).join();
 
-        var result = googleBooksClient.getBooksByAuthor("Author", 5);
         assertEquals(1, result.size());
         assertEquals("Book Title", result.get(0).title());
+        assertEquals(200, result.get(0).pageCount());
+        assertEquals(List.of(withFields("q=inauthor:author&maxResults=5")), requestedQueries);
+    }
+
+    @Test
+    void lookup_ShouldFail_WhenCallerHoldsTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(IllegalStateException.class, () -> googleBooksClient.getBooksByAuthor("Author", 5));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertTrue(requestedQueries.isEmpty());
     }
 
     @Test
-    void getBooksByCategory_ShouldReturnBooks() {
-        Map<String, Object> volumeInfo = Map.of("title", "Cat Book");
-        Map<String, Object> item = Map.of("volumeInfo", volumeInfo);
-        when(restTemplate.getForObject(anyString(), eq(Map.class)))
-                .thenReturn(Map.of("items", List.of(item)));
+    void getBooksByCategory_ShouldReturnBooks() throws Exception {
+        respond(200, Map.of("items", List.of(Map.of("volumeInfo", Map.of("title", "Cat Book")))));
+
+        var result = googleBooksClient.getBooksByCategory("Fiction", 5).join();
 
-        var result = googleBooksClient.getBooksByCategory("Fiction", 5);
-        assertEquals(1, result.size());
         assertEquals("Cat Book", result.get(0).title());
+        assertEquals(List.of(withFields("q=subject:fiction&maxResults=5")), requestedQueries);
     }
 
     @Test
-    void getBooksByQuery_ShouldReturnBooks() {
-        Map<String, Object> volumeInfo = Map.of("title", "Search Book");
-        Map<String, Object> item = Map.of("volumeInfo", volumeInfo);
-        when(restTemplate.getForObject(anyString(), eq(Map.class)))
-                .thenReturn(Map.of("items", List.of(item)));
+    void getBooksByQuery_ShouldReturnBooks() throws Exception {
+        respond(200, Map.of("items", List.of(Map.of("volumeInfo", Map.of("title", "Search Book")))));
+
+        var result = googleBooksClient.getBooksByQuery("Java", 5).join();
 
-        var result = googleBooksClient.getBooksByQuery("Java", 5);
-        assertEquals(1, result.size());
         assertEquals("Search Book", result.get(0).title());
+        assertEquals(List.of(withFields("q=java&maxResults=5")), requestedQueries);
     }
 
     @Test
     void fetchBooks_ShouldReturnEmpty_WhenResponseNull() {
-        when(restTemplate.getForObject(anyString(), eq(Map.class))).thenReturn(null);
+        responses.add(new StubResponse(200, "null"));
 
-        var result = googleBooksClient.getBooksByAuthor("Author", 5);
-        assertTrue(result.isEmpty());
+        assertTrue(googleBooksClient.getBooksByAuthor("Author", 5).join().isEmpty());
     }
 
     @Test
-    void fetchBooks_ShouldReturnEmpty_WhenNoItems() {
-        when(restTemplate.getForObject(anyString(), eq(Map.class))).thenReturn(Map.of("totalItems", 0));
+    void fetchBooks_ShouldReturnEmpty_WhenNoItems() throws Exception {
+        respond(200, Map.of("totalItems", 0));
 
-        var result = googleBooksClient.getBooksByAuthor("Author", 5);
-        assertTrue(result.isEmpty());
+        assertTrue(googleBooksClient.getBooksByAuthor("Author", 5).join().isEmpty());
     }
 
     @Test
-    void fetchBooks_ShouldReturnEmpty_WhenApiThrows() {
-        when(restTemplate.getForObject(anyString(), eq(Map.class)))
-                .thenThrow(new org.springframework.web.client.RestClientException("API error"));
+    void fetchBooks_ShouldReturnEmpty_WhenApiFails() {
+        responses.add(new StubResponse(503, "{}"));
 
-        var result = googleBooksClient.getBooksByAuthor("Author", 5);
-        assertTrue(result.isEmpty());
+        assertTrue(googleBooksClient.getBooksByAuthor("Author", 5).join().isEmpty());
     }
 
     @Test
-    void mapToDto_ShouldExtractCoverUrl() {
-        Map<String, Object> volumeInfo = Map.of(
+    void fetchBooks_ShouldReturnEmpty_WhenBodyUnreadable() {
+        responses.add(new StubResponse(200, "<html>"));
+
+        assertTrue(googleBooksClient.getBooksByAuthor("Author", 5).join().isEmpty());
+    }
+
+    @Test
+    void mapToDto_ShouldExtractCoverUrlAndIsbn() throws Exception {
+        respond(200, Map.of("items", List.of(Map.of("volumeInfo", Map.of(
                 "title", "Book",
-                "imageLinks", Map.of("thumbnail", "http://thumb.jpg"));
-        Map<String, Object> item = Map.of("volumeInfo", volumeInfo);
-        when(restTemplate.getForObject(anyString(), eq(Map.class)))
-                .thenReturn(Map.of("items", List.of(item)));
+                "industryIdentifiers", List.of(Map.of("type", "ISBN_13", "identifier", "9780000000001")),
+                "imageLinks", Map.of("thumbnail", "http://thumb.jpg"))))));
+
+        var result = googleBooksClient.getBooksByQuery("test", 5).join();
 
-        var result = googleBooksClient.getBooksByQuery("test", 5);
         assertEquals("http://thumb.jpg", result.get(0).coverUrl());
+        assertEquals("9780000000001", result.get(0).isbn());
+    }
+
+    @Test
+    void repeatedQuery_ShouldBeServedFromCache() throws Exception {
+        respond(200, Map.of("items", List.of(Map.of("volumeInfo", Map.of("title", "Cached")))));
+
+        googleBooksClient.getBooksByAuthor("Author", 5).join();
+        var result = googleBooksClient.getBooksByAuthor("Author", 5).join();
+
+        assertEquals("Cached", result.get(0).title());
+        assertEquals(1, requestedQueries.size());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", GoogleBooksClient.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get(GoogleBooksClient.REQUESTS_METRIC).tag("flight", "leader")
+                .counter().count());
+    }
+
+    @Test
+    void concurrentMisses_ShouldBeCountedAsCoalesced() throws Exception {
+        respond(200, Map.of("items", List.of(Map.of("volumeInfo", Map.of("title", "Shared")))));
+        responseGate = new CountDownLatch(1);
+
+        List<CompletableFuture<List<RecommendedBookDto>>> lookups = List.of(
+                googleBooksClient.getBooksByAuthor("Author", 5),
+                googleBooksClient.getBooksByAuthor("Author", 5),
+                googleBooksClient.getBooksByAuthor("Author", 5));
+        responseGate.countDown();
+
+        lookups.forEach(lookup -> assertEquals("Shared", lookup.join().get(0).title()));
+        assertEquals(1, requestedQueries.size());
+        assertEquals(1.0, meterRegistry.get(GoogleBooksClient.REQUESTS_METRIC).tag("flight", "leader")
+                .counter().count());
+        assertEquals(2.0, meterRegistry.get(GoogleBooksClient.REQUESTS_METRIC).tag("flight", "coalesced")
+                .counter().count());
+    }
+
+    @Test
+    void equivalentTerms_ShouldShareOneEntry() throws Exception {
+        respond(200, Map.of("totalItems", 0));
+
+        googleBooksClient.getBooksByAuthor("Jane Austen", 5).join();
+        googleBooksClient.getBooksByAuthor("  jane   AUSTEN ", 5).join();
+
+        assertEquals(List.of(withFields("q=inauthor:jane+austen&maxResults=5")), requestedQueries);
+    }
+
+    @Test
+    void differentQueryTypesOrSizes_ShouldNotShareEntries() throws Exception {
+        respond(200, Map.of("totalItems", 0));
+
+        googleBooksClient.getBooksByAuthor("Java", 5).join();
+        googleBooksClient.getBooksByCategory("Java", 5).join();
+        googleBooksClient.getBooksByQuery("Java", 5).join();
+        googleBooksClient.getBooksByQuery("Java", 10).join();
+
+        assertEquals(4, requestedQueries.size());
+    }
+
+    @Test
+    void failedLookup_ShouldNotBeCached() throws Exception {
+        responses.add(new StubResponse(500, "{}"));
+        respond(200, Map.of("items", List.of(Map.of("volumeInfo", Map.of("title", "Recovered")))));
+
+        assertTrue(googleBooksClient.getBooksByQuery("Java", 5).join().isEmpty());
+        var result = googleBooksClient.getBooksByQuery("Java", 5).join();
+
+        assertEquals("Recovered", result.get(0).title());
+        assertEquals(2, requestedQueries.size());
+    }
+
+    @Test
+    void failedLookup_ShouldServeLastKnownGoodResult_AfterEntryExpired() throws Exception {
+        googleBooksClient = client(0);
+        respond(200, Map.of("items", List.of(Map.of("volumeInfo", Map.of("title", "Known Good")))));
+        responses.add(new StubResponse(503, "{}"));
+
+        googleBooksClient.getBooksByQuery("Java", 5).join();
+        var result = googleBooksClient.getBooksByQuery("Java", 5).join();
+
+        assertEquals(2, requestedQueries.size());
+        assertEquals("Known Good", result.get(0).title());
+    }
+
+    @Test
+    void nullTerm_ShouldBeNormalizedToEmpty() {
+        assertEquals("", BookQuery.of(BookQuery.Type.QUERY, null, 5).term());
+    }
+
+    @Test
+    void request_ShouldAskOnlyForBoundFields() {
+        responses.add(new StubResponse(200, "{}"));
+
+        googleBooksClient.getBooksByQuery("Java", 5).join();
+
+        assertTrue(requestedQueries.get(0).contains(
+                "&fields=" + URLEncoder.encode(VolumesResponse.FIELDS, StandardCharsets.UTF_8)));
+    }
+
+    private static String withFields(String query) {
+        return query + "&fields=" + URLEncoder.encode(VolumesResponse.FIELDS, StandardCharsets.UTF_8);
+    }
+
+    private void respond(int status, Object body) throws Exception {
+        responses.add(new StubResponse(status, objectMapper.writeValueAsString(body)));
     }
 }
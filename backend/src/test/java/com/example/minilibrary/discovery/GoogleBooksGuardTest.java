@@ -0,0 +1,84 @@
+package com.example.minilibrary.discovery;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoogleBooksGuardTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private GoogleBooksGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        CircuitBreaker breaker = new CircuitBreaker(4, 2, 50, 100, Duration.ofSeconds(2), Duration.ofSeconds(30),
+                now::get);
+        guard = new GoogleBooksGuard(2, breaker, now::get, meterRegistry);
+    }
+
+    @Test
+    void call_ShouldRejectBeyondMaxConcurrent_AndReleaseOnCompletion() {
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+
+        guard.call(() -> first);
+        guard.call(() -> second);
+        CompletableFuture<String> rejected = guard.call(() -> CompletableFuture.completedFuture("unused"));
+
+        assertInstanceOf(GoogleBooksException.class, assertThrows(CompletionException.class, rejected::join).getCause());
+        assertEquals(1.0, rejections("bulkhead"));
+        assertEquals(0.0, meterRegistry.get(GoogleBooksGuard.AVAILABLE_METRIC).gauge().value());
+
+        first.complete("done");
+        assertEquals("ok", guard.call(() -> CompletableFuture.completedFuture("ok")).join());
+    }
+
+    @Test
+    void call_ShouldFailFast_WhileCircuitOpen() {
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            guard.call(() -> {
+                calls.incrementAndGet();
+                throw new GoogleBooksException("down");
+            });
+        }
+        assertEquals(CircuitBreaker.State.OPEN, guard.state());
+        assertEquals(1.0, meterRegistry.get(GoogleBooksGuard.STATE_METRIC).gauge().value());
+
+        CompletableFuture<String> rejected = guard.call(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("unused");
+        });
+
+        assertThrows(CompletionException.class, rejected::join);
+        assertEquals(2, calls.get());
+        assertEquals(1.0, rejections("breaker"));
+        assertEquals(2.0, meterRegistry.get(GoogleBooksGuard.AVAILABLE_METRIC).gauge().value());
+    }
+
+    @Test
+    void call_ShouldCountSlowCalls() {
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<String> pending = new CompletableFuture<>();
+            guard.call(() -> pending);
+            now.addAndGet(Duration.ofSeconds(3).toNanos());
+            pending.complete("late");
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, guard.state());
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.get(GoogleBooksGuard.REJECTED_METRIC).tag("reason", reason).counter().count();
+    }
+}
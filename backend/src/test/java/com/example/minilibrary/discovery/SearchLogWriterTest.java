@@ -0,0 +1,143 @@
+package com.example.minilibrary.discovery;
+
+import com.example.minilibrary.auth.Role;
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.auth.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SearchLogWriterTest {
+
+    @Autowired
+    private SearchLogWriter searchLogWriter;
+
+    @Autowired
+    private SearchHistoryRepository searchHistoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DiscoveryFeedCache feedCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        searchHistoryRepository.deleteAll();
+        user = new User();
+        user.setEmail("searcher@example.com");
+        user.setPassword("password");
+        user.setRole(Role.USER);
+        user.setEnabled(true);
+        userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        searchHistoryRepository.deleteAll();
+        userRepository.delete(user);
+    }
+
+    @Test
+    void flush_ShouldWriteQueuedEntries() {
+        assertTrue(searchLogWriter.enqueue(user.getId(), "dune"));
+        assertTrue(searchLogWriter.enqueue(user.getId(), "hyperion"));
+
+        searchLogWriter.flush();
+
+        assertEquals(List.of("hyperion", "dune"),
+                searchHistoryRepository.findDistinctQueriesByUserOrderByTimestampDesc(user));
+    }
+
+    @Test
+    void flush_ShouldDeduplicateWithinBatchAndAgainstHistory() {
+        searchLogWriter.enqueue(user.getId(), "dune");
+        searchLogWriter.flush();
+
+        searchLogWriter.enqueue(user.getId(), "dune");
+        searchLogWriter.enqueue(user.getId(), "emma");
+        searchLogWriter.enqueue(user.getId(), "emma");
+        searchLogWriter.flush();
+
+        assertEquals(2, searchHistoryRepository.count());
+    }
+
+    @Test
+    void flush_ShouldKeepNewestEntriesPerUser_InBatchedStatements() {
+        for (int i = 0; i < SearchLogWriter.MAX_SEARCH_HISTORY_PER_USER + 10; i++) {
+            searchLogWriter.enqueue(user.getId(), "query " + i);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        searchLogWriter.flush();
+
+        assertEquals(SearchLogWriter.MAX_SEARCH_HISTORY_PER_USER, searchHistoryRepository.count());
+        List<String> kept = searchHistoryRepository.findDistinctQueriesByUserOrderByTimestampDesc(user);
+        assertTrue(kept.contains("query 59"));
+        assertFalse(kept.contains("query 9"));
+        // dedup lookup, a few sequence calls, two insert batches and the trim delete; not one per row
+        assertEquals(60, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() < 10, "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void flush_ShouldMarkFeedStale() {
+        DiscoveryFeedCache.Stamp before = feedCache.stamp(user.getId());
+
+        searchLogWriter.enqueue(user.getId(), "dune");
+        searchLogWriter.flush();
+
+        assertNotEquals(before, feedCache.stamp(user.getId()));
+    }
+
+    @Test
+    void enqueue_ShouldDropAndCount_WhenQueueFull() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SearchLogWriter writer = new SearchLogWriter(searchHistoryRepository, feedCache, transactionTemplate,
+                entityManager, 1, 10, meterRegistry);
+
+        assertTrue(writer.enqueue(user.getId(), "first"));
+        assertFalse(writer.enqueue(user.getId(), "second"));
+
+        assertEquals(1.0, meterRegistry.get(SearchLogWriter.DROPPED_METRIC).counter().count());
+        assertEquals(1.0, meterRegistry.get(SearchLogWriter.QUEUED_METRIC).gauge().value());
+    }
+
+    @Test
+    void flush_ShouldDropBatch_WhenWriteFails() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SearchLogWriter writer = new SearchLogWriter(searchHistoryRepository, feedCache, transactionTemplate,
+                entityManager, 10, 10, meterRegistry);
+        writer.enqueue(-1L, "unknown user");
+
+        writer.flush();
+
+        assertEquals(0, searchHistoryRepository.count());
+        assertEquals(1.0, meterRegistry.get(SearchLogWriter.DROPPED_METRIC).counter().count());
+    }
+}
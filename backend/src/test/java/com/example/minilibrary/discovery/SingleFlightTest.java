@@ -0,0 +1,102 @@
+package com.example.minilibrary.discovery;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private SingleFlight<String, String> singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        singleFlight = new SingleFlight<>();
+    }
+
+    @Test
+    void callsForSameKeyWhileInFlight_ShouldShareOneCall() {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(singleFlight.execute("key", () -> {
+                calls.incrementAndGet();
+                return upstream;
+            }));
+        }
+        upstream.complete("value");
+
+        results.forEach(result -> assertEquals("value", result.join()));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void differentKeys_ShouldNotBeCoalesced() {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        singleFlight.execute("a", () -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        singleFlight.execute("b", () -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void completedCall_ShouldNotBeReused() {
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute("key", () -> CompletableFuture.completedFuture("v" + calls.incrementAndGet())).join();
+        String second = singleFlight.execute("key",
+                () -> CompletableFuture.completedFuture("v" + calls.incrementAndGet())).join();
+
+        assertEquals("v2", second);
+    }
+
+    @Test
+    void callerCompletingItsCopy_ShouldNotAffectOthers() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute("key", () -> upstream);
+        CompletableFuture<String> second = singleFlight.execute("key", () -> upstream);
+        first.complete("tampered");
+        upstream.complete("value");
+
+        assertEquals("value", second.join());
+    }
+
+    @Test
+    void failure_ShouldPropagateToAllCallers_AndNotBeRetained() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> leader = singleFlight.execute("key", () -> upstream);
+        CompletableFuture<String> waiter = singleFlight.execute("key", () -> upstream);
+        upstream.completeExceptionally(new IllegalStateException("boom"));
+
+        assertInstanceOf(IllegalStateException.class, assertThrows(CompletionException.class, leader::join).getCause());
+        assertInstanceOf(IllegalStateException.class, assertThrows(CompletionException.class, waiter::join).getCause());
+        assertEquals("retry", singleFlight.execute("key", () -> CompletableFuture.completedFuture("retry")).join());
+    }
+
+    @Test
+    void callThrowing_ShouldYieldFailedFuture() {
+        CompletableFuture<String> result = singleFlight.execute("key", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertInstanceOf(IllegalStateException.class, assertThrows(CompletionException.class, result::join).getCause());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.minilibrary.discovery;
+
+import com.example.minilibrary.discovery.dto.RecommendedBookDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the former {@code Map<String, Object>} parsing of a volumes response with the typed
+ * {@link VolumesResponse} binding. Run {@link #main} from the IDE or, after {@code mvn test-compile},
+ * with the test classpath; {@code gc.alloc.rate.norm} is the allocation per parsed response.
+ * The payload is a full, unfiltered 40-item response, i.e. the worst case without {@code fields=}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VolumesParsingBenchmark {
+
+    private static final int ITEMS = 40;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ObjectReader typedReader;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        typedReader = objectMapper.readerFor(VolumesResponse.class);
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(Map.of(
+                    "kind", "books#volume",
+                    "id", "vol-" + i,
+                    "volumeInfo", Map.of(
+                            "title", "Title " + i,
+                            "authors", List.of("Author " + i, "Co-Author " + i),
+                            "categories", List.of("Fiction"),
+                            "publishedDate", "2001-01-01",
+                            "pageCount", 300 + i,
+                            "description", "A long description ".repeat(40),
+                            "industryIdentifiers", List.of(
+                                    Map.of("type", "ISBN_10", "identifier", "00000000" + (10 + i)),
+                                    Map.of("type", "ISBN_13", "identifier", "97800000000" + (10 + i))),
+                            "imageLinks", Map.of("smallThumbnail", "http://s/" + i, "thumbnail", "http://t/" + i),
+                            "language", "en"),
+                    "saleInfo", Map.of("country", "DE", "saleability", "NOT_FOR_SALE", "isEbook", false),
+                    "accessInfo", Map.of("viewability", "PARTIAL", "embeddable", true, "publicDomain", false),
+                    "searchInfo", Map.of("textSnippet", "A snippet ".repeat(10))));
+        }
+        payload = objectMapper.writeValueAsBytes(Map.of("kind", "books#volumes", "totalItems", ITEMS, "items", items));
+    }
+
+    @Benchmark
+    public List<RecommendedBookDto> typed() throws IOException {
+        return typedReader.<VolumesResponse>readValue(payload).toDtos();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public List<RecommendedBookDto> map() throws IOException {
+        Map<String, Object> response = objectMapper.readValue(payload, Map.class);
+        List<Map<String, Object>> items = (List<Map<String, Object>>) response.get("items");
+        return items.stream().map(VolumesParsingBenchmark::mapToDto).toList();
+    }
+
+    /** The mapping the client used before the typed binding, kept here as the baseline. */
+    @SuppressWarnings("unchecked")
+    private static RecommendedBookDto mapToDto(Map<String, Object> item) {
+        Map<String, Object> volumeInfo = (Map<String, Object>) item.get("volumeInfo");
+
+        String isbn = null;
+        List<Map<String, String>> identifiers = (List<Map<String, String>>) volumeInfo.get("industryIdentifiers");
+        if (identifiers != null) {
+            isbn = identifiers.stream()
+                    .filter(id -> "ISBN_13".equals(id.get("type")) || "ISBN_10".equals(id.get("type")))
+                    .map(id -> id.get("identifier"))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        String coverUrl = null;
+        Map<String, String> imageLinks = (Map<String, String>) volumeInfo.get("imageLinks");
+        if (imageLinks != null) {
+            coverUrl = imageLinks.getOrDefault("thumbnail", imageLinks.get("smallThumbnail"));
+        }
+
+        return new RecommendedBookDto((String) volumeInfo.get("title"), (List<String>) volumeInfo.get("authors"),
+                (List<String>) volumeInfo.get("categories"), (String) volumeInfo.get("publishedDate"),
+                (Integer) volumeInfo.get("pageCount"), isbn, coverUrl);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(VolumesParsingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.minilibrary.discovery;
+
+import com.example.minilibrary.discovery.dto.RecommendedBookDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VolumesResponseTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void read_ShouldBindVolumeInfoAndIgnoreUnknownFields() throws Exception {
+        String json = """
+                {"kind":"books#volumes","totalItems":1,"items":[{"id":"x","etag":"e",
+                 "volumeInfo":{"title":"Dune","authors":["Frank Herbert"],"categories":["Fiction"],
+                  "publishedDate":"1965","pageCount":412,"language":"en",
+                  "industryIdentifiers":[{"type":"OTHER","identifier":"X1"},{"type":"ISBN_10","identifier":"0441013597"}],
+                  "imageLinks":{"smallThumbnail":"http://small.jpg"}},
+                 "saleInfo":{"country":"DE"}}]}
+                """;
+
+        List<RecommendedBookDto> books = objectMapper.readValue(json, VolumesResponse.class).toDtos();
+
+        assertEquals(List.of(new RecommendedBookDto("Dune", List.of("Frank Herbert"), List.of("Fiction"), "1965",
+                412, "0441013597", "http://small.jpg")), books);
+    }
+
+    @Test
+    void toDtos_ShouldHandleMissingParts() throws Exception {
+        assertTrue(objectMapper.readValue("{}", VolumesResponse.class).toDtos().isEmpty());
+
+        List<RecommendedBookDto> books = objectMapper
+                .readValue("{\"items\":[{},{\"volumeInfo\":{\"title\":\"Bare\"}}]}", VolumesResponse.class)
+                .toDtos();
+
+        assertEquals(List.of(new RecommendedBookDto("Bare", null, null, null, null, null, null)), books);
+    }
+
+    @Test
+    void coverUrl_ShouldPreferThumbnail() {
+        assertEquals("big", new VolumesResponse.ImageLinks("big", "small").coverUrl());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.minilibrary.sessions;
+
+import com.example.minilibrary.books.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActiveSessionRegistryTest {
+
+    private final ActiveSessionRegistry registry = new ActiveSessionRegistry(100, 60, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void getIfPresent_ShouldDistinguishUnknownFromNoSession() {
+        assertNull(registry.getIfPresent(1L));
+
+        registry.loaded(1L, Optional.empty());
+
+        assertEquals(Optional.empty(), registry.getIfPresent(1L));
+    }
+
+    @Test
+    void get_ShouldLoadOnlyOnMiss() {
+        ActiveSession session = ActiveSession.of(session(SessionStatus.ACTIVE));
+
+        assertEquals(Optional.of(session), registry.get(1L, () -> Optional.of(session)));
+        assertEquals(Optional.of(session), registry.get(1L, () -> fail("should not reload")));
+    }
+
+    @Test
+    void saved_ShouldApplyOnCommit() {
+        registry.loaded(1L, Optional.empty());
+        TransactionSynchronizationManager.initSynchronization();
+
+        registry.saved(1L, session(SessionStatus.ACTIVE));
+        assertNull(registry.getIfPresent(1L));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(SessionStatus.ACTIVE, registry.getIfPresent(1L).orElseThrow().status());
+    }
+
+    @Test
+    void saved_ShouldDropEntry_OnRollback() {
+        registry.loaded(1L, Optional.empty());
+        TransactionSynchronizationManager.initSynchronization();
+
+        registry.saved(1L, session(SessionStatus.ACTIVE));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertNull(registry.getIfPresent(1L));
+    }
+
+    @Test
+    void saved_ShouldClearEntry_WhenSessionCompleted() {
+        registry.saved(1L, session(SessionStatus.PAUSED));
+        assertTrue(registry.getIfPresent(1L).isPresent());
+
+        registry.saved(1L, session(SessionStatus.COMPLETED));
+
+        assertEquals(Optional.empty(), registry.getIfPresent(1L));
+    }
+
+    @Test
+    void invalidate_ShouldDropAgainAfterTransactionCompletes() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        registry.invalidate(1L);
+        registry.loaded(1L, Optional.empty());
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertNull(registry.getIfPresent(1L));
+    }
+
+    private static void complete(int status) {
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(status));
+    }
+
+    private static ReadingSession session(SessionStatus status) {
+        Book book = new Book();
+        book.setId(10L);
+        ReadingSession session = new ReadingSession();
+        session.setId(5L);
+        session.setBook(book);
+        session.setStartTime(Instant.now());
+        session.setStatus(status);
+        return session;
+    }
+}
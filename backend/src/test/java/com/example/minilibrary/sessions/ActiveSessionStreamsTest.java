@@ -0,0 +1,160 @@
+package com.example.minilibrary.sessions;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class ActiveSessionStreamsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ActiveSessionStreams streams = new ActiveSessionStreams(1, Runnable::run, meterRegistry);
+    private StreamController controller;
+    private MockMvc mockMvc;
+
+    @RestController
+    static class StreamController {
+        private final ActiveSessionStreams streams;
+        private Supplier<Optional<ActiveSession>> state = Optional::empty;
+
+        StreamController(ActiveSessionStreams streams) {
+            this.streams = streams;
+        }
+
+        @GetMapping("/stream/{userId}")
+        SseEmitter stream(@PathVariable Long userId) {
+            return streams.subscribe(userId, state);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        controller = new StreamController(streams);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void subscribe_ShouldSendCurrentState() throws Exception {
+        String events = open(1L).getResponse().getContentAsString();
+
+        assertEquals("event:no-session\ndata:\n\n", events);
+        assertEquals(1, streams.subscriberCount(1L));
+        assertEquals(1, meterRegistry.get(ActiveSessionStreams.SUBSCRIBERS_METRIC).gauge().value());
+    }
+
+    @Test
+    void onChange_ShouldFanOutToEveryStreamOfThatUserOnly() throws Exception {
+        MvcResult phone = open(1L);
+        MvcResult laptop = open(1L);
+        MvcResult otherUser = open(2L);
+
+        streams.onChange(new ActiveSessionChanged(1L, Optional.of(session(SessionStatus.PAUSED))));
+
+        for (MvcResult stream : new MvcResult[] { phone, laptop }) {
+            String events = stream.getResponse().getContentAsString();
+            assertTrue(events.contains("event:session\ndata:{\"id\":5,\"bookId\":10,"), events);
+            assertTrue(events.contains("\"status\":\"PAUSED\""), events);
+        }
+        assertFalse(otherUser.getResponse().getContentAsString().contains("event:session"));
+    }
+
+    @Test
+    void onChange_ShouldIgnoreUsersWithoutStreams() {
+        assertDoesNotThrow(() -> streams.onChange(new ActiveSessionChanged(3L, Optional.empty())));
+    }
+
+    @Test
+    void onBookSessionsDeleted_ShouldEndStream_OnlyWhenOpenSessionWasForThatBook() throws Exception {
+        MvcResult stream = open(1L);
+        streams.onChange(new ActiveSessionChanged(1L, Optional.of(session(SessionStatus.ACTIVE))));
+
+        streams.onBookSessionsDeleted(new BookSessionsDeleted(1L, 20L));
+        assertFalse(stream.getResponse().getContentAsString().endsWith("event:no-session\ndata:\n\n"));
+
+        streams.onBookSessionsDeleted(new BookSessionsDeleted(1L, 10L));
+        assertTrue(stream.getResponse().getContentAsString().endsWith("event:no-session\ndata:\n\n"));
+        assertDoesNotThrow(() -> streams.onBookSessionsDeleted(new BookSessionsDeleted(3L, 10L)));
+    }
+
+    @Test
+    void subscribe_ShouldNotSendStaleState_WhenChangeIsPushedWhileReadingIt() throws Exception {
+        controller.state = () -> {
+            // a pause commits after the stream is registered but before the read returns
+            streams.onChange(new ActiveSessionChanged(1L, Optional.of(session(SessionStatus.PAUSED))));
+            return Optional.of(session(SessionStatus.ACTIVE));
+        };
+
+        String events = open(1L).getResponse().getContentAsString();
+
+        assertTrue(events.startsWith("event:session"), events);
+        assertTrue(events.contains("\"status\":\"PAUSED\""), events);
+        assertFalse(events.contains("\"status\":\"ACTIVE\""), events);
+    }
+
+    @Test
+    void onChange_ShouldOnlyQueueWrites_AndDeliverThemInOrder() throws Exception {
+        Queue<Runnable> queued = new ArrayDeque<>();
+        ActiveSessionStreams queuing = new ActiveSessionStreams(1, queued::add, meterRegistry);
+        MockMvc queuingMvc = MockMvcBuilders.standaloneSetup(new StreamController(queuing)).build();
+        MvcResult stream = queuingMvc.perform(get("/stream/1")).andExpect(request().asyncStarted()).andReturn();
+
+        queuing.onChange(new ActiveSessionChanged(1L, Optional.of(session(SessionStatus.ACTIVE))));
+        queuing.onChange(new ActiveSessionChanged(1L, Optional.of(session(SessionStatus.PAUSED))));
+
+        // the listener returned without touching the socket; only the first write is handed over yet
+        assertEquals("", stream.getResponse().getContentAsString());
+        assertEquals(1, queued.size());
+        while (!queued.isEmpty()) {
+            queued.poll().run();
+        }
+        String events = stream.getResponse().getContentAsString();
+        assertTrue(events.startsWith("event:no-session"), events);
+        assertTrue(events.indexOf("\"status\":\"ACTIVE\"") < events.indexOf("\"status\":\"PAUSED\""), events);
+    }
+
+    @Test
+    void heartbeat_ShouldSendComment() throws Exception {
+        MvcResult stream = open(1L);
+
+        streams.heartbeat();
+
+        assertTrue(stream.getResponse().getContentAsString().endsWith(":heartbeat\n\n"));
+    }
+
+    @Test
+    void completedStream_ShouldBeDropped() {
+        SseEmitter emitter = streams.subscribe(4L, Optional::empty);
+        emitter.complete();
+
+        streams.heartbeat();
+
+        assertEquals(0, streams.subscriberCount(4L));
+        assertEquals(0, meterRegistry.get(ActiveSessionStreams.SUBSCRIBERS_METRIC).gauge().value());
+    }
+
+    private MvcResult open(Long userId) throws Exception {
+        return mockMvc.perform(get("/stream/" + userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static ActiveSession session(SessionStatus status) {
+        return new ActiveSession(5L, 10L, Instant.parse("2026-01-01T10:00:00Z"), status, 0, null);
+    }
+}
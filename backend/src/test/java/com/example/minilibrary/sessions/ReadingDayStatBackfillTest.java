@@ -0,0 +1,108 @@
+package com.example.minilibrary.sessions;
+
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.books.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadingDayStatBackfillTest {
+
+    @Mock
+    private ReadingDayStatRepository dayStatRepository;
+    @Mock
+    private PendingDayStatBackfillRepository pendingRepository;
+    @Mock
+    private ReadingSessionRepository sessionRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReadingDayStatBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        backfill = new ReadingDayStatBackfill(dayStatRepository, pendingRepository, sessionRepository,
+                new SessionLocks(16), new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void backfill_ShouldRollUpCompletedSessionsPerBookAndDay() {
+        User user = new User();
+        user.setId(1L);
+        Book first = book(10L);
+        Book second = book(11L);
+        Instant morning = LocalDate.of(2026, 3, 2).atTime(8, 0).atZone(ZoneId.systemDefault()).toInstant();
+        Instant nextDay = morning.plusSeconds(24 * 3600);
+        when(pendingRepository.findAllUserIds()).thenReturn(List.of(1L));
+        when(sessionRepository.findByUserIdAndStatusAndEndTimeIsNotNull(1L, SessionStatus.COMPLETED)).thenReturn(List.of(
+                session(user, first, morning, 20, 5),
+                session(user, first, morning.plusSeconds(3600), 10, 3),
+                session(user, second, morning, 15, null),
+                session(user, first, nextDay, 0, null)));
+
+        backfill.backfill();
+
+        ArgumentCaptor<List<ReadingDayStat>> captor = ArgumentCaptor.forClass(List.class);
+        verify(dayStatRepository).saveAll(captor.capture());
+        List<ReadingDayStat> stats = captor.getValue();
+        // the zero-length session on the next day adds nothing
+        assertEquals(2, stats.size());
+        assertEquals(8, stats.get(0).getPages());
+        assertEquals(30 * 60_000, stats.get(0).getActiveMillis());
+        assertEquals(second, stats.get(1).getBook());
+        assertEquals(0, stats.get(1).getPages());
+        // rows written by stops since the rollup shipped are rebuilt, then the marker goes
+        InOrder order = inOrder(dayStatRepository, pendingRepository);
+        order.verify(dayStatRepository).bulkDeleteByUser(argThat(reference -> reference.getId().equals(1L)));
+        order.verify(dayStatRepository).saveAll(anyList());
+        order.verify(pendingRepository).deleteById(1L);
+        // one transaction per user
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void backfill_ShouldDoNothing_WhenNoUserIsPending() {
+        when(pendingRepository.findAllUserIds()).thenReturn(List.of());
+
+        backfill.backfill();
+
+        verify(dayStatRepository, never()).saveAll(anyList());
+        verifyNoInteractions(sessionRepository, transactionManager);
+    }
+
+    private static Book book(Long id) {
+        Book book = new Book();
+        book.setId(id);
+        return book;
+    }
+
+    private static ReadingSession session(User user, Book book, Instant start, int minutes, Integer pagesRead) {
+        ReadingSession session = new ReadingSession();
+        session.setUser(user);
+        session.setBook(book);
+        session.setStatus(SessionStatus.COMPLETED);
+        session.setStartTime(start);
+        session.setEndTime(start.plusSeconds(minutes * 60L));
+        session.setPagesRead(pagesRead);
+        return session;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.minilibrary.sessions;
+
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.books.Book;
+import com.example.minilibrary.sessions.dto.ReadingDayDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadingDayStatsServiceTest {
+
+    private static final Instant START = Instant.parse("2026-03-02T10:00:00Z");
+
+    @Mock
+    private ReadingDayStatRepository dayStatRepository;
+    @InjectMocks
+    private ReadingDayStatsService dayStatsService;
+
+    private User user;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1L);
+        book = new Book();
+        book.setId(10L);
+    }
+
+    @Test
+    void getDailyTotals_ShouldReadRollup() {
+        LocalDate from = LocalDate.of(2026, 3, 1);
+        LocalDate to = LocalDate.of(2026, 3, 31);
+        List<ReadingDayDto> totals = List.of(new ReadingDayDto(from, 12, 60_000));
+        when(dayStatRepository.findDailyTotals(user, from, to)).thenReturn(totals);
+
+        assertEquals(totals, dayStatsService.getDailyTotals(user, from, to));
+    }
+
+    @Test
+    void getDailyTotals_ShouldRejectInvertedRange() {
+        LocalDate day = LocalDate.of(2026, 3, 2);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> dayStatsService.getDailyTotals(user, day, day.minusDays(1)));
+        verifyNoInteractions(dayStatRepository);
+    }
+
+    @Test
+    void sessionCompleted_ShouldAddToExistingDay_NetOfPausedTime() {
+        ReadingSession session = completed(30, 600_000, 12);
+        when(dayStatRepository.add(user, book, dayOf(session), 12, 1_200_000)).thenReturn(1);
+
+        dayStatsService.sessionCompleted(session);
+
+        verify(dayStatRepository, never()).save(any());
+    }
+
+    @Test
+    void sessionCompleted_ShouldCreateDay_WhenFirstSessionOfTheDay() {
+        ReadingSession session = completed(30, 0, null);
+        when(dayStatRepository.add(user, book, dayOf(session), 0, 1_800_000)).thenReturn(0);
+
+        dayStatsService.sessionCompleted(session);
+
+        ArgumentCaptor<ReadingDayStat> captor = ArgumentCaptor.forClass(ReadingDayStat.class);
+        verify(dayStatRepository).save(captor.capture());
+        assertEquals(dayOf(session), captor.getValue().getDay());
+        assertEquals(0, captor.getValue().getPages());
+        assertEquals(1_800_000, captor.getValue().getActiveMillis());
+    }
+
+    @Test
+    void sessionCompleted_ShouldSkipEmptySession() {
+        // paused for longer than it lasted, e.g. an excluded break
+        dayStatsService.sessionCompleted(completed(1, 120_000, 0));
+
+        verifyNoInteractions(dayStatRepository);
+    }
+
+    @Test
+    void removals_ShouldBulkDelete() {
+        dayStatsService.bookRemoved(user, 10L);
+        dayStatsService.libraryRemoved(user);
+
+        verify(dayStatRepository).bulkDeleteByUserAndBookId(user, 10L);
+        verify(dayStatRepository).bulkDeleteByUser(user);
+    }
+
+    private ReadingSession completed(int minutes, long pausedMillis, Integer pagesRead) {
+        ReadingSession session = new ReadingSession();
+        session.setUser(user);
+        session.setBook(book);
+        session.setStatus(SessionStatus.COMPLETED);
+        session.setStartTime(START);
+        session.setEndTime(START.plusSeconds(minutes * 60L));
+        session.setPausedMillis(pausedMillis);
+        session.setPagesRead(pagesRead);
+        return session;
+    }
+
+    private static LocalDate dayOf(ReadingSession session) {
+        return LocalDate.ofInstant(session.getEndTime(), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.minilibrary.sessions;
+
+import com.example.minilibrary.auth.Role;
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.auth.UserRepository;
+import com.example.minilibrary.books.Book;
+import com.example.minilibrary.books.BookRepository;
+import com.example.minilibrary.shared.exception.IllegalSessionStateException;
+import com.example.minilibrary.shared.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives thousands of parallel state transitions and checks that no user ever ends up with more
+ * than one open session, and that the active-session registry agrees with the database.
+ */
+@SpringBootTest
+class ReadingSessionConcurrencyTest {
+
+    private static final int USERS = 8;
+    private static final int TRANSITIONS = 4_000;
+
+    @Autowired
+    private ReadingSessionService sessionService;
+    @Autowired
+    private ReadingSessionRepository sessionRepository;
+    @Autowired
+    private ReadingDayStatRepository dayStatRepository;
+    @Autowired
+    private OpenSessionBackfill openSessionBackfill;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dayStatRepository.deleteAll();
+        sessionRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void parallelTransitions_ShouldLeaveAtMostOneOpenSessionPerUser() throws InterruptedException {
+        List<User> users = new ArrayList<>();
+        List<List<Book>> books = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = user("stress-" + i);
+            users.add(user);
+            books.add(List.of(book(user, "978-0-306-40615-7"), book(user, "978-1-86197-271-2")));
+        }
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < TRANSITIONS; i++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    int index = random.nextInt(USERS);
+                    try {
+                        randomTransition(users.get(index), books.get(index), random.nextInt(6));
+                    } catch (ResourceNotFoundException | IllegalSessionStateException expected) {
+                        // the transition did not apply to the state it met
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        }
+
+        assertTrue(unexpected.isEmpty(), () -> "unexpected failures: " + unexpected);
+        Map<Long, Long> openPerUser = openSessionsPerUser();
+        for (User user : users) {
+            long open = openPerUser.getOrDefault(user.getId(), 0L);
+            assertTrue(open <= 1, "user " + user.getId() + " has " + open + " open sessions");
+            assertEquals(open == 1, sessionService.getActiveSession(user).isPresent());
+        }
+    }
+
+    @Test
+    void concurrentStarts_ShouldOpenOneSession() throws InterruptedException {
+        User user = user("starts");
+        Book book = book(user, "978-0-306-40615-7");
+        Queue<Long> sessionIds = new ConcurrentLinkedQueue<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                executor.submit(() -> sessionIds.add(sessionService.startSession(user, book.getId()).getId()));
+            }
+        }
+
+        assertEquals(200, sessionIds.size());
+        assertEquals(1, sessionIds.stream().distinct().count());
+        assertEquals(1L, openSessionsPerUser().get(user.getId()));
+    }
+
+    @Test
+    void database_ShouldRejectSecondOpenSession() {
+        User user = user("constraint");
+        Book book = book(user, "978-0-306-40615-7");
+        sessionRepository.save(session(user, book));
+
+        assertThrows(DataIntegrityViolationException.class, () -> sessionRepository.save(session(user, book)));
+    }
+
+    @Test
+    void backfill_ShouldCompleteDuplicatesAndTagNewestOpenSession() {
+        User user = user("legacy");
+        Book book = book(user, "978-0-306-40615-7");
+        // rows written before open_user_id existed
+        ReadingSession older = sessionRepository.save(session(user, book));
+        jdbcTemplate.update("UPDATE reading_session SET open_user_id = NULL WHERE id = ?", older.getId());
+        ReadingSession newer = session(user, book);
+        newer.setStartTime(older.getStartTime().plusSeconds(60));
+        newer = sessionRepository.save(newer);
+        jdbcTemplate.update("UPDATE reading_session SET open_user_id = NULL WHERE id = ?", newer.getId());
+
+        openSessionBackfill.backfill();
+
+        ReadingSession olderAfter = sessionRepository.findById(older.getId()).orElseThrow();
+        ReadingSession newerAfter = sessionRepository.findById(newer.getId()).orElseThrow();
+        assertEquals(SessionStatus.COMPLETED, olderAfter.getStatus());
+        assertEquals(olderAfter.getStartTime(), olderAfter.getEndTime());
+        assertNull(olderAfter.getOpenUserId());
+        assertEquals(SessionStatus.ACTIVE, newerAfter.getStatus());
+        assertEquals(user.getId(), newerAfter.getOpenUserId());
+    }
+
+    private void randomTransition(User user, List<Book> books, int choice) {
+        switch (choice) {
+            case 0, 1 -> sessionService.startSession(user, books.get(choice).getId());
+            case 2 -> sessionService.pauseSession(user);
+            case 3 -> sessionService.resumeSession(user);
+            case 4 -> sessionService.excludeTime(user, 10L);
+            default -> sessionService.stopSession(user, Instant.now(), null);
+        }
+    }
+
+    private Map<Long, Long> openSessionsPerUser() {
+        return jdbcTemplate.queryForList(
+                "SELECT user_id FROM reading_session WHERE status IN ('ACTIVE', 'PAUSED')", Long.class)
+                .stream()
+                .collect(Collectors.groupingBy(id -> id, Collectors.counting()));
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setEmail(name + "-" + System.nanoTime() + "@example.com");
+        user.setPassword("password");
+        user.setRole(Role.USER);
+        user.setEnabled(true);
+        return userRepository.save(user);
+    }
+
+    private Book book(User user, String isbn) {
+        Book book = new Book();
+        book.setTitle("Stress Book");
+        book.setIsbn(isbn);
+        book.setAuthor("Author");
+        book.setUser(user);
+        book.setPageCount(100);
+        book.setCurrentPage(0);
+        return bookRepository.save(book);
+    }
+
+    private static ReadingSession session(User user, Book book) {
+        ReadingSession session = new ReadingSession();
+        session.setUser(user);
+        session.setBook(book);
+        session.setStartTime(Instant.now());
+        session.setStatus(SessionStatus.ACTIVE);
+        return session;
+    }
+}
@@ -5,7 +5,11 @@ import com.example.minilibrary.auth.Role;
 import com.example.minilibrary.auth.User;
 import com.example.minilibrary.books.BookRepository;
 import com.example.minilibrary.auth.UserRepository;
+import com.example.minilibrary.shared.security.JwtTokenService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,13 +22,19 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Map;
 
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -45,17 +55,34 @@ class ReadingSessionControllerIntegrationTest {
         @Autowired
         private ReadingSessionRepository sessionRepository;
 
+        @Autowired
+        private ReadingDayStatRepository dayStatRepository;
+
+        @Autowired
+        private PendingDayStatBackfillRepository pendingBackfillRepository;
+
+        @Autowired
+        private ReadingDayStatBackfill dayStatBackfill;
+
         @Autowired
         private PasswordEncoder passwordEncoder;
 
         @Autowired
         private ObjectMapper objectMapper;
 
+        @Autowired
+        private JwtTokenService jwtTokenService;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
         private User testUser;
         private Book testBook;
 
         @BeforeEach
         void setUp() {
+                pendingBackfillRepository.deleteAll();
+                dayStatRepository.deleteAll();
                 sessionRepository.deleteAll();
                 bookRepository.deleteAll();
 
@@ -152,10 +179,117 @@ class ReadingSessionControllerIntegrationTest {
                                 .andExpect(jsonPath("$.status", is("ACTIVE")));
         }
 
+        @Test
+        void testStartSession_WithBearerToken_ShouldNotLoadUser() throws Exception {
+                String token = jwtTokenService.createToken(testUser);
+                Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+                statistics.clear();
+
+                mockMvc.perform(post("/api/sessions/start")
+                                .header("Authorization", "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of("bookId", testBook.getId()))))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.status", is("ACTIVE")));
+
+                assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+                assertEquals(1, sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(testUser,
+                                java.util.List.of(SessionStatus.ACTIVE)).stream().count());
+        }
+
         @Test
         @WithMockUser(username = "reader@example.com")
         void testGetActiveSession_None() throws Exception {
                 mockMvc.perform(get("/api/sessions/active"))
                                 .andExpect(status().isNoContent());
         }
+
+        @Test
+        @WithMockUser(username = "reader@example.com")
+        void testActiveSessionStream_ShouldPushChanges() throws Exception {
+                MvcResult stream = mockMvc.perform(get("/api/sessions/active/stream"))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+                await().atMost(Duration.ofSeconds(5)).until(
+                                () -> stream.getResponse().getContentAsString().contains("event:no-session"));
+
+                mockMvc.perform(post("/api/sessions/start")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                                new com.example.minilibrary.sessions.dto.StartSessionRequest(
+                                                                testBook.getId()))))
+                                .andExpect(status().isOk());
+                mockMvc.perform(post("/api/sessions/active/pause"))
+                                .andExpect(status().isOk());
+
+                // events are written off the request thread
+                await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+                        String events = stream.getResponse().getContentAsString();
+                        assertTrue(events.contains("\"status\":\"ACTIVE\""), events);
+                        assertTrue(events.contains("\"status\":\"PAUSED\""), events);
+                });
+        }
+
+        @Test
+        @WithMockUser(username = "reader@example.com")
+        void testStopSession_ShouldRollUpDailyTotals() throws Exception {
+                mockMvc.perform(post("/api/sessions/start")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of("bookId", testBook.getId()))))
+                                .andExpect(status().isOk());
+                var stopRequest = new com.example.minilibrary.sessions.dto.StopSessionRequest(
+                                Instant.now().plusSeconds(600), 25);
+                mockMvc.perform(post("/api/sessions/stop")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(stopRequest)))
+                                .andExpect(status().isOk());
+
+                LocalDate today = LocalDate.now();
+                mockMvc.perform(get("/api/sessions/daily")
+                                .param("from", today.minusDays(1).toString())
+                                .param("to", today.plusDays(1).toString()))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()", is(1)))
+                                .andExpect(jsonPath("$[0].pages", is(25)))
+                                .andExpect(jsonPath("$[0].activeMillis", greaterThan(500_000)));
+                assertEquals(1, dayStatRepository.count());
+        }
+
+        @Test
+        @WithMockUser(username = "reader@example.com")
+        void testDayStatBackfill_ShouldRebuildPendingUser_IncludingStopsBeforeIt() throws Exception {
+                // history from before the rollup, and the marker its migration left
+                ReadingSession old = new ReadingSession();
+                old.setUser(testUser);
+                old.setBook(testBook);
+                old.setStatus(SessionStatus.COMPLETED);
+                old.setStartTime(Instant.now().minusSeconds(3600));
+                old.setEndTime(Instant.now().minusSeconds(3000));
+                old.setPagesRead(10);
+                sessionRepository.save(old);
+                pendingBackfillRepository.save(new PendingDayStatBackfill(testUser.getId()));
+                // a stop between the deploy and the backfill already wrote a row
+                mockMvc.perform(post("/api/sessions/start")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of("bookId", testBook.getId()))))
+                                .andExpect(status().isOk());
+                var stopRequest = new com.example.minilibrary.sessions.dto.StopSessionRequest(
+                                Instant.now().plusSeconds(600), 25);
+                mockMvc.perform(post("/api/sessions/stop")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(stopRequest)))
+                                .andExpect(status().isOk());
+
+                dayStatBackfill.backfill();
+                dayStatBackfill.backfill();
+
+                LocalDate today = LocalDate.now();
+                mockMvc.perform(get("/api/sessions/daily")
+                                .param("from", today.minusDays(1).toString())
+                                .param("to", today.plusDays(1).toString()))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()", is(1)))
+                                .andExpect(jsonPath("$[0].pages", is(35)));
+                assertEquals(0, pendingBackfillRepository.count());
+        }
 }
@@ -1,6 +1,7 @@
 package com.example.minilibrary.sessions;
 
 import com.example.minilibrary.sessions.dto.ExcludeTimeRequest;
+import com.example.minilibrary.sessions.dto.ReadingDayDto;
 import com.example.minilibrary.sessions.dto.StartSessionRequest;
 import com.example.minilibrary.sessions.dto.StopSessionRequest;
 import com.example.minilibrary.books.Book;
@@ -15,17 +16,22 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +39,10 @@ class ReadingSessionControllerTest {
 
     @Mock
     private ReadingSessionService sessionService;
+    @Mock
+    private ReadingDayStatsService dayStatsService;
+    @Mock
+    private ActiveSessionStreams sessionStreams;
 
     @InjectMocks
     private ReadingSessionController sessionController;
@@ -92,11 +102,27 @@ class ReadingSessionControllerTest {
 
     @Test
     void getActiveSession_ShouldReturnSession_WhenExists() throws Exception {
-        when(sessionService.getActiveSession(any())).thenReturn(Optional.of(session));
+        when(sessionService.getActiveSession(any())).thenReturn(Optional.of(ActiveSession.of(session)));
 
         mockMvc.perform(get("/api/sessions/active"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(10));
+                .andExpect(jsonPath("$.id").value(10))
+                .andExpect(jsonPath("$.bookId").value(1))
+                .andExpect(jsonPath("$.status").value("ACTIVE"));
+    }
+
+    @Test
+    void streamActiveSession_ShouldSubscribeWithCurrentState() throws Exception {
+        Optional<ActiveSession> current = Optional.of(ActiveSession.of(session));
+        when(sessionService.getActiveSession(any())).thenReturn(current);
+        when(sessionStreams.subscribe(any(), any())).thenAnswer(invocation -> {
+            Supplier<Optional<ActiveSession>> state = invocation.getArgument(1);
+            assertEquals(current, state.get());
+            return new SseEmitter();
+        });
+
+        mockMvc.perform(get("/api/sessions/active/stream"))
+                .andExpect(request().asyncStarted());
     }
 
     @Test
@@ -142,4 +168,18 @@ class ReadingSessionControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(10));
     }
+
+    @Test
+    void getDailyTotals_ShouldReturnDays() throws Exception {
+        LocalDate from = LocalDate.of(2026, 3, 1);
+        LocalDate to = LocalDate.of(2026, 3, 7);
+        when(dayStatsService.getDailyTotals(any(), eq(from), eq(to)))
+                .thenReturn(List.of(new ReadingDayDto(LocalDate.of(2026, 3, 2), 12, 1_200_000)));
+
+        mockMvc.perform(get("/api/sessions/daily").param("from", "2026-03-01").param("to", "2026-03-07"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].day").value("2026-03-02"))
+                .andExpect(jsonPath("$[0].pages").value(12))
+                .andExpect(jsonPath("$[0].activeMillis").value(1_200_000));
+    }
 }
@@ -7,12 +7,16 @@ import com.example.minilibrary.shared.exception.IllegalSessionStateException;
 import com.example.minilibrary.shared.exception.ResourceNotFoundException;
 
 import com.example.minilibrary.books.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.List;
@@ -31,7 +35,11 @@ class ReadingSessionServiceTest {
     private BookRepository bookRepository;
     @Mock
     private BookProgressService bookProgressService;
-    @InjectMocks
+    @Mock
+    private ReadingDayStatsService dayStatsService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private ReadingSessionService sessionService;
 
     private User user;
@@ -39,6 +47,9 @@ class ReadingSessionServiceTest {
 
     @BeforeEach
     void setUp() {
+        sessionService = new ReadingSessionService(sessionRepository, bookRepository, bookProgressService,
+                dayStatsService, new ActiveSessionRegistry(100, 60, new SimpleMeterRegistry()), new SessionLocks(16),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), eventPublisher);
         user = new User();
         user.setId(1L);
         book = new Book();
@@ -75,17 +86,20 @@ class ReadingSessionServiceTest {
     @Test
     void startSession_ShouldResumePausedSession_WhenSameBook() {
         ReadingSession paused = new ReadingSession();
+        paused.setId(5L);
         paused.setBook(book);
         paused.setStatus(SessionStatus.PAUSED);
         paused.setPausedAt(Instant.now().minusSeconds(60));
 
         when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList()))
-                .thenReturn(Optional.of(paused)) // First call: find existing (ACTIVE or PAUSED)
-                .thenReturn(Optional.of(paused)); // Second call: find PAUSED for resume
+                .thenReturn(Optional.of(paused));
+        // the nested resume finds it through the registry, by id
+        when(sessionRepository.findById(5L)).thenReturn(Optional.of(paused));
         when(sessionRepository.save(any(ReadingSession.class))).thenAnswer(i -> i.getArgument(0));
 
         ReadingSession result = sessionService.startSession(user, 10L);
         assertEquals(SessionStatus.ACTIVE, result.getStatus());
+        verify(sessionRepository, times(1)).findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList());
     }
 
     @Test
@@ -94,18 +108,21 @@ class ReadingSessionServiceTest {
         otherBook.setId(20L);
 
         ReadingSession existing = new ReadingSession();
+        existing.setId(5L);
         existing.setBook(otherBook);
         existing.setStatus(SessionStatus.ACTIVE);
 
         when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList()))
-                .thenReturn(Optional.of(existing)) // startSession check
-                .thenReturn(Optional.of(existing)) // stopSession finds it
-                .thenReturn(Optional.empty()); // After stop, no more active
+                .thenReturn(Optional.of(existing));
+        // the nested stop finds it through the registry, by id
+        when(sessionRepository.findById(5L)).thenReturn(Optional.of(existing));
         when(bookRepository.findByIdAndUserId(10L, 1L)).thenReturn(Optional.of(book));
         when(sessionRepository.save(any(ReadingSession.class))).thenAnswer(i -> i.getArgument(0));
 
         ReadingSession result = sessionService.startSession(user, 10L);
         assertEquals(book, result.getBook());
+        assertEquals(SessionStatus.COMPLETED, existing.getStatus());
+        verify(sessionRepository, times(1)).findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList());
     }
 
     @Test
@@ -130,6 +147,7 @@ class ReadingSessionServiceTest {
 
         ReadingSession result = sessionService.stopSession(user, Instant.now(), null);
         assertEquals(SessionStatus.COMPLETED, result.getStatus());
+        verify(dayStatsService).sessionCompleted(session);
     }
 
     @Test
@@ -144,6 +162,7 @@ class ReadingSessionServiceTest {
 
         ReadingSession result = sessionService.stopSession(user, Instant.now(), 50);
         assertEquals(50, result.getPagesRead()); // endPage(50) - currentPage(0)
+        verify(bookProgressService).recordPagesRead(eq(book), eq(50), any(Instant.class));
         verify(bookProgressService).updateProgress(book, 50);
     }
 
@@ -250,9 +269,10 @@ class ReadingSessionServiceTest {
     @Test
     void pauseSession_ShouldSetPaused() {
         ReadingSession session = new ReadingSession();
+        session.setBook(book);
         session.setStatus(SessionStatus.ACTIVE);
-        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user),
-                eq(List.of(SessionStatus.ACTIVE)))).thenReturn(Optional.of(session));
+        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList()))
+                .thenReturn(Optional.of(session));
         when(sessionRepository.save(any(ReadingSession.class))).thenAnswer(i -> i.getArgument(0));
 
         ReadingSession result = sessionService.pauseSession(user);
@@ -262,8 +282,8 @@ class ReadingSessionServiceTest {
 
     @Test
     void pauseSession_ShouldThrow_WhenNoActiveSession() {
-        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user),
-                eq(List.of(SessionStatus.ACTIVE)))).thenReturn(Optional.empty());
+        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList()))
+                .thenReturn(Optional.empty());
 
         assertThrows(IllegalSessionStateException.class, () -> sessionService.pauseSession(user));
     }
@@ -273,11 +293,12 @@ class ReadingSessionServiceTest {
     @Test
     void resumeSession_ShouldSetActive() {
         ReadingSession session = new ReadingSession();
+        session.setBook(book);
         session.setStatus(SessionStatus.PAUSED);
         session.setPausedAt(Instant.now().minusSeconds(10));
         session.setPausedMillis(0L);
-        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user),
-                eq(List.of(SessionStatus.PAUSED)))).thenReturn(Optional.of(session));
+        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList()))
+                .thenReturn(Optional.of(session));
         when(sessionRepository.save(any(ReadingSession.class))).thenAnswer(i -> i.getArgument(0));
 
         ReadingSession result = sessionService.resumeSession(user);
@@ -289,10 +310,11 @@ class ReadingSessionServiceTest {
     @Test
     void resumeSession_ShouldHandleNullPausedAt() {
         ReadingSession session = new ReadingSession();
+        session.setBook(book);
         session.setStatus(SessionStatus.PAUSED);
         session.setPausedAt(null); // Edge case
-        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user),
-                eq(List.of(SessionStatus.PAUSED)))).thenReturn(Optional.of(session));
+        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList()))
+                .thenReturn(Optional.of(session));
         when(sessionRepository.save(any(ReadingSession.class))).thenAnswer(i -> i.getArgument(0));
 
         ReadingSession result = sessionService.resumeSession(user);
@@ -302,11 +324,12 @@ class ReadingSessionServiceTest {
     @Test
     void resumeSession_ShouldHandleNullPausedMillis() {
         ReadingSession session = new ReadingSession();
+        session.setBook(book);
         session.setStatus(SessionStatus.PAUSED);
         session.setPausedAt(Instant.now().minusSeconds(5));
         session.setPausedMillis(null); // null pausedMillis
-        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user),
-                eq(List.of(SessionStatus.PAUSED)))).thenReturn(Optional.of(session));
+        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList()))
+                .thenReturn(Optional.of(session));
         when(sessionRepository.save(any(ReadingSession.class))).thenAnswer(i -> i.getArgument(0));
 
         ReadingSession result = sessionService.resumeSession(user);
@@ -316,8 +339,8 @@ class ReadingSessionServiceTest {
 
     @Test
     void resumeSession_ShouldThrow_WhenNoPausedSession() {
-        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user),
-                eq(List.of(SessionStatus.PAUSED)))).thenReturn(Optional.empty());
+        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList()))
+                .thenReturn(Optional.empty());
 
         assertThrows(IllegalSessionStateException.class, () -> sessionService.resumeSession(user));
     }
@@ -327,9 +350,11 @@ class ReadingSessionServiceTest {
     @Test
     void excludeTime_ShouldAddMillis() {
         ReadingSession session = new ReadingSession();
+        session.setBook(book);
+        session.setStatus(SessionStatus.ACTIVE);
         session.setPausedMillis(1000L);
-        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user),
-                eq(List.of(SessionStatus.ACTIVE)))).thenReturn(Optional.of(session));
+        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList()))
+                .thenReturn(Optional.of(session));
         when(sessionRepository.save(any(ReadingSession.class))).thenAnswer(i -> i.getArgument(0));
 
         ReadingSession result = sessionService.excludeTime(user, 500L);
@@ -339,9 +364,11 @@ class ReadingSessionServiceTest {
     @Test
     void excludeTime_ShouldHandleNullPausedMillis() {
         ReadingSession session = new ReadingSession();
+        session.setBook(book);
+        session.setStatus(SessionStatus.ACTIVE);
         session.setPausedMillis(null);
-        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user),
-                eq(List.of(SessionStatus.ACTIVE)))).thenReturn(Optional.of(session));
+        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList()))
+                .thenReturn(Optional.of(session));
         when(sessionRepository.save(any(ReadingSession.class))).thenAnswer(i -> i.getArgument(0));
 
         ReadingSession result = sessionService.excludeTime(user, 500L);
@@ -382,8 +409,104 @@ class ReadingSessionServiceTest {
     // --- deleteSessionsByBook ---
 
     @Test
-    void deleteSessionsByBook_ShouldDelegate() {
-        sessionService.deleteSessionsByBook(user, book);
-        verify(sessionRepository).deleteByUserAndBook(user, book);
+    void deleteSessionsByBook_ShouldBulkDelete() {
+        when(sessionRepository.bulkDeleteByUserAndBookId(user, 10L)).thenReturn(3);
+
+        assertEquals(3, sessionService.deleteSessionsByBook(user, 10L));
+    }
+
+    @Test
+    void deleteAllSessions_ShouldBulkDelete() {
+        when(sessionRepository.bulkDeleteByUser(user)).thenReturn(7);
+
+        assertEquals(7, sessionService.deleteAllSessions(user));
+    }
+
+    // --- active-session registry ---
+
+    @Test
+    void getActiveSession_ShouldQueryOnce_ThenServeFromMemory() {
+        ReadingSession session = openSession(SessionStatus.ACTIVE);
+        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList()))
+                .thenReturn(Optional.of(session));
+
+        Optional<ActiveSession> first = sessionService.getActiveSession(user);
+        Optional<ActiveSession> second = sessionService.getActiveSession(user);
+
+        assertEquals(first, second);
+        assertEquals(5L, second.orElseThrow().id());
+        assertEquals(10L, second.orElseThrow().bookId());
+        verify(sessionRepository, times(1)).findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList());
+    }
+
+    @Test
+    void getActiveSession_ShouldReflectWrites_WithoutQuerying() {
+        ReadingSession session = openSession(SessionStatus.ACTIVE);
+        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList()))
+                .thenReturn(Optional.of(session));
+        when(sessionRepository.findById(5L)).thenReturn(Optional.of(session));
+        when(sessionRepository.save(any(ReadingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        sessionService.pauseSession(user);
+        assertEquals(SessionStatus.PAUSED, sessionService.getActiveSession(user).orElseThrow().status());
+
+        sessionService.stopSession(user, Instant.now(), null);
+        assertTrue(sessionService.getActiveSession(user).isEmpty());
+        verify(eventPublisher).publishEvent(new ActiveSessionChanged(1L, Optional.empty()));
+        // once known to have no session, further writes fail without a query
+        assertThrows(IllegalSessionStateException.class, () -> sessionService.pauseSession(user));
+
+        verify(sessionRepository, times(1)).findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList());
+    }
+
+    @Test
+    void deleteSessions_ShouldDropRegistryEntry() {
+        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList()))
+                .thenReturn(Optional.of(openSession(SessionStatus.ACTIVE)), Optional.empty());
+        sessionService.getActiveSession(user);
+
+        sessionService.deleteAllSessions(user);
+
+        assertTrue(sessionService.getActiveSession(user).isEmpty());
+        verify(eventPublisher).publishEvent(new ActiveSessionChanged(1L, Optional.empty()));
+    }
+
+    @Test
+    void deletes_ShouldClearDailyRollup() {
+        sessionService.deleteSessionsByBook(user, 20L);
+        sessionService.deleteAllSessions(user);
+
+        verify(dayStatsService).bookRemoved(user, 20L);
+        verify(dayStatsService).libraryRemoved(user);
+    }
+
+    @Test
+    void deleteSessionsByBook_ShouldPublishDeletion_WithoutLookingUpOpenSession() {
+        sessionService.deleteSessionsByBook(user, 20L);
+
+        verify(eventPublisher).publishEvent(new BookSessionsDeleted(1L, 20L));
+        verify(sessionRepository, never()).findFirstByUserAndStatusInOrderByStartTimeDesc(any(), anyList());
+    }
+
+    @Test
+    void startSession_ShouldReportConflict_WhenOpenSessionConstraintIsViolated() {
+        when(sessionRepository.findFirstByUserAndStatusInOrderByStartTimeDesc(eq(user), anyList()))
+                .thenReturn(Optional.empty(), Optional.of(openSession(SessionStatus.ACTIVE)));
+        when(bookRepository.findByIdAndUserId(10L, 1L)).thenReturn(Optional.of(book));
+        when(sessionRepository.save(any(ReadingSession.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_session_open_user"));
+
+        assertThrows(IllegalSessionStateException.class, () -> sessionService.startSession(user, 10L));
+        // the registry forgets what it had loaded and asks the database again
+        assertEquals(5L, sessionService.getActiveSession(user).orElseThrow().id());
+    }
+
+    private ReadingSession openSession(SessionStatus status) {
+        ReadingSession session = new ReadingSession();
+        session.setId(5L);
+        session.setBook(book);
+        session.setStartTime(Instant.now());
+        session.setStatus(status);
+        return session;
     }
 }
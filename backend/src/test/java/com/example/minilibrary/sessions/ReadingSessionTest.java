@@ -120,4 +120,20 @@ class ReadingSessionTest {
         assertEquals(5000L, session.getPausedMillis());
         assertEquals(now, session.getPausedAt());
     }
+
+    @Test
+    void syncOpenUserId_ShouldTrackOpenStatus() {
+        User user = new User();
+        user.setId(3L);
+        ReadingSession session = new ReadingSession();
+        session.setUser(user);
+
+        session.setStatus(SessionStatus.PAUSED);
+        session.syncOpenUserId();
+        assertEquals(3L, session.getOpenUserId());
+
+        session.setStatus(SessionStatus.COMPLETED);
+        session.syncOpenUserId();
+        assertNull(session.getOpenUserId());
+    }
 }
@@ -24,6 +24,8 @@ public class ReproductionIT {
     @Autowired
     private ReadingSessionRepository sessionRepository;
     @Autowired
+    private ReadingDayStatRepository dayStatRepository;
+    @Autowired
     private UserRepository userRepository;
     @Autowired
     private BookRepository bookRepository;
@@ -34,6 +36,7 @@ public class ReproductionIT {
     @BeforeEach
     void setUp() {
         // Clear DB
+        dayStatRepository.deleteAll();
         sessionRepository.deleteAll();
         bookRepository.deleteAll();
 
@@ -68,15 +71,15 @@ public class ReproductionIT {
         assertNotNull(session.getStartTime());
 
         // Verify active session exists
-        Optional<ReadingSession> active = sessionService.getActiveSession(testUser);
+        Optional<ActiveSession> active = sessionService.getActiveSession(testUser);
         assertTrue(active.isPresent());
-        assertEquals(session.getId(), active.get().getId());
+        assertEquals(session.getId(), active.get().id());
 
         // 2. Stop Session
         sessionService.stopSession(testUser, Instant.now(), 10);
 
         // Verify NO active session
-        Optional<ReadingSession> activeAfterStop = sessionService.getActiveSession(testUser);
+        Optional<ActiveSession> activeAfterStop = sessionService.getActiveSession(testUser);
         assertFalse(activeAfterStop.isPresent(), "Should clearly be stopped");
 
         // Verify Status in DB
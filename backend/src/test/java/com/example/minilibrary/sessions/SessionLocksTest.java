@@ -0,0 +1,60 @@
+package com.example.minilibrary.sessions;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionLocksTest {
+
+    private final SessionLocks locks = new SessionLocks(256);
+
+    @Test
+    void stripeFor_ShouldBeStablePerUser() {
+        assertSame(locks.stripeFor(42L), locks.stripeFor(42L));
+        assertNotSame(locks.stripeFor(1L), locks.stripeFor(2L));
+    }
+
+    @Test
+    void withUserLock_ShouldBeReentrant() {
+        String result = locks.withUserLock(1L, () -> locks.withUserLock(1L, () -> "nested"));
+
+        assertEquals("nested", result);
+        assertFalse(locks.stripeFor(1L).isLocked());
+    }
+
+    @Test
+    void withUserLock_ShouldReleaseLock_WhenActionThrows() {
+        assertThrows(IllegalStateException.class, () -> locks.withUserLock(1L, () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertFalse(locks.stripeFor(1L).isLocked());
+    }
+
+    @Test
+    void withUserLock_ShouldSerializeSameUser() throws InterruptedException {
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1_000);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1_000; i++) {
+                executor.submit(() -> locks.withUserLock(7L, () -> {
+                    maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                    Thread.yield();
+                    inside.decrementAndGet();
+                    done.countDown();
+                    return null;
+                }));
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, maxInside.get());
+    }
+}
@@ -1,17 +1,37 @@
 package com.example.minilibrary.shared.config;
 
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 class AppConfigTest {
 
     @Test
-    void restTemplate_ShouldReturnInstance() {
-        AppConfig appConfig = new AppConfig();
-        RestTemplate restTemplate = appConfig.restTemplate(new RestTemplateBuilder());
-        assertThat(restTemplate).isNotNull();
+    void googleBooksHttpClient_ShouldPreferHttp2WithConfiguredTimeout() {
+        try (ExecutorService executor = new AppConfig().discoveryExecutor()) {
+            HttpClient client = new AppConfig().googleBooksHttpClient(executor, 1500);
+
+            assertThat(client.version()).isEqualTo(HttpClient.Version.HTTP_2);
+            assertThat(client.connectTimeout()).contains(Duration.ofMillis(1500));
+            assertThat(client.executor()).contains(executor);
+        }
+    }
+
+    @Test
+    void discoveryExecutor_ShouldRunTasksOnVirtualThreads() throws Exception {
+        try (ExecutorService executor = new AppConfig().discoveryExecutor()) {
+            assertThat(executor.submit(() -> Thread.currentThread().isVirtual()).get()).isTrue();
+        }
+    }
+
+    @Test
+    void sessionStreamExecutor_ShouldRunTasksOnVirtualThreads() throws Exception {
+        try (ExecutorService executor = new AppConfig().sessionStreamExecutor()) {
+            assertThat(executor.submit(() -> Thread.currentThread().isVirtual()).get()).isTrue();
+        }
     }
 }
@@ -0,0 +1,64 @@
+package com.example.minilibrary.shared.http;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class OutboundCallGuardTest {
+
+    private static final Object EMF_KEY = new Object();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        if (TransactionSynchronizationManager.hasResource(EMF_KEY)) {
+            TransactionSynchronizationManager.unbindResource(EMF_KEY);
+        }
+    }
+
+    @Test
+    void check_ShouldPass_WhenNoConnectionHeld() {
+        OutboundCallGuard guard = new OutboundCallGuard(true, meterRegistry);
+
+        assertDoesNotThrow(() -> guard.checkNoConnectionHeld("http://example.org"));
+        assertEquals(0, violations());
+    }
+
+    @Test
+    void check_ShouldThrow_InsideTransaction_WhenFailFast() {
+        OutboundCallGuard guard = new OutboundCallGuard(true, meterRegistry);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertThrows(IllegalStateException.class, () -> guard.checkNoConnectionHeld("http://example.org"));
+        assertEquals(1, violations());
+    }
+
+    @Test
+    void check_ShouldOnlyCount_WhenNotFailFast() {
+        OutboundCallGuard guard = new OutboundCallGuard(false, meterRegistry);
+        TransactionSynchronizationManager.bindResource(EMF_KEY, new EntityManagerHolder(mock(EntityManager.class)));
+
+        assertDoesNotThrow(() -> guard.checkNoConnectionHeld("http://example.org"));
+        assertEquals(1, violations());
+    }
+
+    @Test
+    void check_ShouldIgnoreUnrelatedResources() {
+        OutboundCallGuard guard = new OutboundCallGuard(true, meterRegistry);
+        TransactionSynchronizationManager.bindResource(EMF_KEY, "not a connection");
+
+        assertDoesNotThrow(() -> guard.checkNoConnectionHeld("http://example.org"));
+    }
+
+    private double violations() {
+        return meterRegistry.counter(OutboundCallGuard.VIOLATIONS_METRIC).count();
+    }
+}
@@ -40,6 +40,17 @@ class JwtTokenServiceTest {
         assertTrue(claims.getExpirationTime().after(claims.getIssueTime()));
     }
 
+    @Test
+    void createToken_ShouldContainUserIdClaim() throws ParseException {
+        User user = new User("test@example.com", "password", Role.USER);
+        user.setId(42L);
+
+        String token = jwtTokenService.createToken(user);
+        JWTClaimsSet claims = SignedJWT.parse(token).getJWTClaimsSet();
+
+        assertEquals(42L, claims.getLongClaim(JwtTokenService.USER_ID_CLAIM));
+    }
+
     @Test
     void createToken_ShouldContainCorrectRole_ForAdmin() throws ParseException {
         User user = new User("admin@example.com", "password", Role.ADMIN);
@@ -0,0 +1,107 @@
+package com.example.minilibrary.shared.security;
+
+import com.example.minilibrary.auth.Role;
+import com.example.minilibrary.auth.User;
+import com.example.minilibrary.shared.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PrincipalCache principalCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        principalCache = new PrincipalCache(100, 60, meterRegistry);
+    }
+
+    @Test
+    void get_ShouldLoadOnce_AndServeFromCacheAfterwards() {
+        AtomicInteger loads = new AtomicInteger();
+
+        principalCache.get("test@example.com", email -> {
+            loads.incrementAndGet();
+            return user(1L, email);
+        });
+        User cached = principalCache.get("test@example.com", email -> {
+            loads.incrementAndGet();
+            return user(1L, email);
+        });
+
+        assertEquals(1L, cached.getId());
+        assertEquals("test@example.com", cached.getEmail());
+        assertEquals(Role.USER, cached.getRole());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_ShouldNotHandOutPasswordHash() {
+        User cached = principalCache.get("test@example.com", email -> user(1L, email));
+
+        assertNull(cached.getPassword());
+    }
+
+    @Test
+    void evictUser_ShouldForceReload_EvenUnderPreviousEmail() {
+        AtomicInteger loads = new AtomicInteger();
+
+        principalCache.get("old@example.com", email -> {
+            loads.incrementAndGet();
+            return user(1L, email);
+        });
+        principalCache.get("other@example.com", email -> user(2L, email));
+        principalCache.evictUser(1L);
+        principalCache.get("old@example.com", email -> {
+            loads.incrementAndGet();
+            return user(1L, email);
+        });
+        principalCache.get("other@example.com", email -> {
+            loads.incrementAndGet();
+            return user(2L, email);
+        });
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evictUser_ShouldIgnoreNullId() {
+        assertDoesNotThrow(() -> principalCache.evictUser(null));
+    }
+
+    @Test
+    void get_ShouldNotCacheFailedLookups() {
+        assertThrows(ResourceNotFoundException.class, () -> principalCache.get("missing@example.com", email -> {
+            throw new ResourceNotFoundException("User not found");
+        }));
+
+        User user = principalCache.get("missing@example.com", email -> user(3L, email));
+        assertEquals("missing@example.com", user.getEmail());
+    }
+
+    @Test
+    void get_ShouldRecordHitAndMissMetrics() {
+        principalCache.get("test@example.com", email -> user(1L, email));
+        principalCache.get("test@example.com", email -> user(1L, email));
+
+        double hits = meterRegistry.get("cache.gets").tag("cache", PrincipalCache.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count();
+        double misses = meterRegistry.get("cache.gets").tag("cache", PrincipalCache.CACHE_NAME).tag("result", "miss")
+                .functionCounter().count();
+
+        assertEquals(1.0, hits);
+        assertEquals(1.0, misses);
+    }
+
+    private static User user(Long id, String email) {
+        User user = new User(email, "hash", Role.USER);
+        user.setId(id);
+        return user;
+    }
+}
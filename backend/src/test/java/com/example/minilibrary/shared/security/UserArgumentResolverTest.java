@@ -7,18 +7,26 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.MethodParameter;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import java.lang.reflect.Method;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,9 +35,13 @@ class UserArgumentResolverTest {
     @Mock
     private AuthService authService;
 
-    @InjectMocks
     private UserArgumentResolver resolver;
 
+    @BeforeEach
+    void setUp() {
+        resolver = new UserArgumentResolver(authService, new PrincipalCache(100, 60, new SimpleMeterRegistry()));
+    }
+
     @AfterEach
     void tearDown() {
         SecurityContextHolder.clearContext();
@@ -66,9 +78,74 @@ class UserArgumentResolverTest {
 
         when(authService.getUserByEmail(eq("test@example.com"))).thenReturn(user);
 
-        Object result = resolver.resolveArgument(null, null, null, null);
+        User result = (User) resolver.resolveArgument(null, null, null, null);
+
+        assertEquals("test@example.com", result.getEmail());
+        assertEquals(Role.USER, result.getRole());
+        assertNull(result.getPassword());
+    }
+
+    @Test
+    void resolveArgument_ShouldServeRepeatedLookupsFromCache() throws Exception {
+        User user = new User("cached@example.com", "password", Role.USER);
+        TestingAuthenticationToken auth = new TestingAuthenticationToken("cached@example.com", null);
+        auth.setAuthenticated(true);
+        SecurityContextHolder.getContext().setAuthentication(auth);
+
+        when(authService.getUserByEmail(eq("cached@example.com"))).thenReturn(user);
 
-        assertEquals(user, result);
+        resolver.resolveArgument(null, null, null, null);
+        User result = (User) resolver.resolveArgument(null, null, null, null);
+
+        assertEquals("cached@example.com", result.getEmail());
+        verify(authService, times(1)).getUserByEmail("cached@example.com");
+    }
+
+    @Test
+    void resolveArgument_ShouldBuildReferenceFromTokenClaims_WithoutLookup() throws Exception {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("jwt@example.com")
+                .claim(JwtTokenService.USER_ID_CLAIM, 7L)
+                .claim(JwtTokenService.ROLE_CLAIM, "USER")
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt, List.of()));
+
+        User result = (User) resolver.resolveArgument(null, null, null, null);
+
+        assertEquals(7L, result.getId());
+        assertEquals("jwt@example.com", result.getEmail());
+        assertEquals(Role.USER, result.getRole());
+        verify(authService, never()).getUserByEmail(anyString());
+    }
+
+    @Test
+    void resolveArgument_ShouldFallBackToLookup_WhenTokenHasNoUserId() throws Exception {
+        User user = new User("legacy@example.com", "password", Role.USER);
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("legacy@example.com")
+                .claim(JwtTokenService.ROLE_CLAIM, "USER")
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt, List.of()));
+        when(authService.getUserByEmail("legacy@example.com")).thenReturn(user);
+
+        assertEquals("legacy@example.com", ((User) resolver.resolveArgument(null, null, null, null)).getEmail());
+    }
+
+    @Test
+    void resolveArgument_ShouldFallBackToLookup_WhenRoleClaimInvalid() throws Exception {
+        User user = new User("odd@example.com", "password", Role.USER);
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("odd@example.com")
+                .claim(JwtTokenService.USER_ID_CLAIM, 7L)
+                .claim(JwtTokenService.ROLE_CLAIM, "SUPERUSER")
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt, List.of()));
+        when(authService.getUserByEmail("odd@example.com")).thenReturn(user);
+
+        assertEquals("odd@example.com", ((User) resolver.resolveArgument(null, null, null, null)).getEmail());
     }
 
     @Test
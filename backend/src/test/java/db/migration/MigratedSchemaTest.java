@@ -0,0 +1,29 @@
+package db.migration;
+
+import com.example.minilibrary.MiniLibraryApplication;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Starts the application on a database built only by the migrations, with Hibernate validating
+ * the entities against it as in production.
+ */
+@SpringBootTest(classes = MiniLibraryApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrated;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class MigratedSchemaTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Test
+    void entities_ShouldMatchMigratedSchema() {
+        assertEquals(0, flyway.info().pending().length);
+    }
+}
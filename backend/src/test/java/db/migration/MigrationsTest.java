@@ -0,0 +1,122 @@
+package db.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MigrationsTest {
+
+    @Test
+    void sequences_ShouldStartAboveExistingIds() {
+        DataSource dataSource = postgresLikeH2("existing");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        migrate(dataSource, "1");
+        jdbc.update("insert into users (email, password, role, enabled) values ('a@example.com', 'x', 'USER', true)");
+        Long userId = jdbc.queryForObject("select id from users", Long.class);
+        for (int i = 0; i < 3; i++) {
+            jdbc.update("insert into books (title, user_id) values ('t', ?)", userId);
+        }
+        for (int i = 0; i < 7; i++) {
+            jdbc.update("insert into search_history (query, user_id, timestamp) values ('q', ?, current_timestamp)",
+                    userId);
+        }
+
+        migrate(dataSource, "latest");
+
+        // the pooled optimizer's first block ends at the value read
+        long firstSearchId = jdbc.queryForObject("select nextval('search_history_seq')", Long.class)
+                - PooledSequenceMigration.ALLOCATION_SIZE + 1;
+        assertEquals(8, firstSearchId);
+        long firstBookId = jdbc.queryForObject("select nextval('books_seq')", Long.class)
+                - PooledSequenceMigration.ALLOCATION_SIZE + 1;
+        assertEquals(4, firstBookId);
+    }
+
+    @Test
+    void sequences_ShouldStartAtOne_OnEmptyTables() {
+        DataSource dataSource = postgresLikeH2("empty");
+
+        migrate(dataSource, "latest");
+
+        long next = new JdbcTemplate(dataSource).queryForObject("select nextval('search_history_seq')", Long.class);
+        assertEquals(1, next - PooledSequenceMigration.ALLOCATION_SIZE + 1);
+    }
+
+    @Test
+    void dayStats_ShouldMarkUsersWithCompletedSessionsForBackfill() {
+        DataSource dataSource = postgresLikeH2("day-stats");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        migrate(dataSource, "1");
+        jdbc.update("insert into users (email, password, role, enabled) values ('a@example.com', 'x', 'USER', true)");
+        jdbc.update("insert into users (email, password, role, enabled) values ('b@example.com', 'x', 'USER', true)");
+        Long reader = jdbc.queryForObject("select id from users where email = 'a@example.com'", Long.class);
+        Long starter = jdbc.queryForObject("select id from users where email = 'b@example.com'", Long.class);
+        jdbc.update("insert into books (title, user_id) values ('t', ?)", reader);
+        Long bookId = jdbc.queryForObject("select id from books", Long.class);
+        String session = "insert into reading_session (user_id, book_id, status, start_time, end_time) "
+                + "values (?, ?, ?, current_timestamp, ?)";
+        jdbc.update(session, reader, bookId, "COMPLETED", Timestamp.from(Instant.now()));
+        jdbc.update(session, reader, bookId, "COMPLETED", Timestamp.from(Instant.now()));
+        jdbc.update(session, starter, bookId, "ACTIVE", null);
+
+        migrate(dataSource, "latest");
+
+        assertEquals(List.of(reader),
+                jdbc.queryForList("select user_id from reading_day_stats_pending", Long.class));
+    }
+
+    @Test
+    void authorStats_ShouldMarkUsersWithBooksForBackfill() {
+        DataSource dataSource = postgresLikeH2("author-stats");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        migrate(dataSource, "1");
+        jdbc.update("insert into users (email, password, role, enabled) values ('a@example.com', 'x', 'USER', true)");
+        jdbc.update("insert into users (email, password, role, enabled) values ('b@example.com', 'x', 'USER', true)");
+        Long owner = jdbc.queryForObject("select id from users where email = 'a@example.com'", Long.class);
+        jdbc.update("insert into books (title, author, user_id) values ('t', 'Le Guin', ?)", owner);
+        jdbc.update("insert into books (title, author, user_id) values ('u', 'Le Guin', ?)", owner);
+
+        migrate(dataSource, "latest");
+
+        assertEquals(List.of(owner), jdbc.queryForList("select user_id from author_stat_pending", Long.class));
+    }
+
+    @Test
+    void goalProgress_ShouldMarkUsersWithCountedSessionsForBackfill() {
+        DataSource dataSource = postgresLikeH2("goal-progress");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        migrate(dataSource, "1");
+        jdbc.update("insert into users (email, password, role, enabled) values ('a@example.com', 'x', 'USER', true)");
+        jdbc.update("insert into users (email, password, role, enabled) values ('b@example.com', 'x', 'USER', true)");
+        Long reader = jdbc.queryForObject("select id from users where email = 'a@example.com'", Long.class);
+        Long starter = jdbc.queryForObject("select id from users where email = 'b@example.com'", Long.class);
+        jdbc.update("insert into books (title, user_id) values ('t', ?)", reader);
+        Long bookId = jdbc.queryForObject("select id from books", Long.class);
+        String session = "insert into reading_session (user_id, book_id, status, start_time, pages_read) "
+                + "values (?, ?, ?, current_timestamp, ?)";
+        jdbc.update(session, reader, bookId, "COMPLETED", 12);
+        jdbc.update(session, starter, bookId, "ACTIVE", null);
+
+        migrate(dataSource, "latest");
+
+        assertEquals(List.of(reader),
+                jdbc.queryForList("select user_id from reading_goal_progress_pending", Long.class));
+    }
+
+    private static void migrate(DataSource dataSource, String target) {
+        Flyway.configure().dataSource(dataSource).target(target).load().migrate();
+    }
+
+    private static DataSource postgresLikeH2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:migrations-" + name
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}